@@ -0,0 +1,104 @@
+package com.ashley_eve.bench;
+
+import java.lang.reflect.InvocationTargetException;
+import java.util.concurrent.TimeUnit;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.InputReader;
+import com.ashley_eve.file.MappedInput;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+
+/**
+ * The {@code SolutionBenchmark} class measures the parse step and the solve step of every day separately,
+ * outside the Spring context.
+ *
+ * <p>The parse step reads and indexes the input file of the part through {@link InputReader}. The solve step
+ * runs {@link DayTemplate#solvePart(Part)} on input that has already been loaded, without writing the answer; for a
+ * {@link com.ashley_eve.ParsedDayTemplate} it includes parsing the model, which is never reused between solves.
+ * Solutions are looked up by their conventional class name {@code com.ashley_eve.dayN.Solution}, so a new day
+ * is benchmarked by adding its number to {@link #day} or by passing {@code -p day=N} on the command line.
+ *
+ * <p>Run with the {@code benchmark} Maven profile:
+ * <pre>
+ * {@code
+ * mvn -Pbenchmark verify
+ * }
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode({Mode.Throughput, Mode.AverageTime})
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(value = 1, jvmArgsAppend = {"--add-modules", "jdk.incubator.vector"})
+public class SolutionBenchmark {
+
+    /** The day to benchmark. */
+    @Param({"1", "2"})
+    public int day;
+
+    /** The part to benchmark. */
+    @Param({"TEST", "ONE", "TWO"})
+    public Part part;
+
+    /** The solution of the benchmarked day, with the input of the part already loaded. */
+    private DayTemplate solution;
+
+    /** The classpath resource holding the input of the part. */
+    private String inputFile;
+
+    /**
+     * Creates the solution of the benchmarked day and loads the input of the part once,
+     * so the solve benchmark only measures solving.
+     *
+     * @throws ReflectiveOperationException if the solution class cannot be created
+     */
+    @Setup(Level.Trial)
+    public void setUp() throws ReflectiveOperationException {
+        final String className = String.format("com.ashley_eve.day%1$d.Solution", this.day);
+        try {
+            this.solution = (DayTemplate) Class.forName(className)
+                    .getConstructor(boolean.class, boolean.class, boolean.class)
+                    .newInstance(false, false, false);
+        } catch (final InvocationTargetException e) {
+            throw new IllegalStateException(String.format("Failed to create %1$s", className), e.getCause());
+        }
+        this.inputFile = this.part == Part.TEST
+                ? String.format("day%1$d/test.input", this.day)
+                : String.format("day%1$d/problem%2$d.input", this.day, this.part.getProblemNumber());
+        this.solution.solvePart(this.part);
+    }
+
+    /**
+     * Benchmarks the parse step: reading and indexing the input file of the part.
+     *
+     * @return the indexed input
+     */
+    @Benchmark
+    public MappedInput parse() {
+        return InputReader.readFileData(this.inputFile, true);
+    }
+
+    /**
+     * Benchmarks the solve step of the part on its already loaded input.
+     *
+     * @return the answer of the part
+     */
+    @Benchmark
+    public String solve() {
+        return this.solution.solvePart(this.part);
+    }
+}
@@ -1,37 +1,136 @@
 package com.ashley_eve;
 
+import com.ashley_eve.run.BatchRunner;
+import com.ashley_eve.run.CompareRunner;
+import com.ashley_eve.run.DayScheduler;
+import com.ashley_eve.run.ScalingRunner;
+import com.ashley_eve.run.SteadyStateRunner;
+import com.ashley_eve.run.WatchRunner;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.CommandLineRunner;
+import org.springframework.boot.ExitCodeGenerator;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 
 /**
  * Application class that implements CommandLineRunner.
- * This class serves as the entry point of the Spring Boot application.
+ * This class serves as the entry point of the Spring Boot application and hands the enabled days
+ * to the runner of the configured mode once the context has started.
+ * <p>
+ * Configuration properties:
+ * <ul>
+ *   <li>{@code run.mode}: {@code solve} to solve the enabled days with the {@link DayScheduler}, or
+ *   {@code scaling} to run them across synthetic inputs with the {@link ScalingRunner}, {@code watch} to
+ *   keep running and re-solve changed inputs with the {@link WatchRunner}, {@code steady} to measure their
+ *   warmed-up solve times with the {@link SteadyStateRunner}, {@code batch} to solve a corpus of inputs for
+ *   one day with the {@link BatchRunner}, or {@code compare} to solve them and compare the run against the
+ *   performance history with the {@link CompareRunner} (default {@code solve})</li>
+ * </ul>
+ * In the {@code compare} mode the application exits with status {@code 1} when a task failed or a phase
+ * regressed.
  */
 @SpringBootApplication
-public class Application implements CommandLineRunner {
+public class Application implements CommandLineRunner, ExitCodeGenerator {
     /** Static class logger. */
     private static final Logger LOG = LogManager.getLogger(Application.class);
 
+    /** Scheduler that runs the enabled days. */
+    private final DayScheduler dayScheduler;
+
+    /** Runner that measures the enabled days across synthetic input sizes. */
+    private final ScalingRunner scalingRunner;
+
+    /** Runner that re-solves the enabled days when their inputs change. */
+    private final WatchRunner watchRunner;
+
+    /** Runner that measures the warmed-up solve times of the enabled days. */
+    private final SteadyStateRunner steadyStateRunner;
+
+    /** Runner that solves a corpus of inputs for one day. */
+    private final BatchRunner batchRunner;
+
+    /** Runner that compares the run of the enabled days against the performance history. */
+    private final CompareRunner compareRunner;
+
+    /** The configured run mode. */
+    private final String mode;
+
+    /** The exit status of the application, set once the run has finished. */
+    private int exitCode;
+
+    /**
+     * Constructs the Application with the runners of the enabled days.
+     *
+     * @param dayScheduler      the scheduler that runs the enabled days
+     * @param scalingRunner     the runner that measures the enabled days across synthetic input sizes
+     * @param watchRunner       the runner that re-solves the enabled days when their inputs change
+     * @param steadyStateRunner the runner that measures the warmed-up solve times of the enabled days
+     * @param batchRunner       the runner that solves a corpus of inputs for one day
+     * @param compareRunner     the runner that compares the run against the performance history
+     * @param mode              the run mode, {@code solve}, {@code scaling}, {@code watch}, {@code steady},
+     *                          {@code batch} or {@code compare}
+     */
+    public Application(final DayScheduler dayScheduler, final ScalingRunner scalingRunner,
+                       final WatchRunner watchRunner, final SteadyStateRunner steadyStateRunner,
+                       final BatchRunner batchRunner, final CompareRunner compareRunner,
+                       @Value("${run.mode:solve}") final String mode) {
+        this.dayScheduler = dayScheduler;
+        this.scalingRunner = scalingRunner;
+        this.watchRunner = watchRunner;
+        this.steadyStateRunner = steadyStateRunner;
+        this.batchRunner = batchRunner;
+        this.compareRunner = compareRunner;
+        this.mode = mode;
+    }
+
     /**
      * The main method that starts the Spring Boot application.
      *
      * @param args The command-line arguments.
      */
     public static void main(final String[] args) {
-        SpringApplication.run(Application.class, args);
+        final int exitCode = SpringApplication.exit(SpringApplication.run(Application.class, args));
+        if (exitCode != 0) {
+            System.exit(exitCode);
+        }
     }
 
     /**
-     * This method is called after the Spring Boot application starts.
+     * This method is called after the Spring Boot application starts and runs every enabled day
+     * in the configured mode.
      *
      * @param args Command-line arguments.
      * @throws Exception if an error occurs.
      */
     @Override
     public void run(final String... args) throws Exception {
-        LOG.debug("Hello world");
+        final int failures = switch (this.mode) {
+            case "solve" -> this.dayScheduler.runAll();
+            case "scaling" -> this.scalingRunner.runAll();
+            case "watch" -> this.watchRunner.runAll();
+            case "steady" -> this.steadyStateRunner.runAll();
+            case "batch" -> this.batchRunner.runAll();
+            case "compare" -> this.compareRunner.runAll();
+            default -> throw new IllegalArgumentException(String.format("Unknown run mode: %1$s", this.mode));
+        };
+        if (failures > 0) {
+            LOG.warn(() -> String.format("%1$d tasks failed", failures));
+            if ("compare".equals(this.mode)) {
+                this.exitCode = 1;
+            }
+        }
+    }
+
+    /**
+     * Gets the exit status of the application: {@code 1} if a task failed or a phase regressed in the
+     * {@code compare} mode, {@code 0} otherwise.
+     *
+     * @return the exit status
+     */
+    @Override
+    public int getExitCode() {
+        return this.exitCode;
     }
 }
\ No newline at end of file
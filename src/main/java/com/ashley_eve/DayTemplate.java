@@ -1,9 +1,30 @@
 package com.ashley_eve;
 
+import java.nio.file.Path;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongBinaryOperator;
+import java.util.function.ToLongFunction;
+import java.util.stream.Stream;
 
+import com.ashley_eve.file.ChunkedInputReader;
+import com.ashley_eve.file.InputCache;
 import com.ashley_eve.file.InputReader;
+import com.ashley_eve.file.LineToLongFunction;
+import com.ashley_eve.file.MappedInput;
 import com.ashley_eve.file.SolutionWriter;
+import com.ashley_eve.metrics.Phase;
+import com.ashley_eve.metrics.RunMetrics;
+import com.ashley_eve.metrics.SolvePartEvent;
+import com.ashley_eve.structure.Grid;
+import com.ashley_eve.structure.LongMemo;
+import com.ashley_eve.structure.ScratchArena;
 
 
 /**
@@ -12,44 +33,70 @@ import com.ashley_eve.file.SolutionWriter;
  * and stores the data in appropriate collections.
  *
  * <p>The class provides methods to generate file paths for input files given a day number and
- * a problem id, and it initializes collections for test data and the two problem datasets.
+ * a problem id. The test data and the two problem datasets are only read the first time they are requested,
+ * and can be released through {@link #releaseInput(int)} once the matching solve has finished.
  *
  * <p>Note: The input files should be in the format specified by the {@link #getFile} method.
+ * Files are memory-mapped where possible; {@link #getTestInput()}, {@link #getProblem1Input()} and
+ * {@link #getProblem2Input()} expose them as indexed lines that can be walked without copying.
+ *
+ * <p>Solving does not happen in the constructor. Each subclass implements {@link #testSolution()},
+ * {@link #solveProblemOne()} and {@link #solveProblemTwo()} to return its answers, and the
+ * {@link com.ashley_eve.run.DayScheduler} calls {@link #runPart(Part)} for every enabled part, possibly
+ * concurrently with other parts and days. Days whose parts share a parsed form of the input extend
+ * {@link ParsedDayTemplate} instead, which parses every input once for all parts.
  *
  * <ul>
- * <li>{@code testData} - Collection to store the test data</li>
- * <li>{@code problem1Data} - Collection to store the data from the first problem input file</li>
- * <li>{@code problem2Data} - Collection to store the data from the second problem input file</li>
+ * <li>{@link #getTestData()} - the test data</li>
+ * <li>{@link #getProblem1Data()} - the data from the first problem input file</li>
+ * <li>{@link #getProblem2Data()} - the data from the second problem input file</li>
  * </ul>
  *
  * @see InputReader
  */
-public class DayTemplate {
-    /** Collection to store the test data. */
-    private final Collection<byte[]> testData;
-
-    /** Collection to store the data from the first problem input file. */
-    private final Collection<byte[]> problem1Data;
-
-    /** Collection to store the data from the second problem input file. */
-    private final Collection<byte[]> problem2Data;
+public abstract class DayTemplate {
+    /** Reader that loads the input files of this day on first use. */
+    private final InputReader inputReader;
 
     /** The number of the day for which this template is created. */
     private final int dayNumber;
 
+    /** The parts that are enabled for this day. */
+    private final Set<Part> enabledParts;
+
+    /** The scratch arena of the part being solved on the calling thread, {@code null} until first requested. */
+    private final ThreadLocal<ScratchArena> scratchArena = new ThreadLocal<>();
+
+    /** The memos created by the parts being solved on the calling thread, reported when their part finishes. */
+    private final ThreadLocal<List<LongMemo>> memos = new ThreadLocal<>();
+
+    /** The input bound to the calling thread by {@link #solveInput(Part, MappedInput)}, if any. */
+    private final ThreadLocal<BoundInput> boundInput = new ThreadLocal<>();
+
     /**
      * Constructs an instance of TestDayTemplate for a specified day number.
      *
-     * @param dayNumber the number of the day for which this template is created
+     * @param dayNumber     the number of the day for which this template is created
+     * @param runTest       {@code true} if the test solution needs to be run, {@code false} otherwise
+     * @param runProblemOne {@code true} if the first problem solution needs to be run, {@code false} otherwise
+     * @param runProblemTwo {@code true} if the second problem solution needs to be run, {@code false} otherwise
      */
-    protected DayTemplate(final int dayNumber) {
-        final InputReader inputReader = new InputReader(getFile(dayNumber, "1"),
+    protected DayTemplate(final int dayNumber, final boolean runTest, final boolean runProblemOne,
+                          final boolean runProblemTwo) {
+        this.inputReader = new InputReader(dayNumber, getFile(dayNumber, "1"),
                 getFile(dayNumber, "2"),
-                getFile(dayNumber, ""));
+                getFile(dayNumber, ""), true);
         this.dayNumber = dayNumber;
-        this.testData = inputReader.getTestData();
-        this.problem1Data = inputReader.getProblem1Data();
-        this.problem2Data = inputReader.getProblem2Data();
+        this.enabledParts = EnumSet.noneOf(Part.class);
+        if (runTest) {
+            this.enabledParts.add(Part.TEST);
+        }
+        if (runProblemOne) {
+            this.enabledParts.add(Part.ONE);
+        }
+        if (runProblemTwo) {
+            this.enabledParts.add(Part.TWO);
+        }
     }
 
 
@@ -59,11 +106,292 @@ public class DayTemplate {
      *
      * @param data the collection of byte arrays to convert
      * @return a collection of characters
+     * @deprecated boxes every cell and cannot be indexed by row and column; use {@link #convertToGrid} instead
      */
+    @Deprecated
     public static Collection<Character> convertToCharCollection(final Collection<byte[]> data) {
         return data.stream().map(val -> (char) val[0]).toList();
     }
 
+    /**
+     * Converts the given collection of byte arrays to a {@link Grid}, one row per byte array.
+     *
+     * @param data the rows of the grid
+     * @return the grid backed by one flat row-major array
+     */
+    public static Grid convertToGrid(final Collection<byte[]> data) {
+        return Grid.of(data);
+    }
+
+    /**
+     * Converts the lines of the given input to a {@link Grid}, one row per line.
+     *
+     * @param input the indexed input holding the rows
+     * @return the grid backed by one flat row-major array
+     */
+    public static Grid convertToGrid(final MappedInput input) {
+        return Grid.of(input);
+    }
+
+    /**
+     * Gets the number of the day for which this template is created.
+     *
+     * @return the day number
+     */
+    public int getDayNumber() {
+        return this.dayNumber;
+    }
+
+    /**
+     * Gets the parts that are enabled for this day by its configuration properties.
+     *
+     * @return an unmodifiable set of the enabled parts, in part order
+     */
+    public Set<Part> getEnabledParts() {
+        return Collections.unmodifiableSet(this.enabledParts);
+    }
+
+    /**
+     * Runs the given part: solves it, writes its answer to the matching output file
+     * and releases its input afterwards.
+     *
+     * @param part the part to run
+     */
+    public void runPart(final Part part) {
+        runPart(part, RunMetrics.disabled());
+    }
+
+    /**
+     * Runs the given part and records the cost of reading its input, solving it and writing its answer
+     * as separate phases. The input is released afterwards.
+     *
+     * @param part    the part to run
+     * @param metrics the metrics receiving the phase measurements
+     */
+    public void runPart(final Part part, final RunMetrics metrics) {
+        final int problemNumber = part.getProblemNumber();
+        try {
+            metrics.measure(this.dayNumber, part, Phase.READ, () -> loadInput(part));
+            final String answer = metrics.measure(this.dayNumber, part, Phase.SOLVE, () -> solvePart(part));
+            metrics.measureRun(this.dayNumber, part, Phase.WRITE, () -> {
+                if (part == Part.TEST) {
+                    writeTestSolution(answer);
+                } else {
+                    writeSolution(problemNumber, answer);
+                }
+            });
+        } finally {
+            releaseInput(problemNumber);
+        }
+    }
+
+    /**
+     * Reads and indexes the input of the given part, unless it is already loaded, so that reading can be
+     * measured apart from solving.
+     *
+     * @param part the part whose input is read
+     * @return the indexed input
+     */
+    public MappedInput loadInput(final Part part) {
+        return this.inputReader.getInput(part.getProblemNumber());
+    }
+
+    /**
+     * Starts loading the inputs of all enabled parts in the background, if an input prefetcher is configured,
+     * so that {@link #loadInput(Part)} finds them loaded or only waits for the rest of the load.
+     */
+    public void prefetchInputs() {
+        for (final Part part : this.enabledParts) {
+            this.inputReader.prefetch(part.getProblemNumber());
+        }
+    }
+
+    /**
+     * Solves the given part and returns its answer without writing it anywhere.
+     *
+     * @param part the part to solve
+     * @return the answer of the part
+     */
+    public String solvePart(final Part part) {
+        final SolvePartEvent event = new SolvePartEvent();
+        event.begin();
+        final ScratchArena outerArena = this.scratchArena.get();
+        final List<LongMemo> outerMemos = this.memos.get();
+        final int outerMemoCount = outerMemos == null ? 0 : outerMemos.size();
+        final String answer;
+        try {
+            answer = switch (part) {
+                case TEST -> testSolution();
+                case ONE -> solveProblemOne();
+                case TWO -> solveProblemTwo();
+            };
+        } finally {
+            final ScratchArena arena = this.scratchArena.get();
+            if (arena != outerArena) {
+                if (outerArena == null) {
+                    this.scratchArena.remove();
+                } else {
+                    this.scratchArena.set(outerArena);
+                }
+                ScratchArena.release(arena);
+            }
+            reportMemos(part, outerMemoCount);
+        }
+        event.end();
+        if (event.shouldCommit()) {
+            final MappedInput bound = boundInput(part.getProblemNumber());
+            event.day = this.dayNumber;
+            event.part = part.name();
+            event.inputBytes = bound == null ? this.inputReader.loadedSize(part.getProblemNumber()) : bound.size();
+            event.answerLength = answer == null ? 0 : answer.length();
+            event.commit();
+        }
+        return answer;
+    }
+
+    /**
+     * Gets the scratch arena of the part being solved, for temporary buffers and lists that would otherwise be
+     * allocated on every solve. The arena is taken from a shared pool on first use and reset and returned once
+     * the part has been solved, so nothing drawn from it may outlive the solve. The arena is bound to the solving
+     * thread, so a {@code mapReduceLines} mapper must not use it.
+     *
+     * @return the scratch arena of the current solve
+     * @throws IllegalStateException if called from a {@code mapReduceLines} mapper
+     */
+    protected ScratchArena scratch() {
+        checkNotMapping("scratch");
+        ScratchArena arena = this.scratchArena.get();
+        if (arena == null) {
+            arena = ScratchArena.acquire();
+            this.scratchArena.set(arena);
+        }
+        return arena;
+    }
+
+    /**
+     * Creates an unbounded memo for the part being solved. Its hit, miss and eviction counts are logged once the
+     * part has been solved.
+     *
+     * @param name the name of the memo in the statistics
+     * @return a new memo
+     * @throws IllegalStateException if called from a {@code mapReduceLines} mapper
+     */
+    protected LongMemo memo(final String name) {
+        return memo(name, 0);
+    }
+
+    /**
+     * Creates a memo for the part being solved that holds at most the given number of entries and evicts the
+     * least recently used ones beyond that. Its hit, miss and eviction counts are logged once the part has been
+     * solved. Memos are reported by the solving thread, so a {@code mapReduceLines} mapper must not create one.
+     *
+     * @param name    the name of the memo in the statistics
+     * @param maxSize the maximum number of entries, or {@code 0} for an unbounded memo
+     * @return a new memo
+     * @throws IllegalStateException if called from a {@code mapReduceLines} mapper
+     */
+    protected LongMemo memo(final String name, final int maxSize) {
+        checkNotMapping("memo");
+        final LongMemo memo = new LongMemo(name, maxSize);
+        List<LongMemo> created = this.memos.get();
+        if (created == null) {
+            created = new ArrayList<>();
+            this.memos.set(created);
+        }
+        created.add(memo);
+        return memo;
+    }
+
+    /**
+     * Rejects the use of a per-solve resource from a {@code mapReduceLines} mapper, which may run on a pool
+     * worker where the resource would never be released or reported.
+     *
+     * @param resource the name of the method providing the resource
+     * @throws IllegalStateException if the calling thread is running a mapper
+     */
+    private void checkNotMapping(final String resource) {
+        if (LineMapReduceTask.isMapping()) {
+            throw new IllegalStateException(String.format("day%1$d: %2$s() is bound to the solving thread and "
+                    + "cannot be used by a mapReduceLines mapper", this.dayNumber, resource));
+        }
+    }
+
+    /**
+     * Logs the statistics of the memos created while solving a part and forgets them.
+     *
+     * @param part       the part that was solved
+     * @param outerCount the number of memos that belong to an enclosing solve on the same thread
+     */
+    private void reportMemos(final Part part, final int outerCount) {
+        final List<LongMemo> created = this.memos.get();
+        if (created == null) {
+            return;
+        }
+        final String owner = String.format("day%1$d %2$s", this.dayNumber, part);
+        final List<LongMemo> finished = created.subList(outerCount, created.size());
+        finished.forEach(memo -> memo.logStatistics(owner));
+        finished.clear();
+        if (created.isEmpty()) {
+            this.memos.remove();
+        }
+    }
+
+    /**
+     * Solves the given part on an input other than its own, e.g. one file of a corpus, and returns its answer
+     * without writing it anywhere. The input is bound to the calling thread only, so several threads can solve
+     * different inputs with the same day at once; it replaces the input of the part in the data and input
+     * getters for the duration of the solve.
+     *
+     * @param part  the part to solve
+     * @param input the input to solve the part on
+     * @return the answer of the part for the input
+     */
+    public String solveInput(final Part part, final MappedInput input) {
+        final BoundInput previous = this.boundInput.get();
+        this.boundInput.set(new BoundInput(part.getProblemNumber(), input));
+        try {
+            return solvePart(part);
+        } finally {
+            if (previous == null) {
+                this.boundInput.remove();
+            } else {
+                this.boundInput.set(previous);
+            }
+        }
+    }
+
+    /**
+     * Gets the input bound to the calling thread for the given problem number.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @return the bound input, or {@code null} if the input of the day is to be used
+     */
+    private MappedInput boundInput(final int problemNumber) {
+        final BoundInput bound = this.boundInput.get();
+        return bound != null && bound.problemNumber() == problemNumber ? bound.input() : null;
+    }
+
+    /**
+     * Solves the test input.
+     *
+     * @return the answer for the test input
+     */
+    protected abstract String testSolution();
+
+    /**
+     * Solves the first problem.
+     *
+     * @return the answer for the first problem
+     */
+    protected abstract String solveProblemOne();
+
+    /**
+     * Solves the second problem.
+     *
+     * @return the answer for the second problem
+     */
+    protected abstract String solveProblemTwo();
+
     /**
      * This method generates the file path for the input files
      * based on the given day number and problem id.
@@ -86,7 +414,8 @@ public class DayTemplate {
      * @return the test data collection
      */
     protected Collection<byte[]> getTestData() {
-        return this.testData;
+        final MappedInput bound = boundInput(0);
+        return bound == null ? this.inputReader.getTestData() : bound.asByteLines();
     }
 
     /**
@@ -95,7 +424,8 @@ public class DayTemplate {
      * @return the data from the first problem input file collection
      */
     protected Collection<byte[]> getProblem1Data() {
-        return this.problem1Data;
+        final MappedInput bound = boundInput(1);
+        return bound == null ? this.inputReader.getProblem1Data() : bound.asByteLines();
     }
 
     /**
@@ -104,7 +434,149 @@ public class DayTemplate {
      * @return the data from the second problem input file collection
      */
     protected Collection<byte[]> getProblem2Data() {
-        return this.problem2Data;
+        final MappedInput bound = boundInput(2);
+        return bound == null ? this.inputReader.getProblem2Data() : bound.asByteLines();
+    }
+
+    /**
+     * Gets the indexed test input, whose lines can be walked without a copy.
+     *
+     * @return the test input
+     */
+    protected MappedInput getTestInput() {
+        final MappedInput bound = boundInput(0);
+        return bound == null ? this.inputReader.getTestInput() : bound;
+    }
+
+    /**
+     * Gets the indexed input of the first problem, whose lines can be walked without a copy.
+     *
+     * @return the first problem input
+     */
+    protected MappedInput getProblem1Input() {
+        final MappedInput bound = boundInput(1);
+        return bound == null ? this.inputReader.getProblem1Input() : bound;
+    }
+
+    /**
+     * Gets the indexed input of the second problem, whose lines can be walked without a copy.
+     *
+     * @return the second problem input
+     */
+    protected MappedInput getProblem2Input() {
+        final MappedInput bound = boundInput(2);
+        return bound == null ? this.inputReader.getProblem2Input() : bound;
+    }
+
+    /**
+     * Streams the input of the given problem number as line-aligned chunks without loading it as a whole,
+     * for inputs larger than the heap. The input is resolved like the input getters do: an input bound by
+     * {@link #solveInput(Part, MappedInput)} is streamed as a single chunk, and a file set through
+     * {@link #useInputFile(int, Path)} is streamed instead of the classpath resource. The returned stream is
+     * parallel and must be closed.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @return a parallel stream of the chunks of the input
+     * @see ChunkedInputReader
+     */
+    protected Stream<MappedInput> streamInputChunks(final int problemNumber) {
+        final MappedInput bound = boundInput(problemNumber);
+        if (bound != null) {
+            return Stream.of(bound).parallel();
+        }
+        return this.inputReader.chunks(problemNumber, ChunkedInputReader.DEFAULT_CHUNK_SIZE, true);
+    }
+
+    /**
+     * Maps every line of an input to a {@code long} and reduces the values, splitting the lines across the
+     * cores of the common fork-join pool. Inputs of a few thousand lines or fewer are reduced on the calling
+     * thread, where forking would cost more than it saves.
+     *
+     * <p>Usage example:
+     * <pre>{@code
+     * long safeReports = mapReduceLines(getProblem1Input(), (input, line) -> isSafe(input, line) ? 1 : 0,
+     *         0, Long::sum);
+     * }</pre>
+     *
+     * @param input    the input whose lines are mapped
+     * @param mapper   maps one line to its value; called concurrently, so it must not share mutable state or
+     *                 call {@link #scratch()} or {@link #memo(String, int)}
+     * @param identity the identity of the reducer, e.g. {@code 0} for a sum
+     * @param reducer  combines two values; must be associative
+     * @return the reduced value, {@code identity} for an empty input
+     */
+    protected static long mapReduceLines(final MappedInput input, final LineToLongFunction mapper,
+                                         final long identity, final LongBinaryOperator reducer) {
+        return LineMapReduceTask.mapReduce(input.lineCount(), line -> mapper.applyAsLong(input, line), identity,
+                reducer);
+    }
+
+    /**
+     * Maps every line of a line collection, such as {@link #getProblem1Data()}, to a {@code long} and reduces the
+     * values in parallel, as {@link #mapReduceLines(MappedInput, LineToLongFunction, long, LongBinaryOperator)}
+     * does for an input.
+     *
+     * @param lines    the lines to map
+     * @param mapper   maps one line to its value; called concurrently, so it must not share mutable state or
+     *                 call {@link #scratch()} or {@link #memo(String, int)}
+     * @param identity the identity of the reducer, e.g. {@code 0} for a sum
+     * @param reducer  combines two values; must be associative
+     * @return the reduced value, {@code identity} if there are no lines
+     */
+    protected static long mapReduceLines(final Collection<byte[]> lines, final ToLongFunction<byte[]> mapper,
+                                         final long identity, final LongBinaryOperator reducer) {
+        if (lines instanceof List<byte[]> list && lines instanceof RandomAccess) {
+            return LineMapReduceTask.mapReduce(list.size(), line -> mapper.applyAsLong(list.get(line)), identity,
+                    reducer);
+        }
+        final byte[][] array = lines.toArray(new byte[0][]);
+        return LineMapReduceTask.mapReduce(array.length, line -> mapper.applyAsLong(array[line]), identity,
+                reducer);
+    }
+
+    /**
+     * Parses an input into an {@code int[]}, reusing the parsed form stored in the {@link InputCache} for
+     * identical content when the cache is enabled.
+     *
+     * @param input  the input to parse
+     * @param name   the name of the parsed form, e.g. {@code "left"}
+     * @param parser parses the input into the values on a cache miss
+     * @return the parsed values
+     */
+    protected int[] parseCached(final MappedInput input, final String name,
+                                final Function<MappedInput, int[]> parser) {
+        final InputCache cache = InputReader.getInputCache();
+        return cache == null ? parser.apply(input) : cache.computeIfAbsent(input, name, parser);
+    }
+
+    /**
+     * Reads the input of the given problem number from a file on disk instead of the classpath, e.g. for
+     * generated or changed inputs. Any loaded data for the problem number is released.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @param file          the file to read, or {@code null} to go back to the classpath resource
+     */
+    public void useInputFile(final int problemNumber, final Path file) {
+        this.inputReader.setInputFile(problemNumber, file);
+    }
+
+    /**
+     * Releases the input of the given problem number once its solve has finished, so the run
+     * only holds the inputs that are still needed.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     */
+    protected void releaseInput(final int problemNumber) {
+        this.inputReader.release(problemNumber);
+    }
+
+    /**
+     * Releases the input of the given part, e.g. after it was kept loaded across repeated solves.
+     *
+     * @param part the part whose input is released
+     */
+    public void releaseInput(final Part part) {
+        releaseInput(part.getProblemNumber());
     }
 
     /**
@@ -125,4 +597,13 @@ public class DayTemplate {
     protected void writeSolution(final int problemNumber, final String data) {
         SolutionWriter.writeSolutionToFile(this.dayNumber, problemNumber, data);
     }
+
+    /**
+     * The {@code BoundInput} record is an input that replaces the input of one problem number on one thread.
+     *
+     * @param problemNumber the problem number whose input is replaced
+     * @param input         the replacing input
+     */
+    private record BoundInput(int problemNumber, MappedInput input) {
+    }
 }
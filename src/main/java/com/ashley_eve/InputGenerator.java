@@ -0,0 +1,34 @@
+package com.ashley_eve;
+
+import java.io.IOException;
+import java.io.OutputStream;
+
+
+/**
+ * The {@code InputGenerator} interface is implemented by every day that can produce synthetic puzzle inputs
+ * of any size. Generators are registered as Spring beans next to the {@code Solution} of their day and are
+ * used by the {@link com.ashley_eve.run.ScalingRunner} to measure how a solution scales with its input.
+ *
+ * <p>Generated inputs must be valid for the day's solution and must be reproducible: the same size and seed
+ * always produce the same bytes.
+ */
+public interface InputGenerator {
+
+    /**
+     * Gets the number of the day this generator produces inputs for.
+     *
+     * @return the day number
+     */
+    int getDayNumber();
+
+    /**
+     * Writes a synthetic input of about the requested size. Generation stops at the first line boundary at or
+     * past the target, so the output never ends in a partial line.
+     *
+     * @param out         the stream receiving the input; buffering is left to the caller
+     * @param targetBytes the requested size in bytes
+     * @param seed        the seed of the random values
+     * @throws IOException if the input cannot be written
+     */
+    void generate(OutputStream out, long targetBytes, long seed) throws IOException;
+}
@@ -0,0 +1,144 @@
+package com.ashley_eve;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.function.IntToLongFunction;
+import java.util.function.LongBinaryOperator;
+
+
+/**
+ * The {@code LineMapReduceTask} class maps a range of lines to {@code long} values and reduces them on the
+ * fork-join pool. Ranges are halved until they reach the leaf size; each half is forked, so idle workers steal
+ * the remaining halves of busy ones. Leaves map and reduce their lines in a plain loop without boxing.
+ *
+ * <p>A leaf may run on any worker of the pool, including a thread that is solving another part, so mappers must
+ * not use the per-solve resources of {@link DayTemplate}: while a leaf runs, {@link #isMapping()} is set and
+ * {@link DayTemplate#scratch()} and {@link DayTemplate#memo(String, int)} refuse to bind an arena or memo to the
+ * thread.
+ */
+final class LineMapReduceTask extends RecursiveTask<Long> {
+
+    /** Inputs with at most this many lines are reduced on the calling thread without forking. */
+    static final int SEQUENTIAL_LINES = 2048;
+
+    /** The smallest number of lines a leaf task maps. */
+    private static final int MIN_LEAF_LINES = 256;
+
+    /** The number of leaves aimed for per worker, so that stealing can even out uneven lines. */
+    private static final int LEAVES_PER_WORKER = 8;
+
+    /** Serialization version, required by {@link java.util.concurrent.ForkJoinTask}. */
+    private static final long serialVersionUID = 1L;
+
+    /** Set on a thread while it maps lines. */
+    private static final ThreadLocal<Boolean> MAPPING = new ThreadLocal<>();
+
+    /** Maps a line number to its value. */
+    private final transient IntToLongFunction mapper;
+
+    /** The identity of the reducer. */
+    private final long identity;
+
+    /** Combines two values; must be associative. */
+    private final transient LongBinaryOperator reducer;
+
+    /** The first line of the range. */
+    private final int from;
+
+    /** The line after the last one of the range. */
+    private final int to;
+
+    /** The number of lines at or below which the range is mapped sequentially. */
+    private final int leafLines;
+
+    /**
+     * Constructs a LineMapReduceTask for a range of lines.
+     *
+     * @param mapper    maps a line number to its value
+     * @param identity  the identity of the reducer
+     * @param reducer   combines two values
+     * @param from      the first line of the range
+     * @param to        the line after the last one of the range
+     * @param leafLines the number of lines at or below which the range is mapped sequentially
+     */
+    private LineMapReduceTask(final IntToLongFunction mapper, final long identity, final LongBinaryOperator reducer,
+                              final int from, final int to, final int leafLines) {
+        this.mapper = mapper;
+        this.identity = identity;
+        this.reducer = reducer;
+        this.from = from;
+        this.to = to;
+        this.leafLines = leafLines;
+    }
+
+    /**
+     * Maps and reduces the lines {@code [0, lineCount)}. Small inputs are reduced on the calling thread; larger
+     * ones are split into leaves sized to give every worker of the pool several leaves to steal from.
+     *
+     * @param lineCount the number of lines
+     * @param mapper    maps a line number to its value
+     * @param identity  the identity of the reducer
+     * @param reducer   combines two values; must be associative
+     * @return the reduced value, {@code identity} if there are no lines
+     */
+    static long mapReduce(final int lineCount, final IntToLongFunction mapper, final long identity,
+                          final LongBinaryOperator reducer) {
+        if (lineCount <= SEQUENTIAL_LINES) {
+            return reduceSequentially(mapper, identity, reducer, 0, lineCount);
+        }
+        final int workers = ForkJoinPool.getCommonPoolParallelism();
+        final int leafLines = Math.max(MIN_LEAF_LINES, lineCount / (workers * LEAVES_PER_WORKER));
+        return new LineMapReduceTask(mapper, identity, reducer, 0, lineCount, leafLines).invoke();
+    }
+
+    /**
+     * Checks whether the calling thread is mapping lines, i.e. running a mapper.
+     *
+     * @return {@code true} inside a mapper
+     */
+    static boolean isMapping() {
+        return MAPPING.get() != null;
+    }
+
+    @Override
+    protected Long compute() {
+        if (this.to - this.from <= this.leafLines) {
+            return reduceSequentially(this.mapper, this.identity, this.reducer, this.from, this.to);
+        }
+        final int middle = (this.from + this.to) >>> 1;
+        final LineMapReduceTask left = new LineMapReduceTask(this.mapper, this.identity, this.reducer, this.from,
+                middle, this.leafLines);
+        final LineMapReduceTask right = new LineMapReduceTask(this.mapper, this.identity, this.reducer, middle,
+                this.to, this.leafLines);
+        right.fork();
+        final long leftValue = left.compute();
+        return this.reducer.applyAsLong(leftValue, right.join());
+    }
+
+    /**
+     * Maps and reduces a range of lines in a plain loop.
+     *
+     * @param mapper   maps a line number to its value
+     * @param identity the identity of the reducer
+     * @param reducer  combines two values
+     * @param from     the first line of the range
+     * @param to       the line after the last one of the range
+     * @return the reduced value
+     */
+    private static long reduceSequentially(final IntToLongFunction mapper, final long identity,
+                                           final LongBinaryOperator reducer, final int from, final int to) {
+        final Boolean outer = MAPPING.get();
+        MAPPING.set(Boolean.TRUE);
+        try {
+            long result = identity;
+            for (int line = from; line < to; line++) {
+                result = reducer.applyAsLong(result, mapper.applyAsLong(line));
+            }
+            return result;
+        } finally {
+            if (outer == null) {
+                MAPPING.remove();
+            }
+        }
+    }
+}
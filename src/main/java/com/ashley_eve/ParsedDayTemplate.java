@@ -0,0 +1,188 @@
+package com.ashley_eve;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.ashley_eve.file.MappedInput;
+import com.ashley_eve.metrics.RunMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code ParsedDayTemplate} class is a {@link DayTemplate} whose parts share one parsed model per input.
+ * A subclass implements {@link #parse(MappedInput)} to turn an input into an immutable model of type {@code M},
+ * and solves every part from that model instead of from the raw input.
+ *
+ * <p>Models are only shared between the parts of a scheduled run, i.e. while {@link #runPart(Part, RunMetrics)}
+ * runs. There they are kept by the {@link MappedInput#contentKey() content key} of their input, so the problem one
+ * and problem two inputs, which usually hold the same puzzle, are parsed once. The
+ * {@link com.ashley_eve.run.DayScheduler} runs the parts of a day concurrently: the first part to need a model
+ * parses it, and a part that needs the same model while it is being parsed waits for it instead of parsing it
+ * again. The models are dropped once every enabled part of the day has run, and at most {@value #MAX_MODELS} are
+ * kept at once. Any other solve, e.g. a direct {@link #solvePart(Part)} from the steady state runner or a
+ * benchmark, or {@link #solveInput(Part, MappedInput)} from a batch run, parses its own model and drops it when
+ * it returns, so repeated solves always measure the parse and never see a model of an earlier input.
+ *
+ * <p>Because parts read the model concurrently, the model must not be modified after {@link #parse(MappedInput)}
+ * returns.
+ *
+ * @param <M> the type of the parsed model
+ */
+public abstract class ParsedDayTemplate<M> extends DayTemplate {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(ParsedDayTemplate.class);
+
+    /** The maximum number of models kept at once. */
+    private static final int MAX_MODELS = 8;
+
+    /** The parsed or parsing models by content key, least recently used first. */
+    private final Map<String, CompletableFuture<M>> models = new LinkedHashMap<>(16, 0.75f, true) {
+        @Override
+        protected boolean removeEldestEntry(final Map.Entry<String, CompletableFuture<M>> eldest) {
+            return size() > MAX_MODELS;
+        }
+    };
+
+    /** The number of parts that have run since the models were last dropped. */
+    private final AtomicInteger finishedParts = new AtomicInteger();
+
+    /** Set on the threads running {@link #runPart(Part, RunMetrics)}, whose solves share their models. */
+    private final ThreadLocal<Boolean> sharing = new ThreadLocal<>();
+
+    /**
+     * Constructs a ParsedDayTemplate for a specified day number.
+     *
+     * @param dayNumber     the number of the day for which this template is created
+     * @param runTest       {@code true} if the test solution needs to be run, {@code false} otherwise
+     * @param runProblemOne {@code true} if the first problem solution needs to be run, {@code false} otherwise
+     * @param runProblemTwo {@code true} if the second problem solution needs to be run, {@code false} otherwise
+     */
+    protected ParsedDayTemplate(final int dayNumber, final boolean runTest, final boolean runProblemOne,
+                                final boolean runProblemTwo) {
+        super(dayNumber, runTest, runProblemOne, runProblemTwo);
+    }
+
+    /**
+     * Parses an input into the model the parts are solved from.
+     *
+     * @param input the input to parse
+     * @return the immutable model
+     */
+    protected abstract M parse(MappedInput input);
+
+    /**
+     * Solves the test input from its model.
+     *
+     * @param model the model of the test input
+     * @return the answer for the test input
+     */
+    protected abstract String solveTest(M model);
+
+    /**
+     * Solves the first problem from its model.
+     *
+     * @param model the model of the first problem input
+     * @return the answer for the first problem
+     */
+    protected abstract String solvePartOne(M model);
+
+    /**
+     * Solves the second problem from its model.
+     *
+     * @param model the model of the second problem input
+     * @return the answer for the second problem
+     */
+    protected abstract String solvePartTwo(M model);
+
+    @Override
+    protected final String testSolution() {
+        return solveTest(model(getTestInput()));
+    }
+
+    @Override
+    protected final String solveProblemOne() {
+        return solvePartOne(model(getProblem1Input()));
+    }
+
+    @Override
+    protected final String solveProblemTwo() {
+        return solvePartTwo(model(getProblem2Input()));
+    }
+
+    /**
+     * Runs the given part, sharing its models with the other parts of the day, and drops the models once every
+     * enabled part of the day has run.
+     *
+     * @param part    the part to run
+     * @param metrics the metrics receiving the phase measurements
+     */
+    @Override
+    public void runPart(final Part part, final RunMetrics metrics) {
+        final Boolean outer = this.sharing.get();
+        this.sharing.set(Boolean.TRUE);
+        try {
+            super.runPart(part, metrics);
+        } finally {
+            if (outer == null) {
+                this.sharing.remove();
+            }
+            if (this.finishedParts.incrementAndGet() >= getEnabledParts().size()) {
+                this.finishedParts.set(0);
+                clearModels();
+            }
+        }
+    }
+
+    /**
+     * Gets the model of an input. Within a scheduled run, the input is parsed unless it was parsed before or is
+     * being parsed by another part; any other solve parses it.
+     *
+     * @param input the input whose model is needed
+     * @return the model
+     */
+    protected M model(final MappedInput input) {
+        if (this.sharing.get() == null) {
+            return parse(input);
+        }
+        final String key = input.contentKey();
+        final CompletableFuture<M> created = new CompletableFuture<>();
+        final CompletableFuture<M> existing;
+        synchronized (this.models) {
+            existing = this.models.putIfAbsent(key, created);
+        }
+        if (existing != null) {
+            LOG.trace(() -> String.format("Reusing model of day%1$d input %2$s", getDayNumber(), key));
+            try {
+                return existing.join();
+            } catch (final CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            final M model = parse(input);
+            created.complete(model);
+            LOG.trace(() -> String.format("Parsed model of day%1$d input %2$s", getDayNumber(), key));
+            return model;
+        } catch (final RuntimeException | Error e) {
+            synchronized (this.models) {
+                this.models.remove(key, created);
+            }
+            created.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    /**
+     * Drops every parsed model.
+     */
+    protected void clearModels() {
+        synchronized (this.models) {
+            this.models.clear();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package com.ashley_eve;
+
+/**
+ * The {@code Part} enum lists the runnable parts of a day: the test input and the two problems.
+ * Each part carries the problem number used for its input and output files, where {@code 0}
+ * stands for the test files.
+ */
+public enum Part {
+    /** The test input, written to "test.output". */
+    TEST(0),
+    /** The first problem, written to "solution1.output". */
+    ONE(1),
+    /** The second problem, written to "solution2.output". */
+    TWO(2);
+
+    /** The problem number used in the input and output file names. */
+    private final int problemNumber;
+
+    /**
+     * Constructs a Part with the given problem number.
+     *
+     * @param problemNumber the problem number (0 for the test files)
+     */
+    Part(final int problemNumber) {
+        this.problemNumber = problemNumber;
+    }
+
+    /**
+     * Gets the part of a problem number.
+     *
+     * @param problemNumber the problem number (0 for the test files)
+     * @return the matching part
+     * @throws IllegalArgumentException if no part has the problem number
+     */
+    public static Part of(final int problemNumber) {
+        for (final Part part : values()) {
+            if (part.problemNumber == problemNumber) {
+                return part;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Unknown problem number: %1$d", problemNumber));
+    }
+
+    /**
+     * Gets the problem number used in the input and output file names.
+     *
+     * @return the problem number (0 for the test files)
+     */
+    public int getProblemNumber() {
+        return this.problemNumber;
+    }
+}
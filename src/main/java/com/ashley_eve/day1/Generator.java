@@ -0,0 +1,69 @@
+package com.ashley_eve.day1;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+import com.ashley_eve.InputGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code Generator} class writes synthetic inputs for this day: two columns of five-digit location IDs
+ * separated by three spaces, one pair per line.
+ * <p>
+ * The class is marked as a Spring {@link Component} and its instantiation is conditional
+ * on the "day1.run" property being set to true.
+ */
+@Component
+@ConditionalOnProperty(value = "day1.run", havingValue = "true")
+public class Generator implements InputGenerator {
+
+    /** The length of one generated line: two five-digit numbers, three spaces and a line feed. */
+    private static final int LINE_LENGTH = 14;
+
+    /** The size of the buffer lines are collected in before they are written. */
+    private static final int BUFFER_SIZE = LINE_LENGTH * 4096;
+
+    @Override
+    public int getDayNumber() {
+        return 1;
+    }
+
+    @Override
+    public void generate(final OutputStream out, final long targetBytes, final long seed) throws IOException {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long written = 0;
+        while (written < targetBytes) {
+            int length = 0;
+            while (length < BUFFER_SIZE && written + length < targetBytes) {
+                writeNumber(buffer, length, random.nextInt(10000, 100000));
+                buffer[length + 5] = ' ';
+                buffer[length + 6] = ' ';
+                buffer[length + 7] = ' ';
+                writeNumber(buffer, length + 8, random.nextInt(10000, 100000));
+                buffer[length + 13] = '\n';
+                length += LINE_LENGTH;
+            }
+            out.write(buffer, 0, length);
+            written += length;
+        }
+    }
+
+    /**
+     * Writes a five-digit number into the buffer.
+     *
+     * @param buffer the buffer to write into
+     * @param offset the offset of the first digit
+     * @param value  the number, between 10000 and 99999
+     */
+    private static void writeNumber(final byte[] buffer, final int offset, final int value) {
+        int remaining = value;
+        for (int i = offset + 4; i >= offset; i--) {
+            buffer[i] = (byte) ('0' + remaining % 10);
+            remaining /= 10;
+        }
+    }
+}
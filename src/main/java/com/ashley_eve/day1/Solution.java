@@ -1,16 +1,16 @@
 package com.ashley_eve.day1;
 
-import java.util.Collection;
-
-import com.ashley_eve.DayTemplate;
+import com.ashley_eve.ParsedDayTemplate;
+import com.ashley_eve.file.MappedInput;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
 import org.springframework.stereotype.Component;
 
 
 /**
- * The {@code Solution} class for this day which extends {@link DayTemplate}.
- * It optionally runs the test solution and/or problem solutions based on the provided configuration properties.
+ * The {@code Solution} class for this day which extends {@link ParsedDayTemplate}.
+ * It enables the test solution and/or problem solutions based on the provided configuration properties;
+ * the enabled parts are run by the {@link com.ashley_eve.run.DayScheduler}.
  * <p>
  * The class is marked as a Spring {@link Component} and its instantiation is conditional
  * on the "day1.run" property being set to true.
@@ -43,9 +43,9 @@ import org.springframework.stereotype.Component;
  */
 @Component
 @ConditionalOnProperty(value = "day1.run", havingValue = "true")
-public class Solution extends DayTemplate {
+public class Solution extends ParsedDayTemplate<String> {
     /**
-     * Creates an instance of the Solution class for Day 1, and optionally runs the test and/or problem solutions
+     * Creates an instance of the Solution class for Day 1, enabling the test and/or problem solutions
      * based on the provided configuration properties.
      *
      * @param runTest       {@code true} if the test solution needs to be run, {@code false} otherwise
@@ -55,56 +55,57 @@ public class Solution extends DayTemplate {
     public Solution(@Value("${day1.test.run:false}") final boolean runTest,
                     @Value("${day1.problem.one.run:false}") final boolean runProblemOne,
                     @Value("${day1.problem.two.run:false}") final boolean runProblemTwo) {
-        super(1);
+        super(1, runTest, runProblemOne, runProblemTwo);
+    }
 
-        if (runTest) {
-            testSolution();
-        }
-        if (runProblemOne) {
-            solveProblemOne();
-        }
-        if (runProblemTwo) {
-            solveProblemTwo();
+    /**
+     * Parses an input into the model shared by all parts: the concatenation of its lines.
+     *
+     * @param input the input to parse
+     * @return the concatenated lines
+     */
+    @Override
+    protected String parse(final MappedInput input) {
+        final StringBuilder dataStringBuilder = new StringBuilder(input.size());
+        for (int line = 0; line < input.lineCount(); line++) {
+            dataStringBuilder.append(new String(input.copyLine(line)));
         }
+        return dataStringBuilder.toString();
     }
 
     /**
      * Tests the solution by performing necessary checks to validate
      * if the solution can proceed to solve problems.
+     *
+     * @param model the concatenated lines of the test input
+     * @return the answer for the test input
      */
-    private void testSolution() {
-        final Collection<byte[]> problemData = getTestData();
-
-        final StringBuilder dataStringBuilder = new StringBuilder();
-        for (final byte[] dataArray : problemData) {
-            dataStringBuilder.append(new String(dataArray));
-        }
-        writeTestSolution(dataStringBuilder.toString());
+    @Override
+    protected String solveTest(final String model) {
+        return model;
     }
 
     /**
      * Attempts to solve the first problem based on the data available
      * and defined logic.
+     *
+     * @param model the concatenated lines of the first problem input
+     * @return the answer for the first problem
      */
-    private void solveProblemOne() {
-        final Collection<byte[]> problemData = getProblem1Data();
-        final StringBuilder dataStringBuilder = new StringBuilder();
-        for (final byte[] dataArray : problemData) {
-            dataStringBuilder.append(new String(dataArray));
-        }
-        writeSolution(1, dataStringBuilder.toString());
+    @Override
+    protected String solvePartOne(final String model) {
+        return model;
     }
 
     /**
-     * Attempts to solve the first problem based on the data available
+     * Attempts to solve the second problem based on the data available
      * and defined logic.
+     *
+     * @param model the concatenated lines of the second problem input
+     * @return the answer for the second problem
      */
-    private void solveProblemTwo() {
-        final Collection<byte[]> problemData = getProblem2Data();
-        final StringBuilder dataStringBuilder = new StringBuilder();
-        for (final byte[] dataArray : problemData) {
-            dataStringBuilder.append(new String(dataArray));
-        }
-        writeSolution(2, dataStringBuilder.toString());
+    @Override
+    protected String solvePartTwo(final String model) {
+        return model;
     }
 }
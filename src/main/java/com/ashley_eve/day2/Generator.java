@@ -0,0 +1,59 @@
+package com.ashley_eve.day2;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.SplittableRandom;
+
+import com.ashley_eve.InputGenerator;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code Generator} class writes synthetic inputs for this day: one report per line, each holding five to
+ * eight levels between 1 and 99 separated by single spaces.
+ * <p>
+ * The class is marked as a Spring {@link Component} and its instantiation is conditional
+ * on the "day2.run" property being set to true.
+ */
+@Component
+@ConditionalOnProperty(value = "day2.run", havingValue = "true")
+public class Generator implements InputGenerator {
+
+    /** The size of the buffer lines are collected in before they are written. */
+    private static final int BUFFER_SIZE = 64 << 10;
+
+    /** The longest possible line: eight two-digit levels, seven spaces and a line feed. */
+    private static final int MAX_LINE_LENGTH = 24;
+
+    @Override
+    public int getDayNumber() {
+        return 2;
+    }
+
+    @Override
+    public void generate(final OutputStream out, final long targetBytes, final long seed) throws IOException {
+        final SplittableRandom random = new SplittableRandom(seed);
+        final byte[] buffer = new byte[BUFFER_SIZE];
+        long written = 0;
+        while (written < targetBytes) {
+            int length = 0;
+            while (length + MAX_LINE_LENGTH <= BUFFER_SIZE && written + length < targetBytes) {
+                final int levels = random.nextInt(5, 9);
+                for (int level = 0; level < levels; level++) {
+                    if (level > 0) {
+                        buffer[length++] = ' ';
+                    }
+                    final int value = random.nextInt(1, 100);
+                    if (value >= 10) {
+                        buffer[length++] = (byte) ('0' + value / 10);
+                    }
+                    buffer[length++] = (byte) ('0' + value % 10);
+                }
+                buffer[length++] = '\n';
+            }
+            out.write(buffer, 0, length);
+            written += length;
+        }
+    }
+}
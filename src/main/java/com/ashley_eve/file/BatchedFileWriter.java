@@ -0,0 +1,199 @@
+package com.ashley_eve.file;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.LinkedBlockingQueue;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code BatchedFileWriter} class writes files on a single background I/O thread so that callers never
+ * block on the disk. Pending writes are drained in batches; when the same file is written more than once in
+ * a batch only the last content is written.
+ *
+ * <p>Every file is written through NIO channels to a temporary file in the target directory that is then
+ * atomically renamed over the target, so readers never observe a half-written file. A write is skipped when
+ * the existing file already holds byte-identical content. Files are encoded in UTF-8, like the synchronous writes
+ * of {@link SolutionWriter}.
+ */
+final class BatchedFileWriter {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(BatchedFileWriter.class);
+
+    /** The queue of pending requests. */
+    private final BlockingQueue<Request> queue = new LinkedBlockingQueue<>();
+
+    /** The background I/O thread. */
+    private final Thread thread;
+
+    /**
+     * Constructs a BatchedFileWriter and starts its background thread.
+     */
+    BatchedFileWriter() {
+        this.thread = Thread.ofPlatform().name("solution-writer").daemon().start(this::drain);
+    }
+
+    /**
+     * Queues a file to be written.
+     *
+     * @param file the file to write
+     * @param data the complete content of the file
+     */
+    void submit(final Path file, final String data) {
+        this.queue.add(new Request(file, data, null));
+    }
+
+    /**
+     * Blocks until every write queued before this call has been written, or has failed.
+     */
+    void flush() {
+        if (!this.thread.isAlive()) {
+            return;
+        }
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+        this.queue.add(new Request(null, null, done));
+        try {
+            done.join();
+        } catch (final CompletionException e) {
+            LOG.warn(() -> format("Pending solution writes were lost: %1$s", e.getCause()));
+        }
+    }
+
+    /**
+     * Writes everything that is still queued and stops the background thread.
+     */
+    void shutdown() {
+        flush();
+        this.thread.interrupt();
+    }
+
+    /**
+     * Takes pending requests off the queue in batches until the thread is interrupted. A batch that fails still
+     * completes its flush markers, exceptionally, so that no caller of {@link #flush()} waits forever; markers
+     * left in the queue when the thread stops are completed the same way.
+     */
+    private void drain() {
+        final List<Request> batch = new ArrayList<>();
+        final Map<Path, String> files = new LinkedHashMap<>();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                try {
+                    batch.add(this.queue.take());
+                } catch (final InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+                this.queue.drainTo(batch);
+                RuntimeException failure = null;
+                try {
+                    for (final Request request : batch) {
+                        if (request.flushed() == null) {
+                            files.put(request.file(), request.data());
+                        } else {
+                            files.forEach(BatchedFileWriter::writeAtomically);
+                            files.clear();
+                            request.flushed().complete(null);
+                        }
+                    }
+                    files.forEach(BatchedFileWriter::writeAtomically);
+                    LOG.trace(() -> format("Wrote batch of %1$d requests", batch.size()));
+                } catch (final RuntimeException e) {
+                    failure = e;
+                    LOG.error(() -> format("Failed to write batch of %1$d requests: %2$s", batch.size(), e));
+                } finally {
+                    completeFlushes(batch, failure);
+                    files.clear();
+                    batch.clear();
+                }
+            }
+        } finally {
+            this.queue.drainTo(batch);
+            completeFlushes(batch, null);
+        }
+    }
+
+    /**
+     * Completes the flush markers of requests that have not been completed yet.
+     *
+     * @param requests the requests
+     * @param failure  the failure to complete them with, or {@code null} for a stopped thread
+     */
+    private static void completeFlushes(final List<Request> requests, final RuntimeException failure) {
+        for (final Request request : requests) {
+            if (request.flushed() != null) {
+                request.flushed().completeExceptionally(failure == null
+                        ? new IllegalStateException("The solution writer has stopped") : failure);
+            }
+        }
+    }
+
+    /**
+     * Writes a file through a temporary file that is atomically renamed over it, unless the file already
+     * holds the same content.
+     *
+     * @param file the file to write
+     * @param data the complete content of the file
+     */
+    static void writeAtomically(final Path file, final String data) {
+        final byte[] bytes = data.getBytes(StandardCharsets.UTF_8);
+        try {
+            final Path directory = file.toAbsolutePath().getParent();
+            Files.createDirectories(directory);
+            if (Files.isRegularFile(file) && Files.size(file) == bytes.length
+                    && Arrays.equals(Files.readAllBytes(file), bytes)) {
+                LOG.trace(() -> format("Skipped unchanged file %1$s", file));
+                return;
+            }
+            final Path temporary = Files.createTempFile(directory, file.getFileName().toString(), ".tmp");
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    final ByteBuffer buffer = ByteBuffer.wrap(bytes);
+                    while (buffer.hasRemaining()) {
+                        channel.write(buffer);
+                    }
+                }
+                try {
+                    Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE,
+                            StandardCopyOption.REPLACE_EXISTING);
+                } catch (final AtomicMoveNotSupportedException e) {
+                    Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING);
+                }
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            LOG.debug(() -> format("Wrote %1$s", file));
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to write solution to file. %1$s", e.getMessage()));
+        }
+    }
+
+    /**
+     * The {@code Request} record is one queued write, or a flush marker when {@code flushed} is set.
+     *
+     * @param file    the file to write
+     * @param data    the complete content of the file
+     * @param flushed completed once every earlier request has been written, {@code null} for writes
+     */
+    private record Request(Path file, String data, CompletableFuture<Void> flushed) {
+    }
+}
@@ -0,0 +1,430 @@
+package com.ashley_eve.file;
+
+import java.nio.ByteBuffer;
+
+
+/**
+ * The {@code ByteParser} class pulls {@code int} and {@code long} fields straight out of raw input bytes,
+ * without building an intermediate {@link String}, boxing values or running a regular expression.
+ *
+ * <p>A number is a run of ASCII digits, optionally preceded by a {@code '-'} sign. Every other byte is treated
+ * as a separator, so the same methods handle space separated columns ({@code "3   4"}), comma separated
+ * lists ({@code "7,6,4,2,1"}) and numbers embedded in text ({@code "x=-3, y=12"}). A number that does not fit the
+ * target type throws a {@link NumberFormatException}, as {@link Integer#parseInt(String)} would, instead of
+ * silently wrapping around.
+ *
+ * <p>The parsers work on {@code byte[]} lines as returned by {@link InputReader#getProblem1Data()} and on the
+ * lines of a {@link MappedInput}, and write into caller supplied {@code int[]}/{@code long[]} buffers so the
+ * buffers can be reused between lines.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * int[] left = ByteParser.column(input, 0);
+ * int[] right = ByteParser.column(input, 1);
+ *
+ * int[] report = new int[16];
+ * for (byte[] line : data) {
+ *     int count = ByteParser.parseInts(line, report);
+ * }
+ * }</pre>
+ */
+public final class ByteParser {
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private ByteParser() {
+    }
+
+    /**
+     * Parses all numbers of the given line into the given buffer.
+     *
+     * @param line the line to parse
+     * @param out  the buffer receiving the numbers, which must be large enough for all of them
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    public static int parseInts(final byte[] line, final int[] out) {
+        return parseInts(line, 0, line.length, out, 0);
+    }
+
+    /**
+     * Parses all numbers of the given range into the given buffer.
+     *
+     * @param data      the bytes to parse
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers, which must be large enough for all of them
+     * @param outOffset the index in the buffer for the first number
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    public static int parseInts(final byte[] data, final int from, final int to, final int[] out,
+                                final int outOffset) {
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            final int start = nextNumber(data, i, to);
+            if (start == to) {
+                break;
+            }
+            final boolean negative = data[start] == '-';
+            int index = negative ? start + 1 : start;
+            long value = 0;
+            byte digit;
+            while (index < to && isDigit(digit = data[index])) {
+                value = appendDigit(value, digit, negative, Integer.MIN_VALUE, Integer.MAX_VALUE, start);
+                index++;
+            }
+            out[outOffset + count++] = (int) (negative ? value : -value);
+            i = index;
+        }
+        return count;
+    }
+
+    /**
+     * Parses all numbers of the given line into the given buffer.
+     *
+     * @param line the line to parse
+     * @param out  the buffer receiving the numbers, which must be large enough for all of them
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    public static int parseLongs(final byte[] line, final long[] out) {
+        return parseLongs(line, 0, line.length, out, 0);
+    }
+
+    /**
+     * Parses all numbers of the given range into the given buffer.
+     *
+     * @param data      the bytes to parse
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers, which must be large enough for all of them
+     * @param outOffset the index in the buffer for the first number
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    public static int parseLongs(final byte[] data, final int from, final int to, final long[] out,
+                                 final int outOffset) {
+        int count = 0;
+        int i = from;
+        while (i < to) {
+            final int start = nextNumber(data, i, to);
+            if (start == to) {
+                break;
+            }
+            final boolean negative = data[start] == '-';
+            int index = negative ? start + 1 : start;
+            long value = 0;
+            byte digit;
+            while (index < to && isDigit(digit = data[index])) {
+                value = appendDigit(value, digit, negative, Long.MIN_VALUE, Long.MAX_VALUE, start);
+                index++;
+            }
+            out[outOffset + count++] = negative ? value : -value;
+            i = index;
+        }
+        return count;
+    }
+
+    /**
+     * Parses all numbers of the given line of a mapped input into the given buffer.
+     *
+     * @param input the input holding the line
+     * @param line  the zero-based line number
+     * @param out   the buffer receiving the numbers, which must be large enough for all of them
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    public static int parseInts(final MappedInput input, final int line, final int[] out) {
+        return parseInts(input.data(), input.lineStart(line), input.lineEnd(line), out, 0);
+    }
+
+    /**
+     * Parses all numbers of the given range of a buffer into the given buffer.
+     *
+     * @param data      the buffer to parse, read with absolute gets
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers, which must be large enough for all of them
+     * @param outOffset the index in the buffer for the first number
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    public static int parseInts(final ByteBuffer data, final int from, final int to, final int[] out,
+                                final int outOffset) {
+        return parseInts(data, from, to, out, outOffset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Parses all numbers of the given line of a mapped input into the given buffer.
+     *
+     * @param input the input holding the line
+     * @param line  the zero-based line number
+     * @param out   the buffer receiving the numbers, which must be large enough for all of them
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    public static int parseLongs(final MappedInput input, final int line, final long[] out) {
+        return parseLongs(input.data(), input.lineStart(line), input.lineEnd(line), out, 0);
+    }
+
+    /**
+     * Parses all numbers of the given range of a buffer into the given buffer.
+     *
+     * @param data      the buffer to parse, read with absolute gets
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers, which must be large enough for all of them
+     * @param outOffset the index in the buffer for the first number
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    public static int parseLongs(final ByteBuffer data, final int from, final int to, final long[] out,
+                                 final int outOffset) {
+        return parseLongs(data, from, to, out, outOffset, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Extracts one fixed column from every line of the input, e.g. the left or right list of a
+     * two column input. Lines that do not have the column yield {@code 0}.
+     *
+     * @param input  the input to parse
+     * @param column the zero-based index of the number on each line
+     * @return one value per line
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    public static int[] column(final MappedInput input, final int column) {
+        final ByteBuffer data = input.data();
+        final int[] values = new int[input.lineCount()];
+        final int[] fields = new int[column + 1];
+        for (int line = 0; line < values.length; line++) {
+            final int count = parseInts(data, input.lineStart(line), input.lineEnd(line), fields, 0, fields.length);
+            values[line] = count > column ? fields[column] : 0;
+        }
+        return values;
+    }
+
+    /**
+     * Extracts one fixed column from every line of the input as {@code long} values.
+     * Lines that do not have the column yield {@code 0}.
+     *
+     * @param input  the input to parse
+     * @param column the zero-based index of the number on each line
+     * @return one value per line
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    public static long[] longColumn(final MappedInput input, final int column) {
+        final ByteBuffer data = input.data();
+        final long[] values = new long[input.lineCount()];
+        final long[] fields = new long[column + 1];
+        for (int line = 0; line < values.length; line++) {
+            final int count = parseLongs(data, input.lineStart(line), input.lineEnd(line), fields, 0,
+                    fields.length);
+            values[line] = count > column ? fields[column] : 0;
+        }
+        return values;
+    }
+
+    /**
+     * Parses a single number starting at the given offset, skipping any leading separators.
+     *
+     * @param data the bytes to parse
+     * @param from the first offset to parse (inclusive)
+     * @param to   the last offset to parse (exclusive)
+     * @return the parsed number, {@code 0} if the range holds no number
+     * @throws NumberFormatException if the number does not fit in an {@code int}
+     */
+    public static int parseInt(final byte[] data, final int from, final int to) {
+        final int start = nextNumber(data, from, to);
+        final boolean negative = start < to && data[start] == '-';
+        long value = 0;
+        for (int index = negative ? start + 1 : start; index < to && isDigit(data[index]); index++) {
+            value = appendDigit(value, data[index], negative, Integer.MIN_VALUE, Integer.MAX_VALUE, start);
+        }
+        return (int) (negative ? value : -value);
+    }
+
+    /**
+     * Parses a single number starting at the given offset, skipping any leading separators.
+     *
+     * @param data the bytes to parse
+     * @param from the first offset to parse (inclusive)
+     * @param to   the last offset to parse (exclusive)
+     * @return the parsed number, {@code 0} if the range holds no number
+     * @throws NumberFormatException if the number does not fit in a {@code long}
+     */
+    public static long parseLong(final byte[] data, final int from, final int to) {
+        final int start = nextNumber(data, from, to);
+        final boolean negative = start < to && data[start] == '-';
+        long value = 0;
+        for (int index = negative ? start + 1 : start; index < to && isDigit(data[index]); index++) {
+            value = appendDigit(value, data[index], negative, Long.MIN_VALUE, Long.MAX_VALUE, start);
+        }
+        return negative ? value : -value;
+    }
+
+    /**
+     * Counts the numbers in the given line, e.g. to size a buffer before parsing.
+     *
+     * @param line the line to scan
+     * @return the number of numbers in the line
+     */
+    public static int countNumbers(final byte[] line) {
+        int count = 0;
+        int i = 0;
+        while ((i = nextNumber(line, i, line.length)) < line.length) {
+            count++;
+            i++;
+            while (i < line.length && isDigit(line[i])) {
+                i++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Parses the numbers of a range of a buffer into the given buffer, until the range is exhausted or the given
+     * number of values has been parsed.
+     *
+     * @param data      the buffer to parse, read with absolute gets
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers
+     * @param outOffset the index in the buffer for the first number
+     * @param maxCount  the maximum number of values to parse
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in an {@code int}
+     */
+    private static int parseInts(final ByteBuffer data, final int from, final int to, final int[] out,
+                                 final int outOffset, final int maxCount) {
+        int count = 0;
+        int i = from;
+        while (i < to && count < maxCount) {
+            final int start = nextNumber(data, i, to);
+            if (start == to) {
+                break;
+            }
+            final boolean negative = data.get(start) == '-';
+            int index = negative ? start + 1 : start;
+            long value = 0;
+            byte digit;
+            while (index < to && isDigit(digit = data.get(index))) {
+                value = appendDigit(value, digit, negative, Integer.MIN_VALUE, Integer.MAX_VALUE, start);
+                index++;
+            }
+            out[outOffset + count++] = (int) (negative ? value : -value);
+            i = index;
+        }
+        return count;
+    }
+
+    /**
+     * Parses the numbers of a range of a buffer into the given buffer, until the range is exhausted or the given
+     * number of values has been parsed.
+     *
+     * @param data      the buffer to parse, read with absolute gets
+     * @param from      the first offset to parse (inclusive)
+     * @param to        the last offset to parse (exclusive)
+     * @param out       the buffer receiving the numbers
+     * @param outOffset the index in the buffer for the first number
+     * @param maxCount  the maximum number of values to parse
+     * @return the number of values written to the buffer
+     * @throws NumberFormatException if a number does not fit in a {@code long}
+     */
+    private static int parseLongs(final ByteBuffer data, final int from, final int to, final long[] out,
+                                  final int outOffset, final int maxCount) {
+        int count = 0;
+        int i = from;
+        while (i < to && count < maxCount) {
+            final int start = nextNumber(data, i, to);
+            if (start == to) {
+                break;
+            }
+            final boolean negative = data.get(start) == '-';
+            int index = negative ? start + 1 : start;
+            long value = 0;
+            byte digit;
+            while (index < to && isDigit(digit = data.get(index))) {
+                value = appendDigit(value, digit, negative, Long.MIN_VALUE, Long.MAX_VALUE, start);
+                index++;
+            }
+            out[outOffset + count++] = negative ? value : -value;
+            i = index;
+        }
+        return count;
+    }
+
+    /**
+     * Appends a digit to a number that is accumulated negatively. Like {@link Long#parseLong(String)}, the number
+     * is kept negative so that the most negative value of the range can be parsed, and every step is checked
+     * against the range before it can overflow. The bounds are constants at every call site, so the check folds
+     * to two comparisons once inlined.
+     *
+     * @param result   the negated value of the digits so far
+     * @param digit    the ASCII digit to append
+     * @param negative {@code true} if the number has a {@code '-'} sign
+     * @param min      the smallest value that fits the target type
+     * @param max      the largest value that fits the target type
+     * @param start    the offset of the number, for the error message
+     * @return the negated value including the digit
+     * @throws NumberFormatException if the number does not fit between {@code min} and {@code max}
+     */
+    private static long appendDigit(final long result, final byte digit, final boolean negative, final long min,
+                                    final long max, final int start) {
+        final long limit = negative ? min : -max;
+        final int value = digit - '0';
+        if (result < limit / 10 || result * 10 < limit + value) {
+            throw new NumberFormatException(String.format("Number at offset %1$d out of range [%2$d, %3$d]", start,
+                    min, max));
+        }
+        return result * 10 - value;
+    }
+
+    /**
+     * Finds the start of the next number: a digit, or a {@code '-'} directly followed by a digit.
+     *
+     * @param data the bytes to scan
+     * @param from the first offset to scan (inclusive)
+     * @param to   the last offset to scan (exclusive)
+     * @return the offset of the number, or {@code to} if there is none
+     */
+    private static int nextNumber(final byte[] data, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final byte value = data[i];
+            if (isDigit(value) || value == '-' && i + 1 < to && isDigit(data[i + 1])) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Finds the start of the next number: a digit, or a {@code '-'} directly followed by a digit.
+     *
+     * @param data the buffer to scan
+     * @param from the first offset to scan (inclusive)
+     * @param to   the last offset to scan (exclusive)
+     * @return the offset of the number, or {@code to} if there is none
+     */
+    private static int nextNumber(final ByteBuffer data, final int from, final int to) {
+        for (int i = from; i < to; i++) {
+            final byte value = data.get(i);
+            if (isDigit(value) || value == '-' && i + 1 < to && isDigit(data.get(i + 1))) {
+                return i;
+            }
+        }
+        return to;
+    }
+
+    /**
+     * Checks whether the given byte is an ASCII digit.
+     *
+     * @param value the byte to check
+     * @return {@code true} if the byte is between {@code '0'} and {@code '9'}
+     */
+    private static boolean isDigit(final byte value) {
+        return value >= '0' && value <= '9';
+    }
+}
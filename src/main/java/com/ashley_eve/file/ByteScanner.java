@@ -0,0 +1,399 @@
+package com.ashley_eve.file;
+
+import java.nio.ByteBuffer;
+import java.util.function.IntConsumer;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code ByteScanner} class provides the byte scanning kernels used to index and tokenise raw input: finding a
+ * byte or one of two delimiters, counting a byte and classifying ASCII digits.
+ *
+ * <p>When the JVM runs with {@code --add-modules jdk.incubator.vector} the kernels compare a full SIMD register of
+ * bytes per step (see {@link VectorKernels}); otherwise, or with {@code -Daoc.vector=false}, they fall back to
+ * plain scalar loops with the same results. Kernels work on {@code byte[]} ranges and on {@link ByteBuffer} ranges;
+ * heap buffers are scanned in place and other buffers, such as memory-mapped files, are copied into a per-thread
+ * block first, which keeps the copy in the cache for the vector loads that follow it.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * int end = ByteScanner.indexOf(line, 0, line.length, (byte) ',');
+ * int numberStart = ByteScanner.indexOfDigit(line, end + 1, line.length);
+ * int lines = ByteScanner.count(input.buffer(), 0, input.size(), (byte) '\n');
+ * }</pre>
+ */
+public final class ByteScanner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(ByteScanner.class);
+
+    /** Whether the vector kernels are used. */
+    private static final boolean VECTORIZED = detectVectorSupport();
+
+    /** The size of the blocks buffers without a backing array are copied into. */
+    private static final int BLOCK_SIZE = 64 << 10;
+
+    /** Ranges shorter than this are scanned in place instead of being copied into a block. */
+    private static final int COPY_THRESHOLD = 256;
+
+    /** The block of every thread that buffers without a backing array are copied into. */
+    private static final ThreadLocal<byte[]> BLOCK = ThreadLocal.withInitial(() -> new byte[BLOCK_SIZE]);
+
+    /**
+     * The block of every thread that {@link #forEachIndexOfAny(ByteBuffer, int, int, byte, byte, IntConsumer)}
+     * copies into, or {@link #BORROWED} while a scan on the thread uses it.
+     */
+    private static final ThreadLocal<byte[]> INDEX_BLOCK = ThreadLocal.withInitial(() -> new byte[BLOCK_SIZE]);
+
+    /** Marks the index block of a thread as in use. */
+    private static final byte[] BORROWED = new byte[0];
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private ByteScanner() {
+    }
+
+    /**
+     * Checks whether the SIMD kernels are in use.
+     *
+     * @return {@code true} if the Vector API is available and enabled
+     */
+    public static boolean isVectorized() {
+        return VECTORIZED;
+    }
+
+    /**
+     * Finds the first occurrence of a byte in a range of an array.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param value the byte to find
+     * @return the index of the byte, or {@code -1} if it does not occur
+     */
+    public static int indexOf(final byte[] data, final int from, final int to, final byte value) {
+        if (VECTORIZED) {
+            return VectorKernels.indexOf(data, from, to, value);
+        }
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of a byte in a range of a buffer.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param value  the byte to find
+     * @return the index of the byte, or {@code -1} if it does not occur
+     */
+    public static int indexOf(final ByteBuffer buffer, final int from, final int to, final byte value) {
+        return indexOfAny(buffer, from, to, value, value);
+    }
+
+    /**
+     * Finds the first occurrence of either of two bytes in a range of an array, e.g. the next delimiter.
+     *
+     * @param data   the bytes to scan
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param first  the first byte to find
+     * @param second the second byte to find
+     * @return the index of the first match, or {@code -1} if neither byte occurs
+     */
+    public static int indexOfAny(final byte[] data, final int from, final int to, final byte first,
+                                 final byte second) {
+        if (VECTORIZED) {
+            return VectorKernels.indexOfAny(data, from, to, first, second);
+        }
+        for (int i = from; i < to; i++) {
+            if (data[i] == first || data[i] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of either of two bytes in a range of a buffer, e.g. the next line terminator.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param first  the first byte to find
+     * @param second the second byte to find
+     * @return the index of the first match, or {@code -1} if neither byte occurs
+     */
+    public static int indexOfAny(final ByteBuffer buffer, final int from, final int to, final byte first,
+                                 final byte second) {
+        if (buffer.hasArray()) {
+            final int base = buffer.arrayOffset();
+            final int index = indexOfAny(buffer.array(), base + from, base + to, first, second);
+            return index < 0 ? -1 : index - base;
+        }
+        if (!VECTORIZED || to - from < COPY_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                final byte value = buffer.get(i);
+                if (value == first || value == second) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final byte[] block = BLOCK.get();
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int length = Math.min(BLOCK_SIZE, to - start);
+            buffer.get(start, block, 0, length);
+            final int index = VectorKernels.indexOfAny(block, 0, length, first, second);
+            if (index >= 0) {
+                return start + index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the occurrences of a byte in a range of an array.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param value the byte to count
+     * @return the number of occurrences
+     */
+    public static int count(final byte[] data, final int from, final int to, final byte value) {
+        if (VECTORIZED) {
+            return VectorKernels.count(data, from, to, value);
+        }
+        int count = 0;
+        for (int i = from; i < to; i++) {
+            if (data[i] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the occurrences of a byte in a range of a buffer.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param value  the byte to count
+     * @return the number of occurrences
+     */
+    public static int count(final ByteBuffer buffer, final int from, final int to, final byte value) {
+        if (buffer.hasArray()) {
+            final int base = buffer.arrayOffset();
+            return count(buffer.array(), base + from, base + to, value);
+        }
+        int count = 0;
+        if (!VECTORIZED || to - from < COPY_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                if (buffer.get(i) == value) {
+                    count++;
+                }
+            }
+            return count;
+        }
+        final byte[] block = BLOCK.get();
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int length = Math.min(BLOCK_SIZE, to - start);
+            buffer.get(start, block, 0, length);
+            count += VectorKernels.count(block, 0, length, value);
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first ASCII digit in a range of an array, e.g. the start of the next number.
+     *
+     * @param data the bytes to scan
+     * @param from the first index to scan
+     * @param to   the index after the last one to scan
+     * @return the index of the digit, or {@code -1} if there is none
+     */
+    public static int indexOfDigit(final byte[] data, final int from, final int to) {
+        return indexOfDigit(data, from, to, true);
+    }
+
+    /**
+     * Finds the first byte that is not an ASCII digit in a range of an array, e.g. the end of a number.
+     *
+     * @param data the bytes to scan
+     * @param from the first index to scan
+     * @param to   the index after the last one to scan
+     * @return the index of the non-digit, or {@code -1} if the range holds only digits
+     */
+    public static int indexOfNonDigit(final byte[] data, final int from, final int to) {
+        return indexOfDigit(data, from, to, false);
+    }
+
+    /**
+     * Finds the first ASCII digit in a range of a buffer.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @return the index of the digit, or {@code -1} if there is none
+     */
+    public static int indexOfDigit(final ByteBuffer buffer, final int from, final int to) {
+        return indexOfDigit(buffer, from, to, true);
+    }
+
+    /**
+     * Finds the first byte that is not an ASCII digit in a range of a buffer.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @return the index of the non-digit, or {@code -1} if the range holds only digits
+     */
+    public static int indexOfNonDigit(final ByteBuffer buffer, final int from, final int to) {
+        return indexOfDigit(buffer, from, to, false);
+    }
+
+    /**
+     * Reports every occurrence of either of two bytes in a range of a buffer, in ascending order. This is the bulk
+     * kernel behind the line index of {@link MappedInput}.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param first  the first byte to find
+     * @param second the second byte to find
+     * @param action receives the index of every match
+     */
+    public static void forEachIndexOfAny(final ByteBuffer buffer, final int from, final int to, final byte first,
+                                         final byte second, final IntConsumer action) {
+        if (!VECTORIZED) {
+            for (int i = from; i < to; i++) {
+                final byte value = buffer.get(i);
+                if (value == first || value == second) {
+                    action.accept(i);
+                }
+            }
+        } else if (buffer.hasArray()) {
+            final int base = buffer.arrayOffset();
+            VectorKernels.forEachIndexOfAny(buffer.array(), base + from, base + to, -base, first, second, action);
+        } else {
+            // The action may scan again on this thread, so a nested scan gets a block of its own.
+            final byte[] pooled = INDEX_BLOCK.get();
+            final boolean owner = pooled != BORROWED;
+            final byte[] block = owner ? pooled : new byte[Math.min(BLOCK_SIZE, to - from)];
+            if (owner) {
+                INDEX_BLOCK.set(BORROWED);
+            }
+            try {
+                for (int start = from; start < to; start += block.length) {
+                    final int length = Math.min(block.length, to - start);
+                    buffer.get(start, block, 0, length);
+                    VectorKernels.forEachIndexOfAny(block, 0, length, start, first, second, action);
+                }
+            } finally {
+                if (owner) {
+                    INDEX_BLOCK.set(pooled);
+                }
+            }
+        }
+    }
+
+    /**
+     * Finds the first digit or non-digit in a range of an array.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param digit {@code true} to find a digit, {@code false} to find a non-digit
+     * @return the index of the match, or {@code -1} if there is none
+     */
+    private static int indexOfDigit(final byte[] data, final int from, final int to, final boolean digit) {
+        if (VECTORIZED) {
+            return VectorKernels.indexOfDigit(data, from, to, digit);
+        }
+        for (int i = from; i < to; i++) {
+            if (isDigit(data[i]) == digit) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first digit or non-digit in a range of a buffer.
+     *
+     * @param buffer the buffer to scan, read with absolute gets
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param digit  {@code true} to find a digit, {@code false} to find a non-digit
+     * @return the index of the match, or {@code -1} if there is none
+     */
+    private static int indexOfDigit(final ByteBuffer buffer, final int from, final int to, final boolean digit) {
+        if (buffer.hasArray()) {
+            final int base = buffer.arrayOffset();
+            final int index = indexOfDigit(buffer.array(), base + from, base + to, digit);
+            return index < 0 ? -1 : index - base;
+        }
+        if (!VECTORIZED || to - from < COPY_THRESHOLD) {
+            for (int i = from; i < to; i++) {
+                if (isDigit(buffer.get(i)) == digit) {
+                    return i;
+                }
+            }
+            return -1;
+        }
+        final byte[] block = BLOCK.get();
+        for (int start = from; start < to; start += BLOCK_SIZE) {
+            final int length = Math.min(BLOCK_SIZE, to - start);
+            buffer.get(start, block, 0, length);
+            final int index = VectorKernels.indexOfDigit(block, 0, length, digit);
+            if (index >= 0) {
+                return start + index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Checks whether a byte is an ASCII digit.
+     *
+     * @param value the byte to check
+     * @return {@code true} for {@code '0'} to {@code '9'}
+     */
+    private static boolean isDigit(final byte value) {
+        return value >= '0' && value <= '9';
+    }
+
+    /**
+     * Checks whether the Vector API module is present and not disabled with {@code -Daoc.vector=false}.
+     *
+     * @return {@code true} if the vector kernels can be used
+     */
+    private static boolean detectVectorSupport() {
+        if (!Boolean.parseBoolean(System.getProperty("aoc.vector", "true"))) {
+            LOG.debug("Vector kernels disabled, using scalar byte scanning");
+            return false;
+        }
+        if (ModuleLayer.boot().findModule("jdk.incubator.vector").isEmpty()) {
+            LOG.debug("Module jdk.incubator.vector not present, using scalar byte scanning");
+            return false;
+        }
+        try {
+            final int length = VectorKernels.LENGTH;
+            LOG.debug(() -> String.format("Using %1$d-byte vector kernels for byte scanning", length));
+            return true;
+        } catch (final LinkageError e) {
+            LOG.warn(() -> String.format("Vector kernels unavailable, using scalar byte scanning: %1$s", e));
+            return false;
+        }
+    }
+}
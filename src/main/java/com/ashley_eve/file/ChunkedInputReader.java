@@ -0,0 +1,231 @@
+package com.ashley_eve.file;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code ChunkedInputReader} class streams an input file as a sequence of chunks that are aligned to line
+ * boundaries, for inputs that are too large to be held in the heap or mapped as a single buffer.
+ *
+ * <p>Each chunk is a {@link MappedInput} over its own memory-mapped region of the file, indexed only when the
+ * chunk is reached, so the heap holds the line index of the chunks being processed and nothing more. The
+ * chunks are produced by a splittable {@link Spliterator}: a parallel stream splits the file into byte ranges,
+ * hands them to all cores and maps, indexes and solves the chunks of the different ranges concurrently, which
+ * overlaps reading the file with solving it.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * try (Stream<MappedInput> chunks = ChunkedInputReader.chunks(path, 64 << 20, true)) {
+ *     long total = chunks.mapToLong(chunk -> {
+ *         long sum = 0;
+ *         for (int line = 0; line < chunk.lineCount(); line++) {
+ *             sum += chunk.lineLength(line);
+ *         }
+ *         return sum;
+ *     }).sum();
+ * }
+ * }</pre>
+ */
+public final class ChunkedInputReader {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(ChunkedInputReader.class);
+
+    /** The default chunk size of 16 MiB. */
+    public static final int DEFAULT_CHUNK_SIZE = 16 << 20;
+
+    /** The number of bytes read at a time while looking for the end of a line. */
+    private static final int SCAN_SIZE = 8 << 10;
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private ChunkedInputReader() {
+    }
+
+    /**
+     * Streams the given file as chunks aligned to line boundaries. The stream must be closed to release the
+     * file; the chunks themselves stay readable after that.
+     *
+     * @param path      the file to stream
+     * @param chunkSize the approximate size of a chunk in bytes; a chunk always ends at a line boundary
+     * @param parallel  {@code true} for a parallel stream
+     * @return the stream of chunks
+     * @throws UncheckedIOException if the file cannot be opened
+     */
+    public static Stream<MappedInput> chunks(final Path path, final int chunkSize, final boolean parallel) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException(format("Chunk size must be positive: %1$d", chunkSize));
+        }
+        try {
+            final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ);
+            final ChunkSpliterator spliterator = new ChunkSpliterator(channel, 0, channel.size(), chunkSize);
+            return StreamSupport.stream(spliterator, parallel).onClose(() -> {
+                try {
+                    channel.close();
+                } catch (final IOException e) {
+                    LOG.warn(() -> format("Failed to close %1$s: %2$s", path, e.getMessage()));
+                }
+            });
+        } catch (final IOException e) {
+            throw new UncheckedIOException(format("Failed to open %1$s", path), e);
+        }
+    }
+
+    /**
+     * Streams the given classpath resource as chunks aligned to line boundaries. Resources that are not plain
+     * files (e.g. jar entries) cannot be mapped in parts and are streamed as a single chunk.
+     *
+     * @param fileName  the classpath resource to stream
+     * @param chunkSize the approximate size of a chunk in bytes
+     * @param parallel  {@code true} for a parallel stream
+     * @return the stream of chunks, empty if the resource does not exist
+     */
+    public static Stream<MappedInput> chunks(final String fileName, final int chunkSize, final boolean parallel) {
+        final URL resource = ChunkedInputReader.class.getClassLoader().getResource(fileName);
+        if (resource == null) {
+            LOG.error(() -> format("Input file not found: %1$s", fileName));
+            return Stream.empty();
+        }
+        if ("file".equals(resource.getProtocol())) {
+            try {
+                return chunks(Path.of(resource.toURI()), chunkSize, parallel);
+            } catch (final URISyntaxException e) {
+                LOG.warn(() -> format("Cannot stream %1$s from disk: %2$s", fileName, e.getMessage()));
+            }
+        }
+        return Stream.of(InputReader.readFileData(fileName, false));
+    }
+
+    /**
+     * The {@code ChunkSpliterator} class produces the chunks of one byte range of the file. Splitting halves the
+     * range at the next line boundary after its middle.
+     */
+    private static final class ChunkSpliterator implements Spliterator<MappedInput> {
+
+        /** The open file, shared by all spliterators of the stream; only positional operations are used. */
+        private final FileChannel channel;
+
+        /** The start of the next chunk, always at a line boundary. */
+        private long position;
+
+        /** The end of the range (exclusive), always at a line boundary or the end of the file. */
+        private final long end;
+
+        /** The approximate size of a chunk. */
+        private final int chunkSize;
+
+        /**
+         * Constructs a ChunkSpliterator over a byte range of the file.
+         *
+         * @param channel   the open file
+         * @param position  the start of the range, at a line boundary
+         * @param end       the end of the range (exclusive), at a line boundary
+         * @param chunkSize the approximate size of a chunk
+         */
+        private ChunkSpliterator(final FileChannel channel, final long position, final long end,
+                                 final int chunkSize) {
+            this.channel = channel;
+            this.position = position;
+            this.end = end;
+            this.chunkSize = chunkSize;
+        }
+
+        @Override
+        public boolean tryAdvance(final Consumer<? super MappedInput> action) {
+            if (this.position >= this.end) {
+                return false;
+            }
+            try {
+                final long chunkEnd = lineBoundary(this.position + this.chunkSize);
+                final ByteBuffer region = this.channel.map(FileChannel.MapMode.READ_ONLY, this.position,
+                        chunkEnd - this.position);
+                this.position = chunkEnd;
+                action.accept(MappedInput.index(region));
+                return true;
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to map input chunk", e);
+            }
+        }
+
+        @Override
+        public Spliterator<MappedInput> trySplit() {
+            final long remaining = this.end - this.position;
+            if (remaining <= 2L * this.chunkSize) {
+                return null;
+            }
+            try {
+                final long middle = lineBoundary(this.position + remaining / 2);
+                if (middle >= this.end) {
+                    return null;
+                }
+                final ChunkSpliterator prefix = new ChunkSpliterator(this.channel, this.position, middle,
+                        this.chunkSize);
+                this.position = middle;
+                return prefix;
+            } catch (final IOException e) {
+                throw new UncheckedIOException("Failed to split input", e);
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return (this.end - this.position + this.chunkSize - 1) / this.chunkSize;
+        }
+
+        @Override
+        public int characteristics() {
+            return ORDERED | NONNULL | IMMUTABLE;
+        }
+
+        /**
+         * Finds the first line boundary at or after the given offset: the offset just past the next
+         * {@code '\n'}, or the end of the range. Chunks are never larger than a mappable buffer.
+         *
+         * @param offset the offset to start looking from
+         * @return the line boundary
+         * @throws IOException if the file cannot be read
+         */
+        private long lineBoundary(final long offset) throws IOException {
+            if (offset >= this.end) {
+                return this.end;
+            }
+            final ByteBuffer scan = ByteBuffer.allocate(SCAN_SIZE);
+            long at = offset;
+            while (at < this.end) {
+                scan.clear();
+                scan.limit((int) Math.min(SCAN_SIZE, this.end - at));
+                final int read = this.channel.read(scan, at);
+                if (read <= 0) {
+                    break;
+                }
+                for (int i = 0; i < read; i++) {
+                    if (scan.get(i) == '\n') {
+                        return at + i + 1;
+                    }
+                }
+                at += read;
+                if (at - this.position > Integer.MAX_VALUE) {
+                    throw new IOException(format("Line at offset %1$d is too long to be mapped", offset));
+                }
+            }
+            return this.end;
+        }
+    }
+}
@@ -0,0 +1,411 @@
+package com.ashley_eve.file;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code InputCache} class keeps pre-parsed forms of input files in compact binary files, so repeat runs
+ * on unchanged inputs can skip re-indexing and re-parsing them. It is disabled unless
+ * {@code input.cache.directory} is set, and only caches the puzzle inputs read from the classpath; inputs read
+ * from arbitrary files, such as batch corpora and generated scaling inputs, are indexed without it.
+ *
+ * <p>Three kinds of entries are stored:
+ * <ul>
+ *   <li>{@code <key>.lines}: the line index of the input, keyed by its {@link MappedInput#contentKey() content
+ *   key} and used automatically by {@link InputReader}. Identical inputs, such as a {@code problem1.input} and
+ *   {@code problem2.input} with the same content, share one entry</li>
+ *   <li>{@code file-<hash>-<size>.alias}: the content key of an input that is a file on disk, keyed by its path,
+ *   size and modification time, so that a hit on an unchanged file finds its line index without hashing the
+ *   content</li>
+ *   <li>{@code <key>.<name>.ints}: a parsed {@code int[]} form of a cached input, keyed by its content key and
+ *   stored on request through {@link #computeIfAbsent(MappedInput, String, Function)}</li>
+ * </ul>
+ * Cache files are memory-mapped when read and written through a temporary file that is renamed into place,
+ * so concurrent runs never observe a half-written entry. Every entry is checked against the content it is
+ * applied to, and a mismatching entry is ignored and replaced. Once the entries exceed the size limit, the
+ * least recently used ones are deleted.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * InputCache cache = new InputCache(Path.of("solutions/.cache"), 64L << 20);
+ * InputReader.setInputCache(cache);
+ * int[] left = cache.computeIfAbsent(input, "left", in -> ByteParser.column(in, 0));
+ * }</pre>
+ */
+public class InputCache {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(InputCache.class);
+
+    /** Magic number at the start of every cache file ("AOC2"). */
+    private static final int MAGIC = 0x414F4332;
+
+    /** Size of the header of a line index file: magic, content size, line count and content hash. */
+    private static final int LINES_HEADER_BYTES = Integer.BYTES * 3 + Long.BYTES;
+
+    /** Suffix of the temporary files entries are written through. */
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+
+    /** Size of the header of a parsed values file: magic and value count. */
+    private static final int INTS_HEADER_BYTES = Integer.BYTES * 2;
+
+    /** The directory holding the cache files. */
+    private final Path directory;
+
+    /** The maximum total size of the cache files in bytes, {@code 0} for no limit. */
+    private final long maxBytes;
+
+    /**
+     * Constructs an InputCache storing its entries in the given directory.
+     *
+     * @param directory the directory holding the cache files, created on first write
+     * @param maxBytes  the maximum total size of the cache files in bytes, {@code 0} for no limit
+     */
+    public InputCache(final Path directory, final long maxBytes) {
+        this.directory = directory;
+        this.maxBytes = Math.max(0, maxBytes);
+    }
+
+    /**
+     * Indexes the given content, reusing a cached line index when one exists for the same content and storing a
+     * new one otherwise. The line index of a file on disk is found through its alias while the file is
+     * unchanged; otherwise the content is hashed to find the index, which may have been stored for another file
+     * with the same content.
+     *
+     * @param content the complete file content
+     * @param source  the file the content was read from, or {@code null} if it is not a file on disk
+     * @return the indexed input
+     */
+    public MappedInput index(final ByteBuffer content, final Path source) {
+        final Path alias = source == null ? null : aliasFile(source);
+        if (alias != null) {
+            final String aliasedKey = readAlias(alias);
+            final MappedInput cached = aliasedKey == null ? null : loadLines(aliasedKey, content);
+            if (cached != null) {
+                touch(alias);
+                return cached;
+            }
+        }
+        final String key = MappedInput.contentKey(content);
+        MappedInput input = loadLines(key, content);
+        if (input == null) {
+            input = MappedInput.index(content);
+            input.presetContentKey(key);
+            writeLines(this.directory.resolve(key + ".lines"), input);
+            input.markCached();
+        }
+        if (alias != null) {
+            write(alias, ByteBuffer.wrap(key.getBytes(StandardCharsets.US_ASCII)));
+        }
+        return input;
+    }
+
+    /**
+     * Gets the number of lines of a file on disk from its cached line index, without reading the file.
+     *
+     * @param source the file
+     * @return the line count, or {@code -1} if no index is cached for the file as it is now
+     */
+    public int cachedLineCount(final Path source) {
+        final Path alias = aliasFile(source);
+        final String key = alias == null ? null : readAlias(alias);
+        if (key == null) {
+            return -1;
+        }
+        final Path file = this.directory.resolve(key + ".lines");
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(LINES_HEADER_BYTES);
+            int read = 0;
+            while (header.hasRemaining() && read >= 0) {
+                read = channel.read(header);
+            }
+            if (header.hasRemaining() || header.getInt(0) != MAGIC) {
+                return -1;
+            }
+            return Math.max(-1, header.getInt(8));
+        } catch (final IOException e) {
+            return -1;
+        }
+    }
+
+    /**
+     * Gets a parsed {@code int[]} form of the input from the cache, or parses and stores it. Inputs that were
+     * not read through the cache are parsed without storing the result.
+     *
+     * @param input  the input the values are parsed from
+     * @param name   the name of the parsed form, e.g. {@code "left"}; must be a valid file name part
+     * @param parser parses the input into the values on a cache miss
+     * @return the parsed values
+     */
+    public int[] computeIfAbsent(final MappedInput input, final String name,
+                                 final Function<MappedInput, int[]> parser) {
+        if (!input.isCached()) {
+            return parser.apply(input);
+        }
+        final Path file = this.directory.resolve(format("%1$s.%2$s.ints", input.contentKey(), name));
+        if (Files.isRegularFile(file)) {
+            try {
+                final int[] cached = readInts(file);
+                if (cached != null) {
+                    touch(file);
+                    return cached;
+                }
+            } catch (final IOException e) {
+                LOG.warn(() -> format("Failed to read cached values %1$s: %2$s", file, e.getMessage()));
+            }
+        }
+        final int[] values = parser.apply(input);
+        final ByteBuffer data = ByteBuffer.allocate(INTS_HEADER_BYTES + values.length * Integer.BYTES);
+        data.putInt(MAGIC).putInt(values.length).asIntBuffer().put(values);
+        write(file, data);
+        return values;
+    }
+
+    /**
+     * Loads the cached line index of a content key, if there is one that matches the content.
+     *
+     * @param key     the content key of the content
+     * @param content the content the index belongs to
+     * @return the indexed input, or {@code null} if no matching index is cached
+     */
+    private MappedInput loadLines(final String key, final ByteBuffer content) {
+        final Path file = this.directory.resolve(key + ".lines");
+        if (!Files.isRegularFile(file)) {
+            return null;
+        }
+        try {
+            final MappedInput cached = readLines(file, content);
+            if (cached != null && key.equals(cached.contentKey())) {
+                LOG.trace(() -> format("Loaded line index %1$s", file));
+                touch(file);
+                cached.markCached();
+                return cached;
+            }
+            LOG.debug(() -> format("Cached line index %1$s does not match its input", file));
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to read cached line index %1$s: %2$s", file, e.getMessage()));
+        }
+        return null;
+    }
+
+    /**
+     * Reads the content key an alias points at.
+     *
+     * @param alias the alias file
+     * @return the content key, or {@code null} if there is no valid alias
+     */
+    private static String readAlias(final Path alias) {
+        if (!Files.isRegularFile(alias)) {
+            return null;
+        }
+        try {
+            final String key = Files.readString(alias, StandardCharsets.US_ASCII);
+            return key.matches("[0-9a-f]{16}-[0-9]+") ? key : null;
+        } catch (final IOException e) {
+            LOG.debug(() -> format("Failed to read cache alias %1$s: %2$s", alias, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * Reads a cached line index and checks that it matches the content: the content size must match and every
+     * line must lie within the content, in order.
+     *
+     * @param file    the cache file
+     * @param content the content the index belongs to
+     * @return the indexed input with its content key preset, or {@code null} if the cache file does not match
+     * @throws IOException if the cache file cannot be read
+     */
+    private static MappedInput readLines(final Path file, final ByteBuffer content) throws IOException {
+        final ByteBuffer data = MappedInput.mapFile(file);
+        final int size = content.limit();
+        if (data.limit() < LINES_HEADER_BYTES || data.getInt(0) != MAGIC || data.getInt(4) != size) {
+            return null;
+        }
+        final int lineCount = data.getInt(8);
+        if (lineCount < 0 || data.limit() != LINES_HEADER_BYTES + 2L * lineCount * Integer.BYTES) {
+            return null;
+        }
+        final IntBuffer offsets = data.position(LINES_HEADER_BYTES).asIntBuffer();
+        final int[] starts = new int[lineCount];
+        final int[] ends = new int[lineCount];
+        offsets.get(starts).get(ends);
+        int previousEnd = 0;
+        for (int line = 0; line < lineCount; line++) {
+            if (starts[line] < previousEnd || ends[line] < starts[line] || ends[line] > size) {
+                return null;
+            }
+            previousEnd = ends[line];
+        }
+        final MappedInput input = MappedInput.of(content, starts, ends);
+        input.presetContentKey(MappedInput.contentKey(data.getLong(12), size));
+        return input;
+    }
+
+    /**
+     * Stores the line index of an input.
+     *
+     * @param file  the cache file
+     * @param input the indexed input
+     */
+    private void writeLines(final Path file, final MappedInput input) {
+        final ByteBuffer data = ByteBuffer.allocate(LINES_HEADER_BYTES + 2 * input.lineCount() * Integer.BYTES);
+        final String key = input.contentKey();
+        data.putInt(MAGIC).putInt(input.size()).putInt(input.lineCount());
+        data.putLong(Long.parseUnsignedLong(key, 0, key.indexOf('-'), 16));
+        data.asIntBuffer().put(input.lineStarts()).put(input.lineEnds());
+        write(file, data);
+    }
+
+    /**
+     * Reads cached parsed values.
+     *
+     * @param file the cache file
+     * @return the values, or {@code null} if the cache file is not valid
+     * @throws IOException if the cache file cannot be read
+     */
+    private static int[] readInts(final Path file) throws IOException {
+        final ByteBuffer data = MappedInput.mapFile(file);
+        if (data.limit() < INTS_HEADER_BYTES || data.getInt(0) != MAGIC
+                || data.limit() != INTS_HEADER_BYTES + (long) data.getInt(4) * Integer.BYTES) {
+            return null;
+        }
+        final int[] values = new int[data.getInt(4)];
+        data.position(INTS_HEADER_BYTES).asIntBuffer().get(values);
+        return values;
+    }
+
+    /**
+     * Writes a cache file through a temporary file that is atomically renamed into place.
+     *
+     * @param file the cache file
+     * @param data the complete content, positioned anywhere
+     */
+    private void write(final Path file, final ByteBuffer data) {
+        try {
+            Files.createDirectories(this.directory);
+            final Path temporary = Files.createTempFile(this.directory, file.getFileName().toString(),
+                    TEMPORARY_SUFFIX);
+            try {
+                try (FileChannel channel = FileChannel.open(temporary, StandardOpenOption.WRITE)) {
+                    data.clear();
+                    while (data.hasRemaining()) {
+                        channel.write(data);
+                    }
+                }
+                Files.move(temporary, file, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            } finally {
+                Files.deleteIfExists(temporary);
+            }
+            LOG.trace(() -> format("Stored cache entry %1$s", file));
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to store cache entry %1$s: %2$s", file, e.getMessage()));
+            return;
+        }
+        trim();
+    }
+
+    /**
+     * Deletes the least recently used entries until the cache files fit in the size limit.
+     */
+    private void trim() {
+        if (this.maxBytes == 0) {
+            return;
+        }
+        final List<Entry> entries = new ArrayList<>();
+        long total = 0;
+        try (Stream<Path> files = Files.list(this.directory)) {
+            for (final Path file : (Iterable<Path>) files::iterator) {
+                if (file.getFileName().toString().endsWith(TEMPORARY_SUFFIX)) {
+                    continue;
+                }
+                final BasicFileAttributes attributes = Files.readAttributes(file, BasicFileAttributes.class);
+                if (attributes.isRegularFile()) {
+                    entries.add(new Entry(file, attributes.size(), attributes.lastModifiedTime()));
+                    total += attributes.size();
+                }
+            }
+            if (total <= this.maxBytes) {
+                return;
+            }
+            entries.sort(Comparator.comparing(Entry::lastUsed));
+            for (final Entry entry : entries) {
+                if (total <= this.maxBytes) {
+                    break;
+                }
+                Files.deleteIfExists(entry.file());
+                total -= entry.size();
+                LOG.trace(() -> format("Evicted cache entry %1$s", entry.file()));
+            }
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to trim the input cache %1$s: %2$s", this.directory, e.getMessage()));
+        }
+    }
+
+    /**
+     * Marks a cache entry as used now, so it is evicted after the entries that were used less recently.
+     *
+     * @param file the cache file
+     */
+    private static void touch(final Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (final IOException e) {
+            LOG.debug(() -> format("Failed to touch cache entry %1$s: %2$s", file, e.getMessage()));
+        }
+    }
+
+    /**
+     * Gets the alias of a file on disk, named after its path, size and modification time, so that the line
+     * index of an unchanged file is found without reading its content.
+     *
+     * @param source the file
+     * @return the alias file, or {@code null} if the attributes of the file cannot be read
+     */
+    private Path aliasFile(final Path source) {
+        try {
+            final BasicFileAttributes attributes = Files.readAttributes(source, BasicFileAttributes.class);
+            long hash = 0xCBF2_9CE4_8422_2325L;
+            for (final byte value : source.toAbsolutePath().normalize().toString().getBytes(StandardCharsets.UTF_8)) {
+                hash = (hash ^ value) * 0x100_0000_01B3L;
+            }
+            hash = (hash ^ attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)) * 0x9E37_79B9_7F4A_7C15L;
+            return this.directory.resolve(format("file-%1$016x-%2$d.alias", hash ^ hash >>> 32, attributes.size()));
+        } catch (final IOException e) {
+            LOG.debug(() -> format("Cannot read the attributes of %1$s: %2$s", source, e.getMessage()));
+            return null;
+        }
+    }
+
+    /**
+     * The {@code Entry} record describes one cache file when the cache is trimmed.
+     *
+     * @param file     the cache file
+     * @param size     the size of the file in bytes
+     * @param lastUsed the time the entry was last stored or read
+     */
+    private record Entry(Path file, long size, FileTime lastUsed) {
+    }
+}
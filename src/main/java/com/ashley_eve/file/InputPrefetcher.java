@@ -0,0 +1,222 @@
+package com.ashley_eve.file;
+
+import static java.lang.String.format;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code InputPrefetcher} class reads and indexes input files in the background, so that loading the inputs
+ * of the days that run later overlaps with solving the days that run first. {@link InputReader} hands it the
+ * loads of its files through {@link #submit(String, long, Supplier)} and gets back a {@link Prefetch}, which it
+ * only waits on when the data is first requested.
+ *
+ * <p>The heap bytes of the files that have been prefetched but not yet taken over by their reader are bounded by
+ * a budget: a load waits for its share of the budget before it starts, and the share is returned once the reader
+ * takes the data (or discards it). The content of a memory-mapped file stays off the heap, so its load is only
+ * charged for the line index built on the heap. A file larger than the whole budget is prefetched on its own.
+ * A reader that requests its data while the load is still waiting for budget cancels the prefetch and reads the
+ * file itself, so prefetching never delays a solve that is ready to run; the cancelled load gives up waiting for
+ * budget shortly after. A load that fails is logged and the reader reads the file itself as well.
+ *
+ * <p>The loads run on a small pool of daemon threads, in the order they were submitted.
+ */
+public final class InputPrefetcher implements AutoCloseable {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(InputPrefetcher.class);
+
+    /** The size of a budget permit in bytes; the budget is kept in KiB so it can exceed 2 GiB. */
+    private static final int PERMIT_BYTES = 1024;
+
+    /** How long a queued load waits for budget before it checks again whether it was cancelled. */
+    private static final long ACQUIRE_POLL_MILLIS = 50;
+
+    /** The state of a prefetch whose load has not started. */
+    private static final int QUEUED = 0;
+
+    /** The state of a prefetch whose load has started on a prefetch thread. */
+    private static final int LOADING = 1;
+
+    /** The state of a prefetch that was cancelled before its load started. */
+    private static final int CANCELLED = 2;
+
+    /** The free part of the budget in KiB. */
+    private final Semaphore budget;
+
+    /** The whole budget in KiB. */
+    private final int budgetPermits;
+
+    /** The threads running the loads. */
+    private final ExecutorService executor;
+
+    /**
+     * Constructs an InputPrefetcher.
+     *
+     * @param budgetBytes the maximum number of prefetched bytes not yet taken over by their reader
+     * @param threads     the number of threads reading files in parallel
+     */
+    public InputPrefetcher(final long budgetBytes, final int threads) {
+        if (budgetBytes <= 0 || threads <= 0) {
+            throw new IllegalArgumentException(format("Invalid prefetch budget %1$d or threads %2$d", budgetBytes,
+                    threads));
+        }
+        this.budgetPermits = (int) Math.min(Integer.MAX_VALUE, Math.max(1, budgetBytes / PERMIT_BYTES));
+        this.budget = new Semaphore(this.budgetPermits, true);
+        this.executor = Executors.newFixedThreadPool(threads,
+                Thread.ofPlatform().daemon().name("input-prefetch-", 0).factory());
+    }
+
+    /**
+     * Schedules the load of a file.
+     *
+     * @param name   the name of the file, for logging
+     * @param size   the number of bytes the load puts on the heap, {@code 0} if it is unknown
+     * @param loader reads and indexes the file
+     * @return the handle the reader takes the data from; if the prefetcher is closed, the handle makes the
+     *         reader read the file itself
+     */
+    public Prefetch submit(final String name, final long size, final Supplier<MappedInput> loader) {
+        final long kilobytes = (size + PERMIT_BYTES - 1) / PERMIT_BYTES;
+        final int permits = (int) Math.max(1, Math.min(this.budgetPermits, kilobytes));
+        final Prefetch prefetch = new Prefetch(name, permits);
+        try {
+            this.executor.execute(() -> prefetch.load(loader));
+            LOG.trace(() -> format("Scheduled prefetch of %1$s (%2$d KiB)", name, permits));
+        } catch (final RejectedExecutionException e) {
+            LOG.trace(() -> format("Prefetcher is closed, %1$s is read on demand", name));
+        }
+        return prefetch;
+    }
+
+    /**
+     * Stops accepting loads. Loads that have been submitted still run, unless their readers take over first.
+     */
+    @Override
+    public void close() {
+        this.executor.shutdown();
+    }
+
+    /**
+     * The {@code Prefetch} class is the handle of one scheduled load. Its data is handed over once through
+     * {@link #take()} or dropped through {@link #discard()}, either of which returns its share of the budget.
+     */
+    public final class Prefetch {
+
+        /** The name of the file, for logging. */
+        private final String name;
+
+        /** The share of the budget the load holds while it runs and until its data is taken. */
+        private final int permits;
+
+        /** {@link #QUEUED}, {@link #LOADING} or {@link #CANCELLED}. */
+        private final AtomicInteger state = new AtomicInteger(QUEUED);
+
+        /** Set once the share of the budget has been returned. */
+        private final AtomicBoolean returned = new AtomicBoolean();
+
+        /** Completed with the loaded data once the load has run. */
+        private final CompletableFuture<MappedInput> data = new CompletableFuture<>();
+
+        /**
+         * Constructs a Prefetch.
+         *
+         * @param name    the name of the file, for logging
+         * @param permits the share of the budget of the load
+         */
+        private Prefetch(final String name, final int permits) {
+            this.name = name;
+            this.permits = permits;
+        }
+
+        /**
+         * Runs the load on a prefetch thread once its share of the budget is free, unless the reader has
+         * cancelled it in the meantime. The wait for budget is polled, so a cancelled load frees its thread
+         * instead of blocking it until other readers return their shares.
+         *
+         * @param loader reads and indexes the file
+         */
+        private void load(final Supplier<MappedInput> loader) {
+            if (this.state.get() != QUEUED) {
+                return;
+            }
+            try {
+                while (!InputPrefetcher.this.budget.tryAcquire(this.permits, ACQUIRE_POLL_MILLIS,
+                        TimeUnit.MILLISECONDS)) {
+                    if (this.state.get() != QUEUED) {
+                        return;
+                    }
+                }
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+            if (!this.state.compareAndSet(QUEUED, LOADING)) {
+                InputPrefetcher.this.budget.release(this.permits);
+                return;
+            }
+            final long start = System.nanoTime();
+            try {
+                this.data.complete(loader.get());
+                LOG.debug(() -> format("Prefetched %1$s in %2$d us", this.name,
+                        (System.nanoTime() - start) / 1_000));
+            } catch (final RuntimeException | Error e) {
+                this.data.completeExceptionally(e);
+            }
+        }
+
+        /**
+         * Takes over the prefetched data, waiting for the load if it is running. A load that has not started is
+         * cancelled instead.
+         *
+         * @return the loaded data, or {@code null} if the load had not started or failed and the caller has to
+         *         read the file itself
+         */
+        public MappedInput take() {
+            if (this.state.compareAndSet(QUEUED, CANCELLED)) {
+                LOG.trace(() -> format("Prefetch of %1$s had not started", this.name));
+                return null;
+            }
+            try {
+                return this.data.join();
+            } catch (final CompletionException e) {
+                LOG.warn(() -> format("Prefetch of %1$s failed, reading it on demand: %2$s", this.name,
+                        e.getCause()));
+                return null;
+            } finally {
+                returnBudget();
+            }
+        }
+
+        /**
+         * Drops the prefetched data, e.g. because the reader now reads another file. A running load finishes
+         * and returns its share of the budget when it is done.
+         */
+        public void discard() {
+            if (!this.state.compareAndSet(QUEUED, CANCELLED)) {
+                this.data.whenComplete((input, failure) -> returnBudget());
+            }
+        }
+
+        /**
+         * Returns the share of the budget, once.
+         */
+        private void returnBudget() {
+            if (this.returned.compareAndSet(false, true)) {
+                InputPrefetcher.this.budget.release(this.permits);
+            }
+        }
+    }
+}
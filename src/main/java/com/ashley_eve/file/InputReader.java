@@ -1,14 +1,17 @@
 package com.ashley_eve.file;
 
-import java.io.BufferedInputStream;
-import java.io.BufferedReader;
 import java.io.IOException;
 import java.io.InputStream;
-import java.io.InputStreamReader;
-import java.util.ArrayList;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Collection;
-import java.util.List;
+import java.util.stream.Stream;
 
+import com.ashley_eve.Part;
+import com.ashley_eve.metrics.InputReadEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -17,10 +20,23 @@ import org.apache.logging.log4j.Logger;
  * The {@code InputReader} class is responsible for reading input files for different problems.
  * It reads and logs the contents of three specific input files using their paths.
  *
+ * <p>Each file is held as a {@link MappedInput}. In memory-mapped mode, resources that live on the file system
+ * are mapped through {@link java.nio.channels.FileChannel#map} and indexed once, so their lines can be walked as
+ * offset/length views without a copy. Resources packed inside the jar cannot be mapped and fall back to a single
+ * heap array holding the whole file.
+ *
+ * <p>Files are loaded lazily the first time their data is requested and can be released again through
+ * {@link #release(int)} once they are no longer needed, so a run only holds the inputs it actually uses.
+ * Every load is recorded as an {@link InputReadEvent} for Java Flight Recorder.
+ *
+ * <p>When an {@link InputPrefetcher} is set, {@link #prefetch(int)} starts loading a file in the background;
+ * the first request for its data then waits for that load instead of reading the file again, or reads the file
+ * itself if the load has not started yet.
+ *
  * <p>Usage example:
  * <pre>
  *     InputReader inputReader = new InputReader("path/to/problem1.input", "path/to/problem2.input",
- *     "path/to/test.input");
+ *     "path/to/test.input", true);
  * </pre>
  *
  * <p>Note: The input files should be placed in the resources folder of the project.
@@ -30,55 +46,167 @@ public class InputReader {
     /** Static class logger. */
     private static final Logger LOG = LogManager.getLogger(InputReader.class);
 
-    /** List to store test data. */
-    private final List<byte[]> testData;
+    /**
+     * The estimated heap size of a line index, as a divisor of the input size: two {@code int} offsets per line
+     * of about 32 bytes, doubled while the offset arrays grow.
+     */
+    private static final long INDEX_BYTES_DIVISOR = 4;
+
+    /** Cache of line indexes shared by all readers, {@code null} when caching is disabled. */
+    private static volatile InputCache inputCache;
+
+    /** Prefetcher shared by all readers, {@code null} when inputs are only read on demand. */
+    private static volatile InputPrefetcher inputPrefetcher;
+
+    /** Lazily loaded test data. */
+    private final LazyInput testData;
 
-    /** List to store data from the first problem input file. */
-    private final List<byte[]> problem1Data;
+    /** Lazily loaded data from the first problem input file. */
+    private final LazyInput problem1Data;
 
-    /** List to store data from the second problem input file. */
-    private final List<byte[]> problem2Data;
+    /** Lazily loaded data from the second problem input file. */
+    private final LazyInput problem2Data;
 
     /**
      * Constructs an InputReader to read from three input files specified by their
-     * paths.
+     * paths, reading every file into the heap.
      *
      * @param problem1InputFile the path to the first input file
      * @param problem2InputFile the path to the second input file
      * @param testInputFile     the path to the test input file
      */
     public InputReader(final String problem1InputFile, final String problem2InputFile, final String testInputFile) {
-        this.problem1Data = readFileData(problem1InputFile);
-        this.problem2Data = readFileData(problem2InputFile);
-        this.testData = readFileData(testInputFile);
+        this(problem1InputFile, problem2InputFile, testInputFile, false);
     }
 
+    /**
+     * Constructs an InputReader to read from three input files specified by their
+     * paths. No file is read until its data is first requested.
+     *
+     * @param problem1InputFile the path to the first input file
+     * @param problem2InputFile the path to the second input file
+     * @param testInputFile     the path to the test input file
+     * @param memoryMapped      {@code true} to memory-map files where possible, {@code false} to read them
+     *                          into the heap
+     */
+    public InputReader(final String problem1InputFile, final String problem2InputFile, final String testInputFile,
+                       final boolean memoryMapped) {
+        this(0, problem1InputFile, problem2InputFile, testInputFile, memoryMapped);
+    }
+
+    /**
+     * Constructs an InputReader for the input files of the given day, which tags the recorded read events.
+     * No file is read until its data is first requested.
+     *
+     * @param dayNumber         the day the input files belong to
+     * @param problem1InputFile the path to the first input file
+     * @param problem2InputFile the path to the second input file
+     * @param testInputFile     the path to the test input file
+     * @param memoryMapped      {@code true} to memory-map files where possible, {@code false} to read them
+     *                          into the heap
+     */
+    public InputReader(final int dayNumber, final String problem1InputFile, final String problem2InputFile,
+                       final String testInputFile, final boolean memoryMapped) {
+        this.problem1Data = new LazyInput(problem1InputFile, memoryMapped, dayNumber, Part.ONE);
+        this.problem2Data = new LazyInput(problem2InputFile, memoryMapped, dayNumber, Part.TWO);
+        this.testData = new LazyInput(testInputFile, memoryMapped, dayNumber, Part.TEST);
+    }
+
+
+    /**
+     * Sets the cache used to store and reuse the line indexes of all inputs read afterwards.
+     *
+     * @param cache the cache to use, or {@code null} to index every input from scratch
+     */
+    public static void setInputCache(final InputCache cache) {
+        inputCache = cache;
+    }
+
+    /**
+     * Gets the cache used to store and reuse parsed inputs.
+     *
+     * @return the cache, or {@code null} when caching is disabled
+     */
+    public static InputCache getInputCache() {
+        return inputCache;
+    }
+
+    /**
+     * Sets the prefetcher that loads inputs in the background when {@link #prefetch(int)} is called, closing the
+     * previous one.
+     *
+     * @param prefetcher the prefetcher to use, or {@code null} to only read inputs on demand
+     */
+    public static void setInputPrefetcher(final InputPrefetcher prefetcher) {
+        final InputPrefetcher previous = inputPrefetcher;
+        inputPrefetcher = prefetcher;
+        if (previous != null && previous != prefetcher) {
+            previous.close();
+        }
+    }
 
     /**
-     * Reads the data from the specified input file and returns it as a list of byte arrays.
-     * Each element in the returned list corresponds to a line in the input file.
+     * Gets the prefetcher that loads inputs in the background.
      *
-     * @param inputFile the input file stream to read data from
-     * @return a list of byte arrays, each representing a line of the input file
+     * @return the prefetcher, or {@code null} when inputs are only read on demand
      */
-    private List<byte[]> readFileData(final String fileName) {
-        final List<byte[]> data = new ArrayList<>();
-        final InputStream inputStream = getClass().getClassLoader().getResourceAsStream(fileName);
-        if (inputStream != null) {
-            final InputStreamReader inputReader = new InputStreamReader(new BufferedInputStream(inputStream));
+    public static InputPrefetcher getInputPrefetcher() {
+        return inputPrefetcher;
+    }
 
-            try (BufferedReader bufferedReader = new BufferedReader(inputReader)) {
-                String line;
-                while ((line = bufferedReader.readLine()) != null) {
-                    data.add(line.getBytes());
+    /**
+     * Reads the data from the specified classpath resource and indexes its lines.
+     * Resources that resolve to a file on disk are memory-mapped when requested, anything else
+     * (e.g. a jar entry) is read into a single heap array. When an {@link InputCache} is set, a cached line
+     * index of the same input is reused instead of indexing the file again.
+     *
+     * @param fileName     the classpath resource to read data from
+     * @param memoryMapped {@code true} to memory-map the file where possible
+     * @return the indexed file content, empty if the file could not be read
+     */
+    public static MappedInput readFileData(final String fileName, final boolean memoryMapped) {
+        final URL resource = InputReader.class.getClassLoader().getResource(fileName);
+        if (resource == null) {
+            LOG.error(() -> String.format("Input file not found: %1$s", fileName));
+            return MappedInput.empty();
+        }
+        try {
+            final Path source = "file".equals(resource.getProtocol()) ? Path.of(resource.toURI()) : null;
+            final ByteBuffer content;
+            if (memoryMapped && source != null) {
+                content = MappedInput.mapFile(source);
+            } else {
+                LOG.trace(() -> String.format("Reading input file %1$s into the heap", fileName));
+                try (InputStream inputStream = resource.openStream()) {
+                    content = ByteBuffer.wrap(inputStream.readAllBytes());
                 }
-            } catch (final IOException e) {
-                LOG.error(() -> String.format("Failed to read input file %1$s", fileName));
             }
-        } else {
-            LOG.error(() -> String.format("Input file not found: %1$s", fileName));
+            final InputCache cache = inputCache;
+            return cache == null ? MappedInput.index(content) : cache.index(content, source);
+        } catch (final IOException | URISyntaxException e) {
+            LOG.error(() -> String.format("Failed to read input file %1$s", fileName));
+            return MappedInput.empty();
+        }
+    }
+
+    /**
+     * Reads the data from the specified file on disk and indexes its lines, the same way as
+     * {@link #readFileData(String, boolean)} does for classpath resources. Such files are batch corpora,
+     * generated or edited inputs, so they bypass the {@link InputCache} instead of filling it with entries that
+     * are rarely read again.
+     *
+     * @param file         the file to read data from
+     * @param memoryMapped {@code true} to memory-map the file, {@code false} to read it into the heap
+     * @return the indexed file content, empty if the file could not be read
+     */
+    public static MappedInput readFileData(final Path file, final boolean memoryMapped) {
+        try {
+            return MappedInput.index(memoryMapped ? MappedInput.mapFile(file)
+                    : ByteBuffer.wrap(Files.readAllBytes(file)));
+        } catch (final IOException e) {
+            LOG.error(() -> String.format("Failed to read input file %1$s", file));
+            return MappedInput.empty();
         }
-        return data;
     }
 
     /**
@@ -87,7 +215,7 @@ public class InputReader {
      * @return the collection of test data
      */
     public Collection<byte[]> getTestData() {
-        return this.testData;
+        return this.testData.get().asByteLines();
     }
 
     /**
@@ -96,7 +224,7 @@ public class InputReader {
      * @return the collection of data from the first problem input file
      */
     public Collection<byte[]> getProblem1Data() {
-        return this.problem1Data;
+        return this.problem1Data.get().asByteLines();
     }
 
     /**
@@ -105,6 +233,313 @@ public class InputReader {
      * @return the collection of data from the second problem input file
      */
     public Collection<byte[]> getProblem2Data() {
-        return this.problem2Data;
+        return this.problem2Data.get().asByteLines();
+    }
+
+    /**
+     * Gets the indexed test input.
+     *
+     * @return the test input
+     */
+    public MappedInput getTestInput() {
+        return this.testData.get();
+    }
+
+    /**
+     * Gets the indexed input of the first problem.
+     *
+     * @return the first problem input
+     */
+    public MappedInput getProblem1Input() {
+        return this.problem1Data.get();
+    }
+
+    /**
+     * Gets the indexed input of the second problem.
+     *
+     * @return the second problem input
+     */
+    public MappedInput getProblem2Input() {
+        return this.problem2Data.get();
+    }
+
+    /**
+     * Gets the indexed input for the given problem number, loading it if needed.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @return the indexed input
+     */
+    public MappedInput getInput(final int problemNumber) {
+        return slot(problemNumber).get();
+    }
+
+    /**
+     * Starts loading the input of the given problem number in the background, if an {@link InputPrefetcher} is
+     * set and the input is neither loaded nor already being prefetched.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     */
+    public void prefetch(final int problemNumber) {
+        final InputPrefetcher prefetcher = inputPrefetcher;
+        if (prefetcher != null) {
+            slot(problemNumber).prefetch(prefetcher);
+        }
+    }
+
+    /**
+     * Releases the loaded data of the given problem number so it can be garbage collected
+     * (or unmapped). The file is read again if its data is requested afterwards.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     */
+    public void release(final int problemNumber) {
+        slot(problemNumber).release();
+    }
+
+    /**
+     * Replaces the classpath resource of the given problem number by a file on disk, e.g. a generated or
+     * changed input. Any loaded data is released, so the file is read on the next request.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @param file          the file to read from now on, or {@code null} to go back to the classpath resource
+     */
+    public void setInputFile(final int problemNumber, final Path file) {
+        slot(problemNumber).setFile(file);
+    }
+
+    /**
+     * Streams the input of the given problem number as line-aligned chunks, from the same source
+     * {@link #getInput(int)} reads: the file set through {@link #setInputFile(int, Path)} if any, else the
+     * classpath resource. Data that is already loaded is streamed as a single chunk instead of being mapped
+     * again.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @param chunkSize     the approximate size of a chunk in bytes
+     * @param parallel      {@code true} for a parallel stream
+     * @return the stream of chunks, which must be closed
+     * @see ChunkedInputReader
+     */
+    public Stream<MappedInput> chunks(final int problemNumber, final int chunkSize, final boolean parallel) {
+        return slot(problemNumber).chunks(chunkSize, parallel);
+    }
+
+    /**
+     * Gets the size of the input of the given problem number if it is loaded, without loading it.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @return the size in bytes, or {@code -1} if the input is not loaded
+     */
+    public long loadedSize(final int problemNumber) {
+        return slot(problemNumber).loadedSize();
+    }
+
+    /**
+     * Resolves the lazily loaded input for the given problem number.
+     *
+     * @param problemNumber the problem number (0 for the test input)
+     * @return the matching lazy input
+     */
+    private LazyInput slot(final int problemNumber) {
+        return switch (problemNumber) {
+            case 0 -> this.testData;
+            case 1 -> this.problem1Data;
+            case 2 -> this.problem2Data;
+            default -> throw new IllegalArgumentException(
+                    String.format("Unknown problem number: %1$d", problemNumber));
+        };
+    }
+
+    /**
+     * The {@code LazyInput} class reads one input file on first access and keeps it until released.
+     * Access is synchronized so concurrent callers read the file only once.
+     */
+    private static final class LazyInput {
+
+        /** The classpath resource to read. */
+        private final String fileName;
+
+        /** Whether the file should be memory-mapped where possible. */
+        private final boolean memoryMapped;
+
+        /** The day the file belongs to, {@code 0} if unknown. */
+        private final int dayNumber;
+
+        /** The part the file belongs to. */
+        private final Part part;
+
+        /** A file on disk read instead of the classpath resource, {@code null} to read the resource. */
+        private Path file;
+
+        /** The loaded data, {@code null} until first requested or after a release. */
+        private MappedInput data;
+
+        /** The background load of the data, {@code null} if none is pending. */
+        private InputPrefetcher.Prefetch pending;
+
+        /**
+         * Constructs a LazyInput for the given resource.
+         *
+         * @param fileName     the classpath resource to read
+         * @param memoryMapped {@code true} to memory-map the file where possible
+         * @param dayNumber    the day the file belongs to, {@code 0} if unknown
+         * @param part         the part the file belongs to
+         */
+        private LazyInput(final String fileName, final boolean memoryMapped, final int dayNumber,
+                          final Part part) {
+            this.fileName = fileName;
+            this.memoryMapped = memoryMapped;
+            this.dayNumber = dayNumber;
+            this.part = part;
+        }
+
+        /**
+         * Gets the data, taking it over from a pending prefetch or reading the file if it is not loaded yet.
+         *
+         * @return the indexed file content
+         */
+        private synchronized MappedInput get() {
+            if (this.data == null) {
+                final InputPrefetcher.Prefetch prefetch = this.pending;
+                this.pending = null;
+                if (prefetch != null) {
+                    this.data = prefetch.take();
+                }
+                if (this.data == null) {
+                    this.data = load(this.file);
+                }
+            }
+            return this.data;
+        }
+
+        /**
+         * Starts loading the data in the background unless it is loaded or already being prefetched.
+         *
+         * @param prefetcher the prefetcher running the load
+         */
+        private synchronized void prefetch(final InputPrefetcher prefetcher) {
+            if (this.data == null && this.pending == null) {
+                final Path override = this.file;
+                final String name = override == null ? this.fileName : override.toString();
+                this.pending = prefetcher.submit(name, heapSize(override), () -> load(override));
+            }
+        }
+
+        /**
+         * Reads and indexes the file and records the read. Runs on the requesting thread or on a prefetch
+         * thread, so it only reads immutable state.
+         *
+         * @param override the file to read, or {@code null} to read the classpath resource
+         * @return the indexed file content
+         */
+        private MappedInput load(final Path override) {
+            final InputReadEvent event = new InputReadEvent();
+            event.begin();
+            final MappedInput loaded;
+            if (override == null) {
+                LOG.debug(() -> String.format("Loading input file %1$s", this.fileName));
+                loaded = readFileData(this.fileName, this.memoryMapped);
+            } else {
+                LOG.debug(() -> String.format("Loading input file %1$s", override));
+                loaded = readFileData(override, this.memoryMapped);
+            }
+            event.end();
+            if (event.shouldCommit()) {
+                event.day = this.dayNumber;
+                event.part = this.part.name();
+                event.file = override == null ? this.fileName : override.toString();
+                event.bytes = loaded.size();
+                event.lines = loaded.lineCount();
+                event.memoryMapped = this.memoryMapped;
+                event.commit();
+            }
+            return loaded;
+        }
+
+        /**
+         * Estimates the number of bytes a load puts on the heap, without reading the file, to reserve its share of
+         * the prefetch budget. A file read into the heap takes its size; every input also takes its line index of
+         * two {@code int} offsets per line, which for a memory-mapped file is all it holds on the heap. The line
+         * count is taken from the {@link InputCache} when it holds the index of the file, and is otherwise
+         * estimated from the size.
+         *
+         * @param override the file to read, or {@code null} to read the classpath resource
+         * @return the estimated size in bytes, or {@code 0} if it is unknown, e.g. for a jar entry
+         */
+        private long heapSize(final Path override) {
+            try {
+                Path source = override;
+                if (source == null) {
+                    final URL resource = InputReader.class.getClassLoader().getResource(this.fileName);
+                    if (resource == null || !"file".equals(resource.getProtocol())) {
+                        return 0;
+                    }
+                    source = Path.of(resource.toURI());
+                }
+                final long size = Files.size(source);
+                final InputCache cache = inputCache;
+                final int lineCount = cache == null || override != null ? -1 : cache.cachedLineCount(source);
+                final long indexBytes = lineCount >= 0 ? 2L * Integer.BYTES * lineCount : size / INDEX_BYTES_DIVISOR;
+                return this.memoryMapped ? indexBytes : size + indexBytes;
+            } catch (final IOException | URISyntaxException e) {
+                return 0;
+            }
+        }
+
+        /**
+         * Streams the data as line-aligned chunks without loading it as a whole.
+         *
+         * @param chunkSize the approximate size of a chunk in bytes
+         * @param parallel  {@code true} for a parallel stream
+         * @return the stream of chunks
+         */
+        private synchronized Stream<MappedInput> chunks(final int chunkSize, final boolean parallel) {
+            if (this.data != null) {
+                final Stream<MappedInput> loaded = Stream.of(this.data);
+                return parallel ? loaded.parallel() : loaded;
+            }
+            return this.file == null ? ChunkedInputReader.chunks(this.fileName, chunkSize, parallel)
+                    : ChunkedInputReader.chunks(this.file, chunkSize, parallel);
+        }
+
+        /**
+         * Replaces the source of the data and releases any loaded data.
+         *
+         * @param override the file to read, or {@code null} to read the classpath resource
+         */
+        private synchronized void setFile(final Path override) {
+            this.file = override;
+            this.data = null;
+            discardPending();
+        }
+
+        /**
+         * Gets the size of the loaded data.
+         *
+         * @return the size in bytes, or {@code -1} if no data is loaded
+         */
+        private synchronized long loadedSize() {
+            return this.data == null ? -1 : this.data.size();
+        }
+
+        /**
+         * Drops the reference to the loaded data.
+         */
+        private synchronized void release() {
+            if (this.data != null) {
+                LOG.trace(() -> String.format("Released input file %1$s", this.fileName));
+                this.data = null;
+            }
+            discardPending();
+        }
+
+        /**
+         * Drops a pending prefetch, returning its share of the prefetch budget.
+         */
+        private void discardPending() {
+            if (this.pending != null) {
+                this.pending.discard();
+                this.pending = null;
+            }
+        }
     }
 }
\ No newline at end of file
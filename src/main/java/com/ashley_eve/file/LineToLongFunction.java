@@ -0,0 +1,19 @@
+package com.ashley_eve.file;
+
+
+/**
+ * The {@code LineToLongFunction} interface maps one line of a {@link MappedInput} to a primitive {@code long},
+ * reading the line in place through its offsets instead of from a copied {@code byte[]}.
+ */
+@FunctionalInterface
+public interface LineToLongFunction {
+
+    /**
+     * Maps one line of the input.
+     *
+     * @param input the input holding the line
+     * @param line  the zero-based line number
+     * @return the value of the line
+     */
+    long applyAsLong(MappedInput input, int line);
+}
@@ -0,0 +1,469 @@
+package com.ashley_eve.file;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+import java.util.function.IntConsumer;
+
+
+/**
+ * The {@code MappedInput} class holds the raw bytes of one input file together with a line index.
+ * The bytes are either memory-mapped straight from disk or, for resources that cannot be mapped
+ * (e.g. entries packed inside the jar), wrapped from a single heap array.
+ *
+ * <p>Every line is described by a start offset and an end offset into the shared buffer, so callers can
+ * walk the lines with {@link #lineStart(int)}, {@link #lineEnd(int)} and {@link #byteAt(int)} without a
+ * {@code byte[]} being allocated per line. Line terminators ({@code \n}, {@code \r\n} and {@code \r})
+ * are excluded from the lines, matching {@link java.io.BufferedReader#readLine()}.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * MappedInput input = MappedInput.map(Path.of("day1/problem1.input"));
+ * for (int line = 0; line < input.lineCount(); line++) {
+ *     for (int i = input.lineStart(line); i < input.lineEnd(line); i++) {
+ *         byte value = input.byteAt(i);
+ *     }
+ * }
+ * }</pre>
+ */
+public final class MappedInput {
+
+    /** Shared instance for missing or empty input files. */
+    private static final MappedInput EMPTY = new MappedInput(ByteBuffer.allocate(0), new int[0], new int[0], 0);
+
+    /** Read-only buffer holding the complete file content. */
+    private final ByteBuffer buffer;
+
+    /** Offset of the first byte of every line. */
+    private final int[] lineStarts;
+
+    /** Offset one past the last byte of every line, excluding the line terminator. */
+    private final int[] lineEnds;
+
+    /** Number of lines in the input. */
+    private final int lineCount;
+
+    /** Hash of the content, computed on first use by {@link #contentKey()}. */
+    private volatile String contentKey;
+
+    /** Whether the input was read through the {@link InputCache}, which then also keeps its parsed forms. */
+    private volatile boolean cached;
+
+    /**
+     * Constructs a MappedInput from an already indexed buffer.
+     *
+     * @param buffer     the buffer holding the file content
+     * @param lineStarts the start offsets of the lines
+     * @param lineEnds   the end offsets of the lines
+     * @param lineCount  the number of valid entries in the offset arrays
+     */
+    private MappedInput(final ByteBuffer buffer, final int[] lineStarts, final int[] lineEnds, final int lineCount) {
+        this.buffer = buffer.asReadOnlyBuffer();
+        this.lineStarts = lineStarts;
+        this.lineEnds = lineEnds;
+        this.lineCount = lineCount;
+    }
+
+    /**
+     * Gets the shared empty input.
+     *
+     * @return an input without any lines
+     */
+    public static MappedInput empty() {
+        return EMPTY;
+    }
+
+    /**
+     * Memory-maps the given file read-only and indexes its lines.
+     *
+     * @param path the file to map
+     * @return the indexed input
+     * @throws IOException if the file cannot be opened or is too large to be mapped as one buffer
+     */
+    public static MappedInput map(final Path path) throws IOException {
+        return index(mapFile(path));
+    }
+
+    /**
+     * Memory-maps the given file read-only without indexing it.
+     *
+     * @param path the file to map
+     * @return the mapped content
+     * @throws IOException if the file cannot be opened or is too large to be mapped as one buffer
+     */
+    static ByteBuffer mapFile(final Path path) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final long size = channel.size();
+            if (size > Integer.MAX_VALUE) {
+                throw new IOException(String.format("File %1$s is too large to be mapped (%2$d bytes)", path, size));
+            }
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+    }
+
+    /**
+     * Wraps the given bytes without copying them and indexes their lines.
+     *
+     * @param data the complete file content
+     * @return the indexed input
+     */
+    public static MappedInput wrap(final byte[] data) {
+        return index(ByteBuffer.wrap(data));
+    }
+
+    /**
+     * Creates an input from a buffer and a line index that was built earlier, e.g. one loaded from the
+     * {@link InputCache}.
+     *
+     * @param buffer     the buffer holding the file content
+     * @param lineStarts the start offsets of the lines
+     * @param lineEnds   the end offsets of the lines
+     * @return the indexed input
+     */
+    static MappedInput of(final ByteBuffer buffer, final int[] lineStarts, final int[] lineEnds) {
+        return new MappedInput(buffer, lineStarts, lineEnds, lineStarts.length);
+    }
+
+    /**
+     * Builds the line index for the given buffer in a single pass. The line terminators are located with the
+     * {@link ByteScanner} bulk kernel, which compares a full vector of bytes per step where available.
+     *
+     * @param buffer the buffer to index, positioned at zero
+     * @return the indexed input
+     */
+    static MappedInput index(final ByteBuffer buffer) {
+        final int limit = buffer.limit();
+        if (limit == 0) {
+            return EMPTY;
+        }
+        final LineIndexer indexer = new LineIndexer(buffer, Math.max(64, Math.min(limit >>> 6, 1 << 16)));
+        ByteScanner.forEachIndexOfAny(buffer, 0, limit, (byte) '\n', (byte) '\r', indexer);
+        return indexer.finish(limit);
+    }
+
+    /**
+     * Gets the number of lines in the input.
+     *
+     * @return the line count
+     */
+    public int lineCount() {
+        return this.lineCount;
+    }
+
+    /**
+     * Gets the total number of bytes in the input, including line terminators.
+     *
+     * @return the input size in bytes
+     */
+    public int size() {
+        return this.buffer.limit();
+    }
+
+    /**
+     * Gets the offset of the first byte of the given line.
+     *
+     * @param line the zero-based line number
+     * @return the start offset into the buffer
+     */
+    public int lineStart(final int line) {
+        return this.lineStarts[checkLine(line)];
+    }
+
+    /**
+     * Gets the offset one past the last byte of the given line, excluding the line terminator.
+     *
+     * @param line the zero-based line number
+     * @return the exclusive end offset into the buffer
+     */
+    public int lineEnd(final int line) {
+        return this.lineEnds[checkLine(line)];
+    }
+
+    /**
+     * Gets the length of the given line, excluding the line terminator.
+     *
+     * @param line the zero-based line number
+     * @return the line length in bytes
+     */
+    public int lineLength(final int line) {
+        return this.lineEnds[checkLine(line)] - this.lineStarts[line];
+    }
+
+    /**
+     * Gets the byte at the given absolute offset of the buffer.
+     *
+     * @param offset the offset into the buffer
+     * @return the byte at the offset
+     */
+    public byte byteAt(final int offset) {
+        return this.buffer.get(offset);
+    }
+
+    /**
+     * Gets the byte at the given column of the given line.
+     *
+     * @param line   the zero-based line number
+     * @param column the zero-based column within the line
+     * @return the byte at the position
+     */
+    public byte byteAt(final int line, final int column) {
+        return this.buffer.get(lineStart(line) + column);
+    }
+
+    /**
+     * Gets a read-only view of the whole buffer, for callers that want to run their own scans.
+     * The returned buffer has its own position and limit, so it can be used independently.
+     *
+     * @return a read-only duplicate of the backing buffer
+     */
+    public ByteBuffer buffer() {
+        return this.buffer.duplicate();
+    }
+
+    /**
+     * Gets the shared backing buffer without duplicating it. Only absolute reads may be used on it,
+     * so that it can be shared between threads.
+     *
+     * @return the read-only backing buffer
+     */
+    ByteBuffer data() {
+        return this.buffer;
+    }
+
+    /**
+     * Gets the start offsets of all lines, trimmed to the line count.
+     *
+     * @return a copy of the start offsets
+     */
+    int[] lineStarts() {
+        return Arrays.copyOf(this.lineStarts, this.lineCount);
+    }
+
+    /**
+     * Gets the end offsets of all lines, trimmed to the line count.
+     *
+     * @return a copy of the end offsets
+     */
+    int[] lineEnds() {
+        return Arrays.copyOf(this.lineEnds, this.lineCount);
+    }
+
+    /**
+     * Gets a key identifying the content of this input: a 64-bit hash of all bytes together with the size.
+     * Inputs with identical content, such as a {@code problem1.input} and {@code problem2.input} that were
+     * copied from the same puzzle, share the same key. The hash is computed once, on first use.
+     *
+     * @return the content key
+     */
+    public String contentKey() {
+        String key = this.contentKey;
+        if (key == null) {
+            key = contentKey(this.buffer);
+            this.contentKey = key;
+        }
+        return key;
+    }
+
+    /**
+     * Computes the content key of a buffer, as returned by {@link #contentKey()}.
+     *
+     * @param data the buffer to hash, read with absolute gets
+     * @return the content key
+     */
+    static String contentKey(final ByteBuffer data) {
+        return contentKey(hash(data), data.limit());
+    }
+
+    /**
+     * Formats a content key from its parts.
+     *
+     * @param hash the 64-bit hash of the content
+     * @param size the size of the content in bytes
+     * @return the content key
+     */
+    static String contentKey(final long hash, final int size) {
+        return String.format("%1$016x-%2$d", hash, size);
+    }
+
+    /**
+     * Sets the content key when it is already known, so it is not computed again.
+     *
+     * @param key the content key of this input
+     */
+    void presetContentKey(final String key) {
+        this.contentKey = key;
+    }
+
+    /**
+     * Checks whether the input was read through the {@link InputCache}.
+     *
+     * @return {@code true} if the cache also keeps the parsed forms of this input
+     */
+    boolean isCached() {
+        return this.cached;
+    }
+
+    /**
+     * Marks the input as read through the {@link InputCache}. The shared empty input is never marked.
+     */
+    void markCached() {
+        if (this != EMPTY) {
+            this.cached = true;
+        }
+    }
+
+    /**
+     * Computes a 64-bit hash over the whole buffer, eight bytes at a time.
+     *
+     * @param data the buffer to hash, read with absolute gets
+     * @return the hash of the content
+     */
+    private static long hash(final ByteBuffer data) {
+        final int limit = data.limit();
+        long hash = 0x9E3779B97F4A7C15L ^ limit;
+        int i = 0;
+        for (; i + Long.BYTES <= limit; i += Long.BYTES) {
+            hash = Long.rotateLeft(hash ^ data.getLong(i) * 0xC2B2AE3D27D4EB4FL, 31) * 0x9E3779B185EBCA87L;
+        }
+        for (; i < limit; i++) {
+            hash = Long.rotateLeft(hash ^ (data.get(i) & 0xFFL) * 0x27D4EB2F165667C5L, 11) * 0x9E3779B185EBCA87L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xFF51AFD7ED558CCDL;
+        return hash ^ hash >>> 33;
+    }
+
+    /**
+     * Copies the given line into a new byte array.
+     *
+     * @param line the zero-based line number
+     * @return the bytes of the line, excluding the line terminator
+     */
+    public byte[] copyLine(final int line) {
+        final byte[] data = new byte[lineLength(line)];
+        this.buffer.get(this.lineStarts[line], data);
+        return data;
+    }
+
+    /**
+     * Gets a list view of the lines as byte arrays. Each element is copied out of the buffer
+     * when it is accessed, so this view is only meant for callers that still need {@code byte[]} lines.
+     *
+     * @return an unmodifiable random-access list of the lines
+     */
+    public List<byte[]> asByteLines() {
+        return new ByteLineList();
+    }
+
+    /**
+     * Checks that the given line number is within the index.
+     *
+     * @param line the line number to check
+     * @return the line number
+     */
+    private int checkLine(final int line) {
+        if (line < 0 || line >= this.lineCount) {
+            throw new IndexOutOfBoundsException(String.format("Line %1$d out of range [0, %2$d)", line,
+                    this.lineCount));
+        }
+        return line;
+    }
+
+    /**
+     * The {@code LineIndexer} class collects the line offsets from the positions of the line terminators, which
+     * arrive in ascending order. A {@code \r} directly followed by {@code \n} ends a single line.
+     */
+    private static final class LineIndexer implements IntConsumer {
+
+        /** The buffer being indexed. */
+        private final ByteBuffer buffer;
+
+        /** The start offsets collected so far. */
+        private int[] starts;
+
+        /** The end offsets collected so far. */
+        private int[] ends;
+
+        /** The number of lines collected so far. */
+        private int count;
+
+        /** The start of the current line. */
+        private int lineStart;
+
+        /**
+         * Constructs a LineIndexer.
+         *
+         * @param buffer   the buffer being indexed
+         * @param capacity the initial number of lines to reserve room for
+         */
+        private LineIndexer(final ByteBuffer buffer, final int capacity) {
+            this.buffer = buffer;
+            this.starts = new int[capacity];
+            this.ends = new int[capacity];
+        }
+
+        @Override
+        public void accept(final int terminator) {
+            if (terminator < this.lineStart) {
+                return;
+            }
+            add(this.lineStart, terminator);
+            this.lineStart = terminator + 1;
+            if (this.buffer.get(terminator) == '\r' && terminator + 1 < this.buffer.limit()
+                    && this.buffer.get(terminator + 1) == '\n') {
+                this.lineStart++;
+            }
+        }
+
+        /**
+         * Adds the last line if the input does not end with a terminator and creates the input.
+         *
+         * @param limit the size of the buffer
+         * @return the indexed input
+         */
+        private MappedInput finish(final int limit) {
+            if (this.lineStart < limit) {
+                add(this.lineStart, limit);
+            }
+            return new MappedInput(this.buffer, this.starts, this.ends, this.count);
+        }
+
+        /**
+         * Adds a line, growing the offset arrays when they are full.
+         *
+         * @param start the start offset of the line
+         * @param end   the end offset of the line
+         */
+        private void add(final int start, final int end) {
+            if (this.count == this.starts.length) {
+                this.starts = Arrays.copyOf(this.starts, this.count * 2);
+                this.ends = Arrays.copyOf(this.ends, this.count * 2);
+            }
+            this.starts[this.count] = start;
+            this.ends[this.count] = end;
+            this.count++;
+        }
+    }
+
+    /**
+     * The {@code ByteLineList} class is a lazily copying list view over the lines of the input.
+     */
+    private final class ByteLineList extends AbstractList<byte[]> implements RandomAccess {
+
+        @Override
+        public byte[] get(final int index) {
+            return copyLine(index);
+        }
+
+        @Override
+        public int size() {
+            return lineCount;
+        }
+    }
+}
@@ -6,7 +6,11 @@ import java.io.BufferedWriter;
 import java.io.File;
 import java.io.FileWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 
+import com.ashley_eve.Part;
+import com.ashley_eve.metrics.SolutionWriteEvent;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 
@@ -23,6 +27,10 @@ import org.apache.logging.log4j.Logger;
  *   <li>Automatic directory creation if it does not exist.</li>
  *   <li>Customizable file naming based on problem numbers.</li>
  *   <li>Logging for key operations such as file and directory creation, and data writing.</li>
+ *   <li>An optional asynchronous mode, enabled through {@link #enableAsync()}, that hands every write to a
+ *   single background I/O thread. That thread writes in batches through a temporary file that is atomically
+ *   renamed into place, and skips files whose content is unchanged. {@link #flush()} waits for all pending
+ *   writes.</li>
  * </ul>
  * </p>
  *
@@ -37,6 +45,8 @@ public class SolutionWriter {
     /** Static class logger. */
     private static final Logger LOG = LogManager.getLogger(SolutionWriter.class);
 
+    /** The background writer of the asynchronous mode, {@code null} while writes are synchronous. */
+    private static BatchedFileWriter asyncWriter;
 
     /**
      * Private empty constructor to prevent instantiation.
@@ -44,6 +54,40 @@ public class SolutionWriter {
     private SolutionWriter() {
     }
 
+    /**
+     * Switches to the asynchronous mode: from now on every write is queued for a single background I/O
+     * thread and the calling thread returns immediately. Pending writes are flushed on JVM shutdown.
+     * Calling this method again has no effect.
+     */
+    public static synchronized void enableAsync() {
+        if (asyncWriter == null) {
+            final BatchedFileWriter writer = new BatchedFileWriter();
+            Runtime.getRuntime().addShutdownHook(new Thread(writer::shutdown, "solution-writer-shutdown"));
+            asyncWriter = writer;
+            LOG.debug("Enabled asynchronous solution writes");
+        }
+    }
+
+    /**
+     * Blocks until every write queued in the asynchronous mode has reached the disk.
+     * Does nothing in the synchronous mode.
+     */
+    public static void flush() {
+        final BatchedFileWriter writer = currentAsyncWriter();
+        if (writer != null) {
+            writer.flush();
+        }
+    }
+
+    /**
+     * Gets the background writer of the asynchronous mode.
+     *
+     * @return the writer, or {@code null} while writes are synchronous
+     */
+    private static synchronized BatchedFileWriter currentAsyncWriter() {
+        return asyncWriter;
+    }
+
     /**
      * The SolutionWriter class is responsible for writing solution data to files.
      * It supports writing data associated with specific day and problem numbers.
@@ -100,11 +144,89 @@ public class SolutionWriter {
         }
         final String formattedFilename = format("solutions/day%1$d/%2$s", dayNumber, solutionFileName);
 
-        final File directory = new File(format("solutions/day%1$d", dayNumber));
+        writeFile(new File(format("solutions/day%1$d", dayNumber)), formattedFilename, data, dayNumber,
+                problemNumber);
+    }
+
+    /**
+     * Writes the solution for one input of a batch run into a directory named after that input, so that the
+     * answers of every input of a corpus are kept apart (e.g. "solutions/day1/corpus-0001/solution1.output").
+     *
+     * @param dayNumber     the day number to organize the solution file (e.g., 1 for day1)
+     * @param inputName     the name of the input, used as directory name
+     * @param problemNumber the problem number to include in the file name (0 to use the default "test.output")
+     * @param data          the solution data to write to the file
+     */
+    public static void writeBatchSolutionToFile(final int dayNumber, final String inputName, final int problemNumber,
+                                                final String data) {
+        final String solutionFileName = problemNumber == 0 ? "test.output"
+                : format("solution%1$d.output", problemNumber);
+        final String directory = format("solutions/day%1$d/%2$s", dayNumber, inputName);
+        writeFile(new File(directory), format("%1$s/%2$s", directory, solutionFileName), data, dayNumber,
+                problemNumber);
+    }
+
+    /**
+     * Writes a run report, such as the metrics of a run, directly into the "solutions/" directory.
+     *
+     * <p>Example usage:
+     * <pre>{@code
+     * SolutionWriter.writeReportToFile("metrics.json", metrics.toJson());
+     * }</pre>
+     * </p>
+     *
+     * @param fileName the name of the report file inside "solutions/"
+     * @param data     the report content to write to the file
+     */
+    public static void writeReportToFile(final String fileName, final String data) {
+        writeFile(new File("solutions"), format("solutions/%1$s", fileName), data, 0, -1);
+    }
+
+    /**
+     * Writes data to a file and records the write as a {@link SolutionWriteEvent} for Java Flight Recorder.
+     *
+     * @param directory         the directory holding the file
+     * @param formattedFilename the path of the file to write
+     * @param data              the data to write to the file
+     * @param dayNumber         the day the data belongs to, {@code 0} for reports
+     * @param problemNumber     the problem number the data belongs to, {@code -1} for reports
+     */
+    private static void writeFile(final File directory, final String formattedFilename, final String data,
+                                  final int dayNumber, final int problemNumber) {
+        final SolutionWriteEvent event = new SolutionWriteEvent();
+        event.begin();
+        final boolean async = writeFile(directory, formattedFilename, data);
+        event.end();
+        if (event.shouldCommit()) {
+            event.day = dayNumber;
+            event.part = problemNumber < 0 ? null : Part.of(problemNumber).name();
+            event.file = formattedFilename;
+            event.bytes = data.getBytes(StandardCharsets.UTF_8).length;
+            event.async = async;
+            event.commit();
+        }
+    }
+
+    /**
+     * Writes data to a file, creating its directory and the file itself if they do not exist.
+     * In the asynchronous mode the write is queued for the background writer instead.
+     *
+     * @param directory         the directory holding the file
+     * @param formattedFilename the path of the file to write
+     * @param data              the data to write to the file
+     * @return {@code true} if the write was queued for the background writer
+     */
+    private static boolean writeFile(final File directory, final String formattedFilename, final String data) {
+        final BatchedFileWriter backgroundWriter = currentAsyncWriter();
+        if (backgroundWriter != null) {
+            LOG.trace(() -> format("Queued solution for file: %1$s", formattedFilename));
+            backgroundWriter.submit(Path.of(formattedFilename), data);
+            return true;
+        }
         if (directory.mkdirs()) {
-            LOG.debug(() -> format("Created directory: day%1$d", dayNumber));
+            LOG.debug(() -> format("Created directory: %1$s", directory.getName()));
         } else {
-            LOG.trace(() -> format("Skipped making directory: day%1$d", dayNumber));
+            LOG.trace(() -> format("Skipped making directory: %1$s", directory.getName()));
         }
 
         final File file = new File(formattedFilename);
@@ -118,11 +240,13 @@ public class SolutionWriter {
             }
         }
         LOG.debug(() -> format("Formatted filename: %1$s", formattedFilename));
-        try (BufferedWriter writer = new BufferedWriter(new FileWriter(formattedFilename))) {
+        try (BufferedWriter writer = new BufferedWriter(new FileWriter(formattedFilename,
+                StandardCharsets.UTF_8))) {
             LOG.debug(() -> format("Writing solution to file: %1$s", data));
             writer.write(data);
         } catch (final IOException e) {
             LOG.warn(() -> format("Failed to write solution to file. %1$s", e.getMessage()));
         }
+        return false;
     }
 }
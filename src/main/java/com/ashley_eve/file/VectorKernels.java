@@ -0,0 +1,166 @@
+package com.ashley_eve.file;
+
+import java.util.function.IntConsumer;
+
+import jdk.incubator.vector.ByteVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+
+/**
+ * The {@code VectorKernels} class holds the SIMD implementations behind {@link ByteScanner}, built on the
+ * incubating Vector API. It is only loaded when {@link ByteScanner} has found the {@code jdk.incubator.vector}
+ * module, so the rest of the application runs unchanged without it.
+ *
+ * <p>Every kernel compares a full vector of bytes per step and finishes the range with a scalar tail.
+ */
+final class VectorKernels {
+
+    /** The widest byte species of the platform whose masks still fit into a {@code long}. */
+    private static final VectorSpecies<Byte> SPECIES = ByteVector.SPECIES_PREFERRED.length() <= Long.SIZE
+            ? ByteVector.SPECIES_PREFERRED : ByteVector.SPECIES_512;
+
+    /** The number of bytes compared per step. */
+    static final int LENGTH = SPECIES.length();
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private VectorKernels() {
+    }
+
+    /**
+     * Finds the first occurrence of a byte.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param value the byte to find
+     * @return the index of the byte, or {@code -1} if it does not occur
+     */
+    static int indexOf(final byte[] data, final int from, final int to, final byte value) {
+        int i = from;
+        for (final int bound = to - LENGTH; i <= bound; i += LENGTH) {
+            final VectorMask<Byte> mask = ByteVector.fromArray(SPECIES, data, i).eq(value);
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (data[i] == value) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of either of two bytes.
+     *
+     * @param data   the bytes to scan
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param first  the first byte to find
+     * @param second the second byte to find
+     * @return the index of the first match, or {@code -1} if neither byte occurs
+     */
+    static int indexOfAny(final byte[] data, final int from, final int to, final byte first, final byte second) {
+        int i = from;
+        for (final int bound = to - LENGTH; i <= bound; i += LENGTH) {
+            final ByteVector vector = ByteVector.fromArray(SPECIES, data, i);
+            final VectorMask<Byte> mask = vector.eq(first).or(vector.eq(second));
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if (data[i] == first || data[i] == second) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the occurrences of a byte.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param value the byte to count
+     * @return the number of occurrences
+     */
+    static int count(final byte[] data, final int from, final int to, final byte value) {
+        int count = 0;
+        int i = from;
+        for (final int bound = to - LENGTH; i <= bound; i += LENGTH) {
+            count += ByteVector.fromArray(SPECIES, data, i).eq(value).trueCount();
+        }
+        for (; i < to; i++) {
+            if (data[i] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first byte that is an ASCII digit, or the first one that is not.
+     *
+     * @param data  the bytes to scan
+     * @param from  the first index to scan
+     * @param to    the index after the last one to scan
+     * @param digit {@code true} to find a digit, {@code false} to find a non-digit
+     * @return the index of the match, or {@code -1} if there is none
+     */
+    static int indexOfDigit(final byte[] data, final int from, final int to, final boolean digit) {
+        int i = from;
+        for (final int bound = to - LENGTH; i <= bound; i += LENGTH) {
+            final ByteVector vector = ByteVector.fromArray(SPECIES, data, i);
+            VectorMask<Byte> mask = vector.compare(VectorOperators.GE, (byte) '0')
+                    .and(vector.compare(VectorOperators.LE, (byte) '9'));
+            if (!digit) {
+                mask = mask.not();
+            }
+            if (mask.anyTrue()) {
+                return i + mask.firstTrue();
+            }
+        }
+        for (; i < to; i++) {
+            if ((data[i] >= '0' && data[i] <= '9') == digit) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Reports every occurrence of either of two bytes, in ascending order.
+     *
+     * @param data   the bytes to scan
+     * @param from   the first index to scan
+     * @param to     the index after the last one to scan
+     * @param offset added to every reported index
+     * @param first  the first byte to find
+     * @param second the second byte to find
+     * @param action receives the index of every match plus the offset
+     */
+    static void forEachIndexOfAny(final byte[] data, final int from, final int to, final int offset,
+                                  final byte first, final byte second, final IntConsumer action) {
+        int i = from;
+        for (final int bound = to - LENGTH; i <= bound; i += LENGTH) {
+            final ByteVector vector = ByteVector.fromArray(SPECIES, data, i);
+            long bits = vector.eq(first).or(vector.eq(second)).toLong();
+            while (bits != 0) {
+                action.accept(offset + i + Long.numberOfTrailingZeros(bits));
+                bits &= bits - 1;
+            }
+        }
+        for (; i < to; i++) {
+            if (data[i] == first || data[i] == second) {
+                action.accept(offset + i);
+            }
+        }
+    }
+}
@@ -0,0 +1,82 @@
+package com.ashley_eve.metrics;
+
+import static java.lang.String.format;
+
+import java.lang.management.ManagementFactory;
+
+
+/**
+ * The {@code AllocationGuard} class checks that a steady-state hot path does not allocate on the heap. It counts
+ * the bytes the calling thread allocates while running an action, using the per-thread allocation counter of
+ * {@link com.sun.management.ThreadMXBean}, after running the action a number of times so that class loading, lazy
+ * initialisation and arenas warming up are not counted.
+ *
+ * <p>The counter is not available on virtual threads; the check must run on a platform thread.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * AllocationGuard.assertNoAllocation(() -> day.solvePart(Part.ONE), 50, 0);
+ * }</pre>
+ */
+public final class AllocationGuard {
+
+    /** Per-thread allocation counters. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private AllocationGuard() {
+    }
+
+    /**
+     * Gets the number of bytes the calling thread has allocated so far. Two readings taken around a piece of
+     * code give the bytes that code allocated.
+     *
+     * @return the allocated bytes, or {@code -1} if the counter is not available on this thread
+     */
+    public static long currentThreadAllocatedBytes() {
+        if (THREADS.isThreadAllocatedMemorySupported() && !THREADS.isThreadAllocatedMemoryEnabled()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        return THREADS.getCurrentThreadAllocatedBytes();
+    }
+
+    /**
+     * Measures the bytes allocated by the calling thread while running an action once.
+     *
+     * @param action the action to measure
+     * @return the allocated bytes, or {@code -1} if the counter is not available on this thread
+     */
+    public static long allocatedBytes(final Runnable action) {
+        final long before = currentThreadAllocatedBytes();
+        action.run();
+        final long after = currentThreadAllocatedBytes();
+        return before < 0 || after < 0 ? -1 : after - before;
+    }
+
+    /**
+     * Runs an action for a number of warmup iterations and then asserts that one more run allocates at most the
+     * given number of bytes.
+     *
+     * @param action        the hot path to check
+     * @param warmup        the number of unmeasured runs before the check
+     * @param maxAllocation the largest number of bytes the measured run may allocate
+     * @throws AssertionError        if the measured run allocated more than allowed
+     * @throws IllegalStateException if allocations cannot be counted on the calling thread
+     */
+    public static void assertNoAllocation(final Runnable action, final int warmup, final long maxAllocation) {
+        for (int i = 0; i < warmup; i++) {
+            action.run();
+        }
+        final long allocated = allocatedBytes(action);
+        if (allocated < 0) {
+            throw new IllegalStateException("Allocations cannot be counted on this thread");
+        }
+        if (allocated > maxAllocation) {
+            throw new AssertionError(format("Hot path allocated %1$d bytes after %2$d warmup runs, at most %3$d "
+                    + "allowed", allocated, warmup, maxAllocation));
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package com.ashley_eve.metrics;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.ParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import jdk.jfr.Configuration;
+import jdk.jfr.Recording;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code DayRecorder} class starts a Java Flight Recorder recording for each selected day and dumps it to
+ * {@code solutions/dayN/dayN.jfr} once the last task of the day has finished.
+ *
+ * <p>A recording covers the whole JVM for as long as the day has tasks running, so when days run concurrently
+ * it also holds the activity of the other days; the {@link InputReadEvent}, {@link SolvePartEvent} and
+ * {@link SolutionWriteEvent} events carry the day and part, so they can be told apart in JDK Mission Control.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * DayRecorder recorder = new DayRecorder(Set.of(1), "profile");
+ * recorder.begin(1, 3);
+ * // ... every task of day 1 calls recorder.taskFinished(1) when done
+ * }</pre>
+ */
+public class DayRecorder {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(DayRecorder.class);
+
+    /** The days that are recorded. */
+    private final Set<Integer> days;
+
+    /** The name of the JFR settings, {@code default} or {@code profile}. */
+    private final String settings;
+
+    /** The running recording of every day. */
+    private final Map<Integer, Recording> recordings = new ConcurrentHashMap<>();
+
+    /** The number of unfinished tasks of every recorded day. */
+    private final Map<Integer, AtomicInteger> pendingTasks = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a DayRecorder.
+     *
+     * @param days     the days to record, empty to record none
+     * @param settings the name of the JFR settings, {@code default} for a low overhead or {@code profile} for
+     *                 more detail
+     */
+    public DayRecorder(final Set<Integer> days, final String settings) {
+        this.days = Set.copyOf(days);
+        this.settings = settings;
+    }
+
+    /**
+     * Starts the recording of a day, if the day is selected, before its tasks are started.
+     *
+     * @param day   the day number
+     * @param tasks the number of tasks of the day
+     */
+    public void begin(final int day, final int tasks) {
+        if (!this.days.contains(day) || tasks == 0) {
+            return;
+        }
+        try {
+            final Recording recording = new Recording(Configuration.getConfiguration(this.settings));
+            recording.setName(format("day%1$d", day));
+            this.pendingTasks.put(day, new AtomicInteger(tasks));
+            this.recordings.put(day, recording);
+            recording.start();
+            LOG.debug(() -> format("Started %1$s recording of day%2$d", this.settings, day));
+        } catch (final IOException | ParseException e) {
+            LOG.warn(() -> format("Failed to start recording of day%1$d: %2$s", day, e.getMessage()));
+        }
+    }
+
+    /**
+     * Marks one task of a day as finished and dumps the recording of the day after its last task.
+     *
+     * @param day the day number
+     */
+    public void taskFinished(final int day) {
+        final AtomicInteger pending = this.pendingTasks.get(day);
+        if (pending == null || pending.decrementAndGet() > 0) {
+            return;
+        }
+        final Recording recording = this.recordings.remove(day);
+        if (recording == null) {
+            return;
+        }
+        final Path file = Path.of(format("solutions/day%1$d/day%1$d.jfr", day));
+        try (recording) {
+            recording.stop();
+            Files.createDirectories(file.getParent());
+            recording.dump(file);
+            LOG.info(() -> format("Wrote flight recording %1$s", file.toAbsolutePath()));
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to write flight recording %1$s: %2$s", file, e.getMessage()));
+        }
+    }
+}
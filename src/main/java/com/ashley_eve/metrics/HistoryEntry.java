@@ -0,0 +1,74 @@
+package com.ashley_eve.metrics;
+
+import static java.lang.String.format;
+
+import com.ashley_eve.Part;
+
+/**
+ * The {@code HistoryEntry} record is one line of the performance history: the cost of one phase of one part in
+ * one run, together with the peak heap usage of the whole run and the revision of the code that was run. All
+ * entries of a run share its start time, which identifies the run.
+ *
+ * @param runStartedAt   the start of the run, in ISO-8601 form
+ * @param revision       the revision of the code that was run, or {@code unknown}
+ * @param day            the day number
+ * @param part           the part that was run
+ * @param phase          the measured phase
+ * @param wallNanos      the elapsed wall-clock time in nanoseconds
+ * @param cpuNanos       the CPU time of the running thread in nanoseconds, or {@code -1}
+ * @param allocatedBytes the bytes allocated by the running thread, or {@code -1}
+ * @param peakHeapBytes  the peak heap usage of the whole run in bytes
+ */
+public record HistoryEntry(String runStartedAt, String revision, int day, Part part, Phase phase, long wallNanos,
+                           long cpuNanos, long allocatedBytes, long peakHeapBytes) {
+
+    /** The header line of the history file, naming the columns of {@link #toCsv()}. */
+    public static final String CSV_HEADER =
+            "runStartedAt,revision,day,part,phase,wallNanos,cpuNanos,allocatedBytes,peakHeapBytes";
+
+    /**
+     * Creates the entry of a measured phase.
+     *
+     * @param runStartedAt  the start of the run
+     * @param revision      the revision of the code that was run
+     * @param metric        the measured phase
+     * @param peakHeapBytes the peak heap usage of the run
+     * @return the history entry
+     */
+    public static HistoryEntry of(final String runStartedAt, final String revision, final PhaseMetric metric,
+                                  final long peakHeapBytes) {
+        return new HistoryEntry(runStartedAt, revision, metric.day(), metric.part(), metric.phase(),
+                metric.wallNanos(), metric.cpuNanos(), metric.allocatedBytes(), peakHeapBytes);
+    }
+
+    /**
+     * Parses a line written by {@link #toCsv()}.
+     *
+     * @param line the CSV line
+     * @return the history entry
+     * @throws IllegalArgumentException if the line is malformed
+     */
+    public static HistoryEntry parse(final String line) {
+        final String[] fields = line.split(",", -1);
+        if (fields.length != 9) {
+            throw new IllegalArgumentException(format("Expected 9 fields in history line: %1$s", line));
+        }
+        try {
+            return new HistoryEntry(fields[0], fields[1], Integer.parseInt(fields[2]), Part.valueOf(fields[3]),
+                    Phase.valueOf(fields[4]), Long.parseLong(fields[5]), Long.parseLong(fields[6]),
+                    Long.parseLong(fields[7]), Long.parseLong(fields[8]));
+        } catch (final NumberFormatException e) {
+            throw new IllegalArgumentException(format("Malformed history line: %1$s", line), e);
+        }
+    }
+
+    /**
+     * Renders the entry as one CSV line without a line separator.
+     *
+     * @return the CSV line
+     */
+    public String toCsv() {
+        return format("%1$s,%2$s,%3$d,%4$s,%5$s,%6$d,%7$d,%8$d,%9$d", this.runStartedAt, this.revision, this.day,
+                this.part, this.phase, this.wallNanos, this.cpuNanos, this.allocatedBytes, this.peakHeapBytes);
+    }
+}
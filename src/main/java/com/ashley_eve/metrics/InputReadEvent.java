@@ -0,0 +1,45 @@
+package com.ashley_eve.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The {@code InputReadEvent} class is the Java Flight Recorder event for reading and indexing one input file.
+ * It is committed by {@link com.ashley_eve.file.InputReader} every time an input is loaded.
+ */
+@Name("com.ashley_eve.InputRead")
+@Label("Input Read")
+@Category({"Advent of Code", "Input"})
+@Description("Reading and line-indexing of one input file")
+public class InputReadEvent extends Event {
+
+    /** The day the input belongs to, {@code 0} if unknown. */
+    @Label("Day")
+    public int day;
+
+    /** The part the input belongs to. */
+    @Label("Part")
+    public String part;
+
+    /** The file that was read. */
+    @Label("File")
+    public String file;
+
+    /** The size of the input. */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /** The number of lines of the input. */
+    @Label("Lines")
+    public int lines;
+
+    /** Whether the file was memory-mapped. */
+    @Label("Memory Mapped")
+    public boolean memoryMapped;
+}
@@ -0,0 +1,13 @@
+package com.ashley_eve.metrics;
+
+/**
+ * The {@code Phase} enum lists the measured phases of running one part of a day.
+ */
+public enum Phase {
+    /** Reading and indexing the input file. */
+    READ,
+    /** Solving the part on its loaded input. */
+    SOLVE,
+    /** Writing the answer through the {@link com.ashley_eve.file.SolutionWriter}. */
+    WRITE
+}
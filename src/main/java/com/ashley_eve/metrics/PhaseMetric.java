@@ -0,0 +1,18 @@
+package com.ashley_eve.metrics;
+
+import com.ashley_eve.Part;
+
+/**
+ * The {@code PhaseMetric} record holds the cost of one phase of one part of a day.
+ * CPU time and allocated bytes are {@code -1} when the JVM cannot measure them for the running thread,
+ * which is the case for virtual threads.
+ *
+ * @param day            the day number
+ * @param part           the part that was run
+ * @param phase          the measured phase
+ * @param wallNanos      the elapsed wall-clock time in nanoseconds
+ * @param cpuNanos       the CPU time of the running thread in nanoseconds, or {@code -1}
+ * @param allocatedBytes the bytes allocated by the running thread, or {@code -1}
+ */
+public record PhaseMetric(int day, Part part, Phase phase, long wallNanos, long cpuNanos, long allocatedBytes) {
+}
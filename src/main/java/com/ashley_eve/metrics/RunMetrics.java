@@ -0,0 +1,247 @@
+package com.ashley_eve.metrics;
+
+import static java.lang.String.format;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.time.Instant;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.Supplier;
+
+import com.ashley_eve.Part;
+
+
+/**
+ * The {@code RunMetrics} class records the wall time, CPU time and allocated bytes of every phase of every
+ * part that is run. Measurements are taken on the thread running the phase, using the per-thread CPU and
+ * allocation counters of {@link com.sun.management.ThreadMXBean}, so parts running concurrently do not
+ * distort each other's numbers.
+ *
+ * <p>The JVM does not track CPU time or allocations for virtual threads, so the {@code DayScheduler} runs measured
+ * tasks on a {@code forkjoin} executor unless {@code scheduler.executor=virtual} is set explicitly; on virtual
+ * threads they are reported as unavailable.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * RunMetrics metrics = new RunMetrics(true);
+ * String answer = metrics.measure(1, Part.ONE, Phase.SOLVE, () -> day.solvePart(Part.ONE));
+ * LOG.info(metrics.summary());
+ * }</pre>
+ */
+public class RunMetrics {
+
+    /** Shared instance that runs phases without measuring them. */
+    private static final RunMetrics DISABLED = new RunMetrics(false);
+
+    /** Per-thread CPU and allocation counters. */
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    /** Whether phases are measured. */
+    private final boolean enabled;
+
+    /** The recorded measurements. */
+    private final Queue<PhaseMetric> metrics = new ConcurrentLinkedQueue<>();
+
+    /** The time at which recording started. */
+    private final Instant startedAt = Instant.now();
+
+    /**
+     * Constructs a RunMetrics.
+     *
+     * @param enabled {@code true} to measure phases, {@code false} to only run them
+     */
+    public RunMetrics(final boolean enabled) {
+        this.enabled = enabled;
+        if (enabled && THREADS.isThreadAllocatedMemorySupported()) {
+            THREADS.setThreadAllocatedMemoryEnabled(true);
+        }
+        if (enabled && THREADS.isCurrentThreadCpuTimeSupported()) {
+            THREADS.setThreadCpuTimeEnabled(true);
+        }
+    }
+
+    /**
+     * Gets a shared instance that runs phases without measuring them.
+     *
+     * @return the disabled metrics
+     */
+    public static RunMetrics disabled() {
+        return DISABLED;
+    }
+
+    /**
+     * Resets the peak usage of all heap memory pools, so that {@link #peakHeapBytes()} measures from now on.
+     */
+    public static void resetPeakHeap() {
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                pool.resetPeakUsage();
+            }
+        }
+    }
+
+    /**
+     * Sums the peak usage of all heap memory pools since the last reset.
+     *
+     * @return the peak heap usage in bytes
+     */
+    public static long peakHeapBytes() {
+        long peak = 0;
+        for (final MemoryPoolMXBean pool : ManagementFactory.getMemoryPoolMXBeans()) {
+            if (pool.getType() == MemoryType.HEAP) {
+                peak += pool.getPeakUsage().getUsed();
+            }
+        }
+        return peak;
+    }
+
+    /**
+     * Checks whether phases are measured.
+     *
+     * @return {@code true} if measurements are recorded
+     */
+    public boolean isEnabled() {
+        return this.enabled;
+    }
+
+    /**
+     * Gets the time at which recording started, which identifies the run.
+     *
+     * @return the start of the run
+     */
+    public Instant getStartedAt() {
+        return this.startedAt;
+    }
+
+    /**
+     * Runs and measures a phase that produces a value.
+     *
+     * @param day    the day number
+     * @param part   the part being run
+     * @param phase  the phase being run
+     * @param action the phase itself
+     * @param <T>    the type of the produced value
+     * @return the value produced by the phase
+     */
+    public <T> T measure(final int day, final Part part, final Phase phase, final Supplier<T> action) {
+        if (!this.enabled) {
+            return action.get();
+        }
+        final long cpuStart = THREADS.getCurrentThreadCpuTime();
+        final long allocatedStart = THREADS.getCurrentThreadAllocatedBytes();
+        final long wallStart = System.nanoTime();
+        try {
+            return action.get();
+        } finally {
+            final long wallNanos = System.nanoTime() - wallStart;
+            final long cpuEnd = THREADS.getCurrentThreadCpuTime();
+            final long allocatedEnd = THREADS.getCurrentThreadAllocatedBytes();
+            this.metrics.add(new PhaseMetric(day, part, phase, wallNanos, difference(cpuStart, cpuEnd),
+                    difference(allocatedStart, allocatedEnd)));
+        }
+    }
+
+    /**
+     * Runs and measures a phase that produces no value.
+     *
+     * @param day    the day number
+     * @param part   the part being run
+     * @param phase  the phase being run
+     * @param action the phase itself
+     */
+    public void measureRun(final int day, final Part part, final Phase phase, final Runnable action) {
+        measure(day, part, phase, () -> {
+            action.run();
+            return null;
+        });
+    }
+
+    /**
+     * Gets the recorded measurements ordered by day, part and phase.
+     *
+     * @return an immutable list of the measurements
+     */
+    public List<PhaseMetric> getMetrics() {
+        return this.metrics.stream()
+                .sorted(Comparator.comparingInt(PhaseMetric::day)
+                        .thenComparing(PhaseMetric::part)
+                        .thenComparing(PhaseMetric::phase))
+                .toList();
+    }
+
+    /**
+     * Renders the measurements as a table, one row per phase.
+     *
+     * @return the summary table
+     */
+    public String summary() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(format("%n%1$-5s %2$-5s %3$-6s %4$12s %5$12s %6$14s%n", "Day", "Part", "Phase", "Wall ms",
+                "CPU ms", "Allocated KB"));
+        long totalWall = 0;
+        for (final PhaseMetric metric : getMetrics()) {
+            totalWall += metric.wallNanos();
+            builder.append(format("%1$-5d %2$-5s %3$-6s %4$12.3f %5$12s %6$14s%n", metric.day(), metric.part(),
+                    metric.phase(), metric.wallNanos() / 1e6, formatNanos(metric.cpuNanos()),
+                    formatKilobytes(metric.allocatedBytes())));
+        }
+        builder.append(format("%1$-18s %2$12.3f", "Total", totalWall / 1e6));
+        return builder.toString();
+    }
+
+    /**
+     * Renders the measurements as a JSON report.
+     *
+     * @return the JSON document
+     */
+    public String toJson() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(format("{%n  \"startedAt\": \"%1$s\",%n  \"phases\": [", this.startedAt));
+        final List<PhaseMetric> sorted = getMetrics();
+        for (int i = 0; i < sorted.size(); i++) {
+            final PhaseMetric metric = sorted.get(i);
+            builder.append(i == 0 ? "" : ",").append(format("%n    {\"day\": %1$d, \"part\": \"%2$s\", "
+                            + "\"phase\": \"%3$s\", \"wallNanos\": %4$d, \"cpuNanos\": %5$d, \"allocatedBytes\": %6$d}",
+                    metric.day(), metric.part(), metric.phase(), metric.wallNanos(), metric.cpuNanos(),
+                    metric.allocatedBytes()));
+        }
+        builder.append(format("%n  ]%n}%n"));
+        return builder.toString();
+    }
+
+    /**
+     * Computes the difference of two counter readings.
+     *
+     * @param start the reading before the phase
+     * @param end   the reading after the phase
+     * @return the difference, or {@code -1} if either reading is unavailable
+     */
+    private static long difference(final long start, final long end) {
+        return start < 0 || end < 0 ? -1 : end - start;
+    }
+
+    /**
+     * Formats nanoseconds as milliseconds for the summary table.
+     *
+     * @param nanos the nanoseconds, or {@code -1}
+     * @return the formatted value, {@code n/a} if unavailable
+     */
+    private static String formatNanos(final long nanos) {
+        return nanos < 0 ? "n/a" : format("%1$.3f", nanos / 1e6);
+    }
+
+    /**
+     * Formats bytes as kilobytes for the summary table.
+     *
+     * @param bytes the bytes, or {@code -1}
+     * @return the formatted value, {@code n/a} if unavailable
+     */
+    private static String formatKilobytes(final long bytes) {
+        return bytes < 0 ? "n/a" : format("%1$.1f", bytes / 1024.0);
+    }
+}
@@ -0,0 +1,42 @@
+package com.ashley_eve.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The {@code SolutionWriteEvent} class is the Java Flight Recorder event for writing one answer or report. It is
+ * committed by {@link com.ashley_eve.file.SolutionWriter}; in the asynchronous mode its duration covers queueing
+ * the write for the background writer only.
+ */
+@Name("com.ashley_eve.SolutionWrite")
+@Label("Solution Write")
+@Category({"Advent of Code", "Output"})
+@Description("Writing one answer or report")
+public class SolutionWriteEvent extends Event {
+
+    /** The day the answer belongs to, {@code 0} for reports. */
+    @Label("Day")
+    public int day;
+
+    /** The part the answer belongs to, {@code null} for reports. */
+    @Label("Part")
+    public String part;
+
+    /** The file that was written. */
+    @Label("File")
+    public String file;
+
+    /** The size of the written data in UTF-8. */
+    @Label("Bytes")
+    @DataAmount
+    public long bytes;
+
+    /** Whether the write was queued for the background writer. */
+    @Label("Asynchronous")
+    public boolean async;
+}
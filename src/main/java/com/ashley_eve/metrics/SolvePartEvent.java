@@ -0,0 +1,37 @@
+package com.ashley_eve.metrics;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+
+/**
+ * The {@code SolvePartEvent} class is the Java Flight Recorder event for solving one part of a day. It is
+ * committed by {@link com.ashley_eve.DayTemplate#solvePart(com.ashley_eve.Part)} for every solve.
+ */
+@Name("com.ashley_eve.SolvePart")
+@Label("Solve Part")
+@Category({"Advent of Code", "Solve"})
+@Description("Solving one part of a day")
+public class SolvePartEvent extends Event {
+
+    /** The day being solved. */
+    @Label("Day")
+    public int day;
+
+    /** The part being solved. */
+    @Label("Part")
+    public String part;
+
+    /** The size of the solved input, {@code -1} if it was not loaded through the day's input getters. */
+    @Label("Input Bytes")
+    @DataAmount
+    public long inputBytes;
+
+    /** The length of the answer. */
+    @Label("Answer Length")
+    public int answerLength;
+}
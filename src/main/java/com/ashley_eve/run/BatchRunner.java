@@ -0,0 +1,228 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.PathMatcher;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Stream;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.InputReader;
+import com.ashley_eve.file.MappedInput;
+import com.ashley_eve.file.SolutionWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code BatchRunner} class solves a whole corpus of inputs for one day in a single JVM. It is selected with
+ * {@code run.mode=batch}.
+ *
+ * <p>The inputs are the regular files of a directory, or the files matching a glob such as
+ * {@code corpus/day1/*.input}. They are spread over a fixed pool of platform threads; every task memory-maps its
+ * input, solves the configured parts on it through {@link DayTemplate#solveInput(Part, MappedInput)} and writes
+ * the answers to {@code solutions/dayN/<input name>/}. The run ends with the aggregate throughput in inputs and
+ * megabytes per second.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code batch.day}: the number of the day whose solution is run; the day must be enabled</li>
+ *   <li>{@code batch.inputs}: a directory holding the inputs, or a glob matching them</li>
+ *   <li>{@code batch.parts}: the comma separated parts solved on every input (default {@code ONE,TWO})</li>
+ *   <li>{@code batch.parallelism}: the number of threads, {@code 0} to use the number of available
+ *   processors (default {@code 0})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * run.mode=batch
+ * batch.day=1
+ * batch.inputs=corpus/day1/*.input
+ * }
+ * </pre>
+ */
+@Component
+public class BatchRunner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(BatchRunner.class);
+
+    /** Provider of the enabled day beans. */
+    private final ObjectProvider<DayTemplate> days;
+
+    /** The number of the day whose solution is run. */
+    private final int dayNumber;
+
+    /** The directory or glob of the inputs. */
+    private final String inputs;
+
+    /** The parts solved on every input. */
+    private final List<Part> parts;
+
+    /** The number of threads. */
+    private final int parallelism;
+
+    /**
+     * Constructs a BatchRunner.
+     *
+     * @param days        provider of the enabled day beans
+     * @param dayNumber   the number of the day whose solution is run
+     * @param inputs      a directory holding the inputs, or a glob matching them
+     * @param parts       the parts solved on every input
+     * @param parallelism the number of threads, {@code 0} for the number of processors
+     */
+    public BatchRunner(final ObjectProvider<DayTemplate> days,
+                       @Value("${batch.day:0}") final int dayNumber,
+                       @Value("${batch.inputs:}") final String inputs,
+                       @Value("${batch.parts:ONE,TWO}") final List<Part> parts,
+                       @Value("${batch.parallelism:0}") final int parallelism) {
+        this.days = days;
+        this.dayNumber = dayNumber;
+        this.inputs = inputs;
+        this.parts = List.copyOf(parts);
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+    }
+
+    /**
+     * Solves every input of the corpus and reports the throughput.
+     *
+     * @return the number of inputs that failed
+     * @throws IOException          if the inputs cannot be listed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int runAll() throws IOException, InterruptedException {
+        final DayTemplate day = this.days.orderedStream()
+                .filter(candidate -> candidate.getDayNumber() == this.dayNumber)
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException(
+                        format("batch.day=%1$d is not an enabled day", this.dayNumber)));
+        final List<Path> files = resolveInputs(this.inputs);
+        LOG.info(() -> format("Solving %1$d inputs for day%2$d on %3$d threads", files.size(), this.dayNumber,
+                this.parallelism));
+
+        final AtomicLong bytes = new AtomicLong();
+        final List<Future<?>> futures = new ArrayList<>(files.size());
+        final long start = System.nanoTime();
+        try (ExecutorService executor = Executors.newFixedThreadPool(this.parallelism)) {
+            for (final Path file : files) {
+                futures.add(executor.submit(() -> bytes.addAndGet(solve(day, file))));
+            }
+        }
+        SolutionWriter.flush();
+        final long elapsedNanos = System.nanoTime() - start;
+
+        int failures = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (final ExecutionException e) {
+                final Path file = files.get(i);
+                LOG.error(() -> format("Input %1$s failed: %2$s", file, e.getCause()));
+                failures++;
+            }
+        }
+        final double seconds = elapsedNanos / 1e9;
+        final int failed = failures;
+        LOG.info(() -> format("Solved %1$d inputs (%2$d failed, %3$.1f MB) in %4$.3f s: %5$.1f inputs/s, "
+                        + "%6$.1f MB/s", files.size(), failed, bytes.get() / 1048576.0, seconds,
+                files.size() / seconds, bytes.get() / 1048576.0 / seconds));
+        return failures;
+    }
+
+    /**
+     * Solves the configured parts on one input and writes their answers.
+     *
+     * @param day  the day whose solution is run
+     * @param file the input file
+     * @return the size of the input in bytes
+     */
+    private long solve(final DayTemplate day, final Path file) {
+        final MappedInput input = InputReader.readFileData(file, true);
+        final String inputName = inputName(file);
+        for (final Part part : this.parts) {
+            final String answer = day.solveInput(part, input);
+            SolutionWriter.writeBatchSolutionToFile(this.dayNumber, inputName, part.getProblemNumber(), answer);
+        }
+        return input.size();
+    }
+
+    /**
+     * Lists the inputs of a directory, file or glob in a stable order.
+     *
+     * @param inputs a directory holding the inputs, a single input file, or a glob matching the inputs
+     * @return the input files sorted by path
+     * @throws IOException if the inputs cannot be listed
+     */
+    static List<Path> resolveInputs(final String inputs) throws IOException {
+        if (inputs.isBlank()) {
+            throw new IllegalStateException("batch.inputs is not set");
+        }
+        final int globStart = globStart(inputs);
+        if (globStart < 0) {
+            final Path path = Path.of(inputs);
+            return Files.isDirectory(path) ? list(path, 1, file -> true) : List.of(path);
+        }
+        final int separator = Math.max(inputs.lastIndexOf('/', globStart), inputs.lastIndexOf('\\', globStart));
+        final Path base = Path.of(separator < 0 ? "" : inputs.substring(0, separator + 1));
+        return list(base, Integer.MAX_VALUE, FileSystems.getDefault().getPathMatcher("glob:" + inputs));
+    }
+
+    /**
+     * Lists the regular files below a directory that match a pattern.
+     *
+     * @param directory the directory to walk
+     * @param depth     the maximum number of directory levels to visit
+     * @param matcher   the pattern the files must match, applied to the walked paths
+     * @return the matching files sorted by path
+     * @throws IOException if the directory cannot be walked
+     */
+    private static List<Path> list(final Path directory, final int depth, final PathMatcher matcher)
+            throws IOException {
+        try (Stream<Path> files = Files.walk(directory, depth)) {
+            return files.filter(Files::isRegularFile).filter(matcher::matches).sorted().toList();
+        }
+    }
+
+    /**
+     * Finds the first glob special character.
+     *
+     * @param pattern the pattern to search
+     * @return the index of the first {@code *}, {@code ?}, {@code [} or {@code {}, or {@code -1} if there is none
+     */
+    private static int globStart(final String pattern) {
+        for (int i = 0; i < pattern.length(); i++) {
+            final char character = pattern.charAt(i);
+            if (character == '*' || character == '?' || character == '[' || character == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Gets the name an input is stored under: its file name without the extension.
+     *
+     * @param file the input file
+     * @return the input name
+     */
+    private static String inputName(final Path file) {
+        final String name = file.getFileName().toString();
+        final int extension = name.lastIndexOf('.');
+        return extension > 0 ? name.substring(0, extension) : name;
+    }
+}
@@ -0,0 +1,230 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import com.ashley_eve.file.SolutionWriter;
+import com.ashley_eve.metrics.HistoryEntry;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code CompareRunner} class catches performance regressions in the run that introduces them. It is
+ * selected with {@code run.mode=compare}: it solves the enabled days with the {@link DayScheduler}, which appends
+ * the run to the {@link PerformanceHistory}, and then compares every phase of that run against the same phase in
+ * a rolling baseline of the runs before it. The run is found in the history by its start, so compare mode needs
+ * {@code metrics.enabled}; without it the run would not be recorded and would be mistaken for the last recorded
+ * one.
+ *
+ * <p>The baseline of a phase is the median of its wall times in the previous runs, and its noise is their median
+ * absolute deviation. A phase is <em>slower</em> when it exceeds the median by more than {@code compare.sigma}
+ * times the noise and by more than {@code compare.min-millis}, so ordinary jitter and sub-millisecond phases are
+ * not flagged. A slower phase whose slowdown also exceeds {@code compare.threshold} percent is a
+ * <em>regression</em>; regressions are counted as failures, which makes the application exit with a non-zero
+ * status. Phases with fewer than {@code compare.min-runs} baseline samples are reported without a verdict.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code compare.baseline-runs}: the number of previous runs forming the baseline (default {@code 10})</li>
+ *   <li>{@code compare.min-runs}: the number of baseline samples a phase needs for a verdict
+ *   (default {@code 3})</li>
+ *   <li>{@code compare.threshold}: the slowdown in percent above which a slower phase fails the run
+ *   (default {@code 20})</li>
+ *   <li>{@code compare.sigma}: the number of noise units a phase must exceed its baseline by to count as slower
+ *   (default {@code 3})</li>
+ *   <li>{@code compare.min-millis}: the smallest absolute slowdown that counts, in milliseconds
+ *   (default {@code 1})</li>
+ *   <li>{@code compare.report}: the name of the report written under "solutions/"
+ *   (default {@code comparison.txt})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * run.mode=compare
+ * compare.baseline-runs=20
+ * compare.threshold=10
+ * }
+ * </pre>
+ */
+@Component
+public class CompareRunner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(CompareRunner.class);
+
+    /** Scales a median absolute deviation to the standard deviation of normally distributed samples. */
+    private static final double MAD_SCALE = 1.4826;
+
+    /** Scheduler that runs the enabled days. */
+    private final DayScheduler dayScheduler;
+
+    /** The history the runs are recorded in. */
+    private final PerformanceHistory history;
+
+    /** The number of previous runs forming the baseline. */
+    private final int baselineRuns;
+
+    /** The number of baseline samples a phase needs for a verdict. */
+    private final int minRuns;
+
+    /** The slowdown in percent above which a slower phase fails the run. */
+    private final double threshold;
+
+    /** The number of noise units a phase must exceed its baseline by to count as slower. */
+    private final double sigma;
+
+    /** The smallest absolute slowdown that counts, in nanoseconds. */
+    private final long minNanos;
+
+    /** The name of the report under "solutions/". */
+    private final String report;
+
+    /**
+     * Constructs a CompareRunner.
+     *
+     * @param dayScheduler the scheduler that runs the enabled days
+     * @param history      the history the runs are recorded in
+     * @param baselineRuns the number of previous runs forming the baseline
+     * @param minRuns      the number of baseline samples a phase needs for a verdict
+     * @param threshold    the slowdown in percent above which a slower phase fails the run
+     * @param sigma        the number of noise units a phase must exceed its baseline by to count as slower
+     * @param minMillis    the smallest absolute slowdown that counts, in milliseconds
+     * @param report       the name of the report under "solutions/"
+     */
+    public CompareRunner(final DayScheduler dayScheduler, final PerformanceHistory history,
+                         @Value("${compare.baseline-runs:10}") final int baselineRuns,
+                         @Value("${compare.min-runs:3}") final int minRuns,
+                         @Value("${compare.threshold:20}") final double threshold,
+                         @Value("${compare.sigma:3}") final double sigma,
+                         @Value("${compare.min-millis:1}") final double minMillis,
+                         @Value("${compare.report:comparison.txt}") final String report) {
+        this.dayScheduler = dayScheduler;
+        this.history = history;
+        this.baselineRuns = Math.max(1, baselineRuns);
+        this.minRuns = Math.max(1, minRuns);
+        this.threshold = threshold;
+        this.sigma = sigma;
+        this.minNanos = (long) (minMillis * 1e6);
+        this.report = report;
+    }
+
+    /**
+     * Solves the enabled days, then compares the run against its baseline and writes the report.
+     *
+     * @return the number of failed tasks plus the number of regressions
+     * @throws InterruptedException if the calling thread is interrupted while the days are solved
+     */
+    public int runAll() throws InterruptedException {
+        if (!this.history.isEnabled()) {
+            LOG.error("run.mode=compare needs a performance history, but history.file is empty");
+            return 1;
+        }
+        if (!this.dayScheduler.isMetricsEnabled()) {
+            LOG.error("run.mode=compare needs the run to be measured, but metrics.enabled is false");
+            return 1;
+        }
+        final int failures = this.dayScheduler.runAll();
+        final Instant startedAt = this.dayScheduler.getLastRunStartedAt();
+        final String currentRun = startedAt == null ? null : startedAt.toString();
+        final Map<String, List<HistoryEntry>> runs = new LinkedHashMap<>();
+        for (final HistoryEntry entry : this.history.load()) {
+            runs.computeIfAbsent(entry.runStartedAt(), key -> new ArrayList<>()).add(entry);
+        }
+        final List<HistoryEntry> current = runs.remove(currentRun);
+        if (current == null) {
+            LOG.error(() -> format("The run started at %1$s was not found in the history", currentRun));
+            return failures + 1;
+        }
+        final List<List<HistoryEntry>> earlier = new ArrayList<>(runs.values());
+        final List<List<HistoryEntry>> baseline = earlier.subList(Math.max(0, earlier.size() - this.baselineRuns),
+                earlier.size());
+
+        final StringBuilder builder = new StringBuilder();
+        builder.append(format("%nRevision %1$s against %2$d previous runs%n", current.get(0).revision(),
+                baseline.size()));
+        builder.append(format("%1$-5s %2$-5s %3$-6s %4$12s %5$12s %6$12s %7$9s %8$5s %9$s%n", "Day", "Part", "Phase",
+                "Baseline ms", "Noise ms", "Current ms", "Change", "Runs", "Verdict"));
+        int regressions = 0;
+        for (final HistoryEntry entry : current) {
+            final long[] samples = baseline.stream()
+                    .flatMap(List::stream)
+                    .filter(previous -> previous.day() == entry.day() && previous.part() == entry.part()
+                            && previous.phase() == entry.phase())
+                    .mapToLong(HistoryEntry::wallNanos)
+                    .sorted()
+                    .toArray();
+            if (samples.length < this.minRuns) {
+                builder.append(format("%1$-5d %2$-5s %3$-6s %4$12s %5$12s %6$12.3f %7$9s %8$5d %9$s%n", entry.day(),
+                        entry.part(), entry.phase(), "-", "-", entry.wallNanos() / 1e6, "-", samples.length,
+                        "no baseline"));
+                continue;
+            }
+            final double median = median(samples);
+            final double noise = MAD_SCALE * medianAbsoluteDeviation(samples, median);
+            final double slowdown = entry.wallNanos() - median;
+            final double change = median > 0 ? 100.0 * slowdown / median : 0.0;
+            String verdict = "ok";
+            if (slowdown > Math.max(this.minNanos, this.sigma * noise)) {
+                verdict = change > this.threshold ? "REGRESSION" : "slower";
+            }
+            if ("REGRESSION".equals(verdict)) {
+                regressions++;
+            }
+            builder.append(format("%1$-5d %2$-5s %3$-6s %4$12.3f %5$12.3f %6$12.3f %7$+8.1f%% %8$5d %9$s%n",
+                    entry.day(), entry.part(), entry.phase(), median / 1e6, noise / 1e6, entry.wallNanos() / 1e6,
+                    change, samples.length, verdict));
+        }
+        final long[] peaks = baseline.stream().mapToLong(run -> run.get(0).peakHeapBytes()).sorted().toArray();
+        builder.append(format("Peak heap %1$.1f MB, baseline median %2$s%n", current.get(0).peakHeapBytes() / 1048576.0,
+                peaks.length == 0 ? "-" : format("%1$.1f MB", median(peaks) / 1048576.0)));
+        builder.append(format("%1$d regressions above %2$.1f%%%n", regressions, this.threshold));
+
+        final String result = builder.toString();
+        if (regressions > 0) {
+            LOG.error(() -> result);
+        } else {
+            LOG.info(() -> result);
+        }
+        SolutionWriter.writeReportToFile(this.report, result);
+        SolutionWriter.flush();
+        return failures + regressions;
+    }
+
+    /**
+     * Gets the median of sorted values.
+     *
+     * @param sorted the values in ascending order, at least one
+     * @return the median
+     */
+    private static double median(final long[] sorted) {
+        final int middle = sorted.length / 2;
+        return sorted.length % 2 == 1 ? sorted[middle] : (sorted[middle - 1] + sorted[middle]) / 2.0;
+    }
+
+    /**
+     * Gets the median absolute deviation of values from their median.
+     *
+     * @param values the values, at least one
+     * @param median the median of the values
+     * @return the median absolute deviation
+     */
+    private static double medianAbsoluteDeviation(final long[] values, final double median) {
+        final double[] deviations = new double[values.length];
+        for (int i = 0; i < values.length; i++) {
+            deviations[i] = Math.abs(values[i] - median);
+        }
+        Arrays.sort(deviations);
+        final int middle = deviations.length / 2;
+        return deviations.length % 2 == 1 ? deviations[middle] : (deviations[middle - 1] + deviations[middle]) / 2;
+    }
+}
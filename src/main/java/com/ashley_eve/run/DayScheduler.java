@@ -0,0 +1,263 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.SolutionWriter;
+import com.ashley_eve.metrics.DayRecorder;
+import com.ashley_eve.metrics.RunMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code DayScheduler} class is the execution engine behind {@link com.ashley_eve.Application#run}.
+ * It collects every enabled {@link DayTemplate} bean and runs the test, part-one and part-two tasks of all
+ * days concurrently, so a full run takes about as long as the slowest task instead of the sum of all of them.
+ * Before the tasks are scheduled, the inputs of all enabled days are handed to the input prefetcher, so that
+ * reading the inputs of tasks waiting for a permit overlaps with the tasks that are solving.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code scheduler.executor}: {@code virtual} to run every task on its own virtual thread, or
+ *   {@code forkjoin} to run the tasks on a bounded {@link ForkJoinPool} (default {@code forkjoin} when
+ *   {@code metrics.enabled} is set, because the JVM measures CPU time and allocations only on platform
+ *   threads, else {@code virtual})</li>
+ *   <li>{@code scheduler.parallelism}: the maximum number of tasks running at once, {@code 0} to use the
+ *   number of available processors (default {@code 0})</li>
+ *   <li>{@code metrics.enabled}: whether to record the wall time, CPU time and allocations of every phase
+ *   and end the run with a summary table (default {@code true})</li>
+ *   <li>{@code metrics.report}: the name of the JSON report written under "solutions/"
+ *   (default {@code metrics.json})</li>
+ *   <li>{@code history.file}: the name of the {@link PerformanceHistory} file under "solutions/" that the
+ *   measurements of every run are appended to, empty to keep no history (default {@code history.csv})</li>
+ *   <li>{@code solution.writer.async}: whether answers are written by a background I/O thread instead of
+ *   the solving threads (default {@code false})</li>
+ *   <li>{@code jfr.days}: the comma separated days whose tasks are captured in a Java Flight Recorder recording
+ *   written to "solutions/dayN/dayN.jfr" (default none)</li>
+ *   <li>{@code jfr.settings}: the JFR settings of those recordings, {@code default} or {@code profile}
+ *   (default {@code profile})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * scheduler.executor=forkjoin
+ * scheduler.parallelism=4
+ * }
+ * </pre>
+ */
+@Component
+public class DayScheduler {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(DayScheduler.class);
+
+    /** Provider of the enabled day beans. */
+    private final ObjectProvider<DayTemplate> days;
+
+    /** The executor type, {@code virtual} or {@code forkjoin}. */
+    private final String executorType;
+
+    /** The maximum number of tasks running at once. */
+    private final int parallelism;
+
+    /** Whether the phases of every task are measured. */
+    private final boolean metricsEnabled;
+
+    /** The name of the JSON metrics report under "solutions/". */
+    private final String metricsReport;
+
+    /** The days that are captured in a flight recording. */
+    private final List<Integer> recordedDays;
+
+    /** The JFR settings of the flight recordings. */
+    private final String recordingSettings;
+
+    /** The history the measurements of every run are appended to. */
+    private final PerformanceHistory history;
+
+    /** The start of the last measured run, {@code null} until a run has been measured. */
+    private volatile Instant lastRunStartedAt;
+
+    /**
+     * Constructs a DayScheduler for the enabled days.
+     *
+     * @param days              provider of the enabled day beans
+     * @param executorType      {@code virtual} or {@code forkjoin}, empty to choose by {@code metricsEnabled}
+     * @param parallelism       the maximum number of tasks running at once, {@code 0} for the number of processors
+     * @param metricsEnabled    {@code true} to measure the phases of every task
+     * @param metricsReport     the name of the JSON metrics report under "solutions/"
+     * @param asyncWrites       {@code true} to write answers on a background I/O thread
+     * @param recordedDays      the days that are captured in a flight recording
+     * @param recordingSettings the JFR settings of the flight recordings
+     * @param history           the history the measurements of every run are appended to
+     */
+    public DayScheduler(final ObjectProvider<DayTemplate> days,
+                        @Value("${scheduler.executor:}") final String executorType,
+                        @Value("${scheduler.parallelism:0}") final int parallelism,
+                        @Value("${metrics.enabled:true}") final boolean metricsEnabled,
+                        @Value("${metrics.report:metrics.json}") final String metricsReport,
+                        @Value("${solution.writer.async:false}") final boolean asyncWrites,
+                        @Value("${jfr.days:}") final List<Integer> recordedDays,
+                        @Value("${jfr.settings:profile}") final String recordingSettings,
+                        final PerformanceHistory history) {
+        this.days = days;
+        this.executorType = executorType.isBlank() ? metricsEnabled ? "forkjoin" : "virtual" : executorType;
+        if (metricsEnabled && "virtual".equals(this.executorType)) {
+            LOG.warn("Virtual threads report no CPU time or allocations; use scheduler.executor=forkjoin to "
+                    + "measure them");
+        }
+        this.parallelism = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        this.metricsEnabled = metricsEnabled;
+        this.metricsReport = metricsReport;
+        this.recordedDays = List.copyOf(recordedDays);
+        this.recordingSettings = recordingSettings;
+        this.history = history;
+        if (asyncWrites) {
+            SolutionWriter.enableAsync();
+        }
+    }
+
+    /**
+     * Runs every enabled part of every enabled day and waits until all of them have finished.
+     * A failing task is logged and does not stop the other tasks.
+     *
+     * @return the number of tasks that failed
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int runAll() throws InterruptedException {
+        final List<DayTemplate> enabledDays = this.days.orderedStream().toList();
+        final long start = System.nanoTime();
+        final List<Future<?>> futures = new ArrayList<>();
+        final List<String> names = new ArrayList<>();
+        final RunMetrics metrics = new RunMetrics(this.metricsEnabled);
+        final AtomicBoolean firstSolve = new AtomicBoolean(true);
+        final DayRecorder recorder = new DayRecorder(new HashSet<>(this.recordedDays), this.recordingSettings);
+        if (metrics.isEnabled()) {
+            RunMetrics.resetPeakHeap();
+        }
+
+        enabledDays.forEach(DayTemplate::prefetchInputs);
+        try (ExecutorService executor = createExecutor()) {
+            final Semaphore permits = new Semaphore(this.parallelism);
+            for (final DayTemplate day : enabledDays) {
+                recorder.begin(day.getDayNumber(), day.getEnabledParts().size());
+                for (final Part part : day.getEnabledParts()) {
+                    names.add(format("day%1$d %2$s", day.getDayNumber(), part));
+                    futures.add(executor.submit(() -> {
+                        try {
+                            runTask(day, part, metrics, permits, firstSolve);
+                        } finally {
+                            recorder.taskFinished(day.getDayNumber());
+                        }
+                        return null;
+                    }));
+                }
+            }
+            LOG.debug(() -> format("Scheduled %1$d tasks for %2$d days on a %3$s executor with parallelism %4$d",
+                    futures.size(), enabledDays.size(), this.executorType, this.parallelism));
+        }
+
+        SolutionWriter.flush();
+        int failures = 0;
+        for (int i = 0; i < futures.size(); i++) {
+            try {
+                futures.get(i).get();
+            } catch (final ExecutionException e) {
+                final String name = names.get(i);
+                LOG.error(() -> format("Task %1$s failed: %2$s", name, e.getCause()));
+                failures++;
+            }
+        }
+        final long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        final int failed = failures;
+        LOG.info(() -> format("Finished %1$d tasks in %2$d ms (%3$d failed)", futures.size(), elapsedMillis,
+                failed));
+        if (metrics.isEnabled()) {
+            LOG.info(metrics::summary);
+            SolutionWriter.writeReportToFile(this.metricsReport, metrics.toJson());
+            SolutionWriter.flush();
+            this.history.record(metrics, RunMetrics.peakHeapBytes());
+            this.lastRunStartedAt = metrics.getStartedAt();
+        }
+        return failures;
+    }
+
+    /**
+     * Checks whether the phases of every task are measured and recorded in the history.
+     *
+     * @return {@code true} if {@code metrics.enabled} is set
+     */
+    public boolean isMetricsEnabled() {
+        return this.metricsEnabled;
+    }
+
+    /**
+     * Gets the start of the last measured run, which identifies its entries in the {@link PerformanceHistory}.
+     *
+     * @return the start of the last run of {@link #runAll()}, or {@code null} if no run has been measured
+     */
+    public Instant getLastRunStartedAt() {
+        return this.lastRunStartedAt;
+    }
+
+    /**
+     * Runs one part of a day while holding a parallelism permit.
+     *
+     * @param day        the day to run
+     * @param part       the part to run
+     * @param metrics    the metrics receiving the phase measurements
+     * @param permits    the permits bounding the number of running tasks
+     * @param firstSolve set until the first task of the run starts solving
+     * @throws InterruptedException if the task is interrupted while waiting for a permit
+     */
+    private static void runTask(final DayTemplate day, final Part part, final RunMetrics metrics,
+                                final Semaphore permits, final AtomicBoolean firstSolve)
+            throws InterruptedException {
+        permits.acquire();
+        try {
+            if (firstSolve.compareAndSet(true, false)) {
+                final long uptime = ManagementFactory.getRuntimeMXBean().getUptime();
+                LOG.info(() -> format("Time to first solve: %1$d ms after JVM start", uptime));
+            }
+            final long start = System.nanoTime();
+            day.runPart(part, metrics);
+            LOG.debug(() -> format("Solved day%1$d %2$s in %3$d us", day.getDayNumber(), part,
+                    (System.nanoTime() - start) / 1_000));
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Creates the executor configured by {@code scheduler.executor}.
+     *
+     * @return a new executor service
+     */
+    private ExecutorService createExecutor() {
+        return switch (this.executorType) {
+            case "virtual" -> Executors.newVirtualThreadPerTaskExecutor();
+            case "forkjoin" -> new ForkJoinPool(this.parallelism);
+            default -> throw new IllegalStateException(
+                    format("Unknown scheduler.executor: %1$s", this.executorType));
+        };
+    }
+}
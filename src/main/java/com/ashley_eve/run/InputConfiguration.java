@@ -0,0 +1,75 @@
+package com.ashley_eve.run;
+
+import java.nio.file.Path;
+
+import com.ashley_eve.file.InputCache;
+import com.ashley_eve.file.InputPrefetcher;
+import com.ashley_eve.file.InputReader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Lazy;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code InputConfiguration} class applies the input related configuration properties to the
+ * {@link InputReader} when the application context starts, before any day reads its input.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code input.cache.directory}: the directory holding the binary input cache, empty to disable the
+ *   cache (default empty)</li>
+ *   <li>{@code input.cache.max-mb}: the maximum size in MiB of the input cache, beyond which the least recently
+ *   used entries are deleted, {@code 0} for no limit (default {@code 64})</li>
+ *   <li>{@code input.prefetch.budget-mb}: the maximum size in MiB of the inputs that are prefetched in the
+ *   background but not yet used by their day, {@code 0} to read inputs only on demand (default {@code 256})</li>
+ *   <li>{@code input.prefetch.threads}: the number of threads prefetching inputs (default {@code 2})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * input.cache.directory=solutions/.cache
+ * input.prefetch.budget-mb=512
+ * }
+ * </pre>
+ *
+ * <p>The bean is never lazily initialised, since no other bean depends on it, so that the configuration is
+ * also applied when {@code spring.main.lazy-initialization} is enabled.
+ */
+@Component
+@Lazy(false)
+public class InputConfiguration {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(InputConfiguration.class);
+
+    /**
+     * Constructs the InputConfiguration and applies the configuration to the {@link InputReader}.
+     *
+     * @param cacheDirectory   the directory holding the binary input cache, empty to disable it
+     * @param cacheMaxMb       the maximum size in MiB of the input cache, {@code 0} for no limit
+     * @param prefetchBudgetMb the maximum size in MiB of prefetched inputs not yet used, {@code 0} to disable
+     *                         prefetching
+     * @param prefetchThreads  the number of threads prefetching inputs
+     */
+    public InputConfiguration(@Value("${input.cache.directory:}") final String cacheDirectory,
+                              @Value("${input.cache.max-mb:64}") final long cacheMaxMb,
+                              @Value("${input.prefetch.budget-mb:256}") final long prefetchBudgetMb,
+                              @Value("${input.prefetch.threads:2}") final int prefetchThreads) {
+        if (cacheDirectory.isBlank()) {
+            InputReader.setInputCache(null);
+        } else {
+            LOG.debug(() -> String.format("Using input cache in %1$s", cacheDirectory));
+            InputReader.setInputCache(new InputCache(Path.of(cacheDirectory), cacheMaxMb << 20));
+        }
+        if (prefetchBudgetMb <= 0) {
+            InputReader.setInputPrefetcher(null);
+        } else {
+            LOG.debug(() -> String.format("Prefetching inputs on %1$d threads within %2$d MiB", prefetchThreads,
+                    prefetchBudgetMb));
+            InputReader.setInputPrefetcher(new InputPrefetcher(prefetchBudgetMb << 20, Math.max(1, prefetchThreads)));
+        }
+    }
+}
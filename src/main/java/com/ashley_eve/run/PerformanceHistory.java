@@ -0,0 +1,201 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+
+import com.ashley_eve.metrics.HistoryEntry;
+import com.ashley_eve.metrics.PhaseMetric;
+import com.ashley_eve.metrics.RunMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code PerformanceHistory} class keeps a persistent record of how long every run took. After each run of
+ * the {@link DayScheduler} it appends one {@link HistoryEntry} per measured phase to a CSV file under
+ * "solutions/": the wall time, CPU time and allocated bytes of the phase, the peak heap usage of the run and the
+ * revision of the code. The {@link CompareRunner} reads the file back to compare a run against the runs before
+ * it.
+ *
+ * <p>The revision is taken from {@code history.revision} when set, e.g. by a CI job, and otherwise read from the
+ * {@code .git} directory of the working directory without starting a process.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code history.file}: the name of the history file under "solutions/", empty to keep no history
+ *   (default {@code history.csv})</li>
+ *   <li>{@code history.revision}: the revision recorded with every entry (default: the checked out git
+ *   commit)</li>
+ * </ul>
+ */
+@Component
+public class PerformanceHistory {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(PerformanceHistory.class);
+
+    /** The number of characters of a commit hash that are recorded. */
+    private static final int REVISION_LENGTH = 12;
+
+    /** The name of the history file under "solutions/", empty if no history is kept. */
+    private final String fileName;
+
+    /** The configured revision, empty to read it from git. */
+    private final String configuredRevision;
+
+    /**
+     * Constructs a PerformanceHistory.
+     *
+     * @param fileName           the name of the history file under "solutions/", empty to keep no history
+     * @param configuredRevision the revision recorded with every entry, empty to read it from git
+     */
+    public PerformanceHistory(@Value("${history.file:history.csv}") final String fileName,
+                              @Value("${history.revision:}") final String configuredRevision) {
+        this.fileName = fileName;
+        this.configuredRevision = configuredRevision;
+    }
+
+    /**
+     * Checks whether a history is kept.
+     *
+     * @return {@code true} if runs are recorded
+     */
+    public boolean isEnabled() {
+        return !this.fileName.isBlank();
+    }
+
+    /**
+     * Appends the measured phases of a run to the history file, writing the header first if the file is new.
+     * Only the new lines are written, so recording a run costs the same however long the history has grown.
+     *
+     * @param metrics       the measurements of the run
+     * @param peakHeapBytes the peak heap usage of the run
+     */
+    public void record(final RunMetrics metrics, final long peakHeapBytes) {
+        if (!isEnabled() || !metrics.isEnabled()) {
+            return;
+        }
+        final String runStartedAt = metrics.getStartedAt().toString();
+        final String revision = revision();
+        final Path file = Path.of("solutions", this.fileName);
+        final List<String> lines = new ArrayList<>();
+        final List<PhaseMetric> phases = metrics.getMetrics();
+        try {
+            Files.createDirectories(file.getParent());
+            if (!Files.isRegularFile(file) || Files.size(file) == 0) {
+                lines.add(HistoryEntry.CSV_HEADER);
+            }
+            for (final PhaseMetric phase : phases) {
+                lines.add(HistoryEntry.of(runStartedAt, revision, phase, peakHeapBytes).toCsv());
+            }
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to append to %1$s: %2$s", file, e.getMessage()));
+            return;
+        }
+        LOG.debug(() -> format("Recorded %1$d phases of run %2$s at revision %3$s in %4$s", phases.size(),
+                runStartedAt, revision, this.fileName));
+    }
+
+    /**
+     * Reads every entry of the history file, oldest first. Malformed lines are logged and skipped.
+     *
+     * @return the entries, empty if there is no history
+     */
+    public List<HistoryEntry> load() {
+        final List<HistoryEntry> entries = new ArrayList<>();
+        for (final String line : readLines()) {
+            if (line.isBlank() || line.equals(HistoryEntry.CSV_HEADER)) {
+                continue;
+            }
+            try {
+                entries.add(HistoryEntry.parse(line));
+            } catch (final IllegalArgumentException e) {
+                LOG.warn(() -> format("Skipping history line: %1$s", e.getMessage()));
+            }
+        }
+        return entries;
+    }
+
+    /**
+     * Gets the revision of the code that is running.
+     *
+     * @return the configured revision, else the abbreviated git commit, else {@code unknown}
+     */
+    public String revision() {
+        final String revision = this.configuredRevision.isBlank() ? gitRevision() : this.configuredRevision;
+        return revision.replace(',', ' ').strip();
+    }
+
+    /**
+     * Reads the lines of the history file.
+     *
+     * @return the lines, empty if the file does not exist or cannot be read
+     */
+    private List<String> readLines() {
+        if (!isEnabled()) {
+            return new ArrayList<>();
+        }
+        final Path file = Path.of("solutions", this.fileName);
+        if (!Files.isRegularFile(file)) {
+            return new ArrayList<>();
+        }
+        try {
+            return new ArrayList<>(Files.readAllLines(file, StandardCharsets.UTF_8));
+        } catch (final IOException e) {
+            LOG.warn(() -> format("Failed to read %1$s: %2$s", file, e.getMessage()));
+            return new ArrayList<>();
+        }
+    }
+
+    /**
+     * Reads the checked out commit from the {@code .git} directory, following a symbolic {@code HEAD} to a loose
+     * or packed branch ref.
+     *
+     * @return the abbreviated commit hash, or {@code unknown}
+     */
+    private static String gitRevision() {
+        final Path git = Path.of(".git");
+        try {
+            final String head = Files.readString(git.resolve("HEAD")).strip();
+            if (!head.startsWith("ref: ")) {
+                return abbreviate(head);
+            }
+            final String ref = head.substring("ref: ".length());
+            final Path loose = git.resolve(ref);
+            if (Files.isRegularFile(loose)) {
+                return abbreviate(Files.readString(loose).strip());
+            }
+            final Path packed = git.resolve("packed-refs");
+            if (Files.isRegularFile(packed)) {
+                for (final String line : Files.readAllLines(packed)) {
+                    if (line.endsWith(" " + ref)) {
+                        return abbreviate(line.substring(0, line.indexOf(' ')));
+                    }
+                }
+            }
+        } catch (final IOException e) {
+            LOG.debug(() -> format("Cannot read the git revision: %1$s", e.getMessage()));
+        }
+        return "unknown";
+    }
+
+    /**
+     * Abbreviates a commit hash.
+     *
+     * @param hash the full commit hash
+     * @return the first characters of the hash
+     */
+    private static String abbreviate(final String hash) {
+        return hash.length() > REVISION_LENGTH ? hash.substring(0, REVISION_LENGTH) : hash;
+    }
+}
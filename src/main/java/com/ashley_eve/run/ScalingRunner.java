@@ -0,0 +1,388 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.InputGenerator;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.ChunkedInputReader;
+import com.ashley_eve.file.MappedInput;
+import com.ashley_eve.file.SolutionWriter;
+import com.ashley_eve.metrics.Phase;
+import com.ashley_eve.metrics.PhaseMetric;
+import com.ashley_eve.metrics.RunMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code ScalingRunner} class runs the solutions of the enabled days across a ladder of synthetic input
+ * sizes and reports how their time and memory grow with the input. It is selected with {@code run.mode=scaling}.
+ *
+ * <p>For every enabled day that has an {@link InputGenerator}, every size of the ladder is generated into a
+ * file, the day is pointed at that file and the configured part is read and solved on the calling thread.
+ * Each step records the read and solve time, the bytes allocated and the peak heap usage, together with the
+ * growth exponent of the solve time against the previous step: about {@code 1.0} means the solution is linear
+ * in its input, anything clearly above that marks a non-linear hot path. Answers are not written, so the
+ * solutions of the real inputs are left untouched.
+ *
+ * <p>Inputs of 2 GiB and more cannot be read as one buffer, which is what the solutions read. Those steps are
+ * streamed through the {@link ChunkedInputReader} instead, as a separate <em>streamed</em> series that measures
+ * reading and indexing the chunks; their solve is skipped with a logged reason.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code scaling.sizes}: the comma separated input sizes, with an optional {@code KB}, {@code MB} or
+ *   {@code GB} suffix; sizes of 2 GiB and more are streamed (default {@code 64KB,1MB,16MB,128MB})</li>
+ *   <li>{@code scaling.seed}: the seed of the generated inputs (default {@code 1})</li>
+ *   <li>{@code scaling.part}: the part that is solved on the generated inputs (default {@code ONE})</li>
+ *   <li>{@code scaling.directory}: the directory receiving the generated inputs (default
+ *   {@code target/scaling})</li>
+ *   <li>{@code scaling.keep-inputs}: whether generated inputs are kept after their step (default
+ *   {@code false})</li>
+ *   <li>{@code scaling.report}: the name of the report written under "solutions/" (default
+ *   {@code scaling.txt})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * run.mode=scaling
+ * scaling.sizes=1MB,256MB,1GB,4GB,16GB
+ * scaling.part=TWO
+ * }
+ * </pre>
+ */
+@Component
+public class ScalingRunner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(ScalingRunner.class);
+
+    /** The growth exponent above which a step is flagged as non-linear. */
+    private static final double NON_LINEAR_EXPONENT = 1.2;
+
+    /** The size of the buffer generated inputs are written through. */
+    private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+    /** The largest input that is read as one buffer; larger inputs are streamed. */
+    private static final long MAX_BUFFER_SIZE = Integer.MAX_VALUE;
+
+    /** Provider of the enabled day beans. */
+    private final ObjectProvider<DayTemplate> days;
+
+    /** Provider of the input generators. */
+    private final ObjectProvider<InputGenerator> generators;
+
+    /** The input sizes of the ladder in bytes, in ascending order. */
+    private final long[] sizes;
+
+    /** The seed of the generated inputs. */
+    private final long seed;
+
+    /** The part that is solved. */
+    private final Part part;
+
+    /** The directory receiving the generated inputs. */
+    private final Path directory;
+
+    /** Whether generated inputs are kept. */
+    private final boolean keepInputs;
+
+    /** The name of the report under "solutions/". */
+    private final String report;
+
+    /**
+     * Constructs a ScalingRunner.
+     *
+     * @param days       provider of the enabled day beans
+     * @param generators provider of the input generators
+     * @param sizes      the comma separated input sizes
+     * @param seed       the seed of the generated inputs
+     * @param part       the part that is solved
+     * @param directory  the directory receiving the generated inputs
+     * @param keepInputs {@code true} to keep the generated inputs
+     * @param report     the name of the report under "solutions/"
+     */
+    public ScalingRunner(final ObjectProvider<DayTemplate> days,
+                         final ObjectProvider<InputGenerator> generators,
+                         @Value("${scaling.sizes:64KB,1MB,16MB,128MB}") final String sizes,
+                         @Value("${scaling.seed:1}") final long seed,
+                         @Value("${scaling.part:ONE}") final Part part,
+                         @Value("${scaling.directory:target/scaling}") final String directory,
+                         @Value("${scaling.keep-inputs:false}") final boolean keepInputs,
+                         @Value("${scaling.report:scaling.txt}") final String report) {
+        this.days = days;
+        this.generators = generators;
+        this.sizes = parseSizes(sizes);
+        this.seed = seed;
+        this.part = part;
+        this.directory = Path.of(directory);
+        this.keepInputs = keepInputs;
+        this.report = report;
+    }
+
+    /**
+     * Runs the size ladder for every enabled day that has a generator and writes the report.
+     *
+     * @return the number of steps that failed
+     */
+    public int runAll() {
+        final Map<Integer, InputGenerator> byDay = this.generators.stream()
+                .collect(Collectors.toMap(InputGenerator::getDayNumber, Function.identity()));
+        final StringBuilder builder = new StringBuilder();
+        int failures = 0;
+        for (final DayTemplate day : this.days.orderedStream().toList()) {
+            final InputGenerator generator = byDay.get(day.getDayNumber());
+            if (generator == null) {
+                LOG.info(() -> format("Day %1$d has no input generator, skipping", day.getDayNumber()));
+                continue;
+            }
+            final List<Step> steps = new ArrayList<>();
+            try {
+                for (final long size : this.sizes) {
+                    final Step step = runStep(day, generator, size);
+                    steps.add(step);
+                    if (step.error() != null) {
+                        failures++;
+                    }
+                }
+            } finally {
+                day.useInputFile(this.part.getProblemNumber(), null);
+            }
+            builder.append(table(day.getDayNumber(), steps));
+        }
+        final String result = builder.toString();
+        LOG.info(() -> result);
+        SolutionWriter.writeReportToFile(this.report, result);
+        SolutionWriter.flush();
+        return failures;
+    }
+
+    /**
+     * Generates one input of the ladder, then reads and solves it, or streams it if it is too large to be read as
+     * one buffer.
+     *
+     * @param day       the day to run
+     * @param generator the generator of the day
+     * @param size      the requested input size
+     * @return the measurements of the step
+     */
+    private Step runStep(final DayTemplate day, final InputGenerator generator, final long size) {
+        final Path file = this.directory.resolve(format("day%1$d-%2$s.input", day.getDayNumber(),
+                formatSize(size)));
+        try {
+            Files.createDirectories(this.directory);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file), WRITE_BUFFER_SIZE)) {
+                generator.generate(out, size, this.seed);
+            }
+            final long actualSize = Files.size(file);
+            if (actualSize > MAX_BUFFER_SIZE) {
+                return streamStep(day, file, actualSize);
+            }
+            day.useInputFile(this.part.getProblemNumber(), file);
+            System.gc();
+            RunMetrics.resetPeakHeap();
+            final RunMetrics metrics = new RunMetrics(true);
+            metrics.measure(day.getDayNumber(), this.part, Phase.READ, () -> day.loadInput(this.part));
+            metrics.measure(day.getDayNumber(), this.part, Phase.SOLVE, () -> day.solvePart(this.part));
+            final long peakHeap = RunMetrics.peakHeapBytes();
+            day.useInputFile(this.part.getProblemNumber(), null);
+            final List<PhaseMetric> phases = metrics.getMetrics();
+            final Step step = new Step(actualSize, false, phases.get(0).wallNanos(), phases.get(1).wallNanos(),
+                    phases.get(0).allocatedBytes() + phases.get(1).allocatedBytes(), peakHeap, null);
+            LOG.debug(() -> format("Day %1$d at %2$s: solved in %3$.3f ms", day.getDayNumber(),
+                    formatSize(actualSize), step.solveNanos() / 1e6));
+            return step;
+        } catch (final IOException | RuntimeException | OutOfMemoryError e) {
+            day.useInputFile(this.part.getProblemNumber(), null);
+            LOG.error(() -> format("Day %1$d failed at %2$s: %3$s", day.getDayNumber(), formatSize(size), e));
+            return new Step(size, size > MAX_BUFFER_SIZE, -1, -1, -1, -1, e.toString());
+        } finally {
+            if (!this.keepInputs) {
+                try {
+                    Files.deleteIfExists(file);
+                } catch (final IOException e) {
+                    LOG.warn(() -> format("Failed to delete %1$s: %2$s", file, e.getMessage()));
+                }
+            }
+        }
+    }
+
+    /**
+     * Streams a generated input that is too large to be read as one buffer through the chunked reader, measuring
+     * how long reading and indexing all of its chunks takes. The solutions read their input as one buffer, so
+     * the part is not solved.
+     *
+     * @param day        the day the input was generated for
+     * @param file       the generated input
+     * @param actualSize the size of the input in bytes
+     * @return the measurements of the step
+     */
+    private Step streamStep(final DayTemplate day, final Path file, final long actualSize) {
+        LOG.info(() -> format("Day %1$d at %2$s: input exceeds one buffer, streaming it in chunks without solving",
+                day.getDayNumber(), formatSize(actualSize)));
+        System.gc();
+        RunMetrics.resetPeakHeap();
+        final RunMetrics metrics = new RunMetrics(true);
+        final long lines = metrics.measure(day.getDayNumber(), this.part, Phase.READ, () -> {
+            try (Stream<MappedInput> chunks = ChunkedInputReader.chunks(file, ChunkedInputReader.DEFAULT_CHUNK_SIZE,
+                    true)) {
+                return chunks.mapToLong(MappedInput::lineCount).sum();
+            }
+        });
+        final PhaseMetric read = metrics.getMetrics().get(0);
+        LOG.debug(() -> format("Day %1$d at %2$s: streamed %3$d lines in %4$.3f ms", day.getDayNumber(),
+                formatSize(actualSize), lines, read.wallNanos() / 1e6));
+        return new Step(actualSize, true, read.wallNanos(), -1, read.allocatedBytes(), RunMetrics.peakHeapBytes(),
+                null);
+    }
+
+    /**
+     * Renders the steps of one day as a table: the steps read as one buffer and solved, followed by the
+     * streamed steps, whose exponent is that of the read time.
+     *
+     * @param dayNumber the day number
+     * @param steps     the steps in ladder order
+     * @return the table
+     */
+    private String table(final int dayNumber, final List<Step> steps) {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(format("%nDay %1$d %2$s%n%3$10s %4$12s %5$12s %6$14s %7$12s %8$9s%n", dayNumber, this.part,
+                "Size", "Read ms", "Solve ms", "Allocated MB", "Peak heap MB", "Exponent"));
+        appendSeries(builder, steps.stream().filter(step -> !step.streamed()).toList());
+        final List<Step> streamed = steps.stream().filter(Step::streamed).toList();
+        if (!streamed.isEmpty()) {
+            final int chunkMb = ChunkedInputReader.DEFAULT_CHUNK_SIZE >> 20;
+            builder.append(format("Streamed in %1$d MB chunks, not solved%n", chunkMb));
+            appendSeries(builder, streamed);
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Appends the rows of one series of steps, with the growth exponent of each step against the previous one.
+     *
+     * @param builder the table being rendered
+     * @param steps   the steps of the series in ladder order
+     */
+    private static void appendSeries(final StringBuilder builder, final List<Step> steps) {
+        Step previous = null;
+        for (final Step step : steps) {
+            if (step.error() != null) {
+                builder.append(format("%1$10s failed: %2$s%n", formatSize(step.size()), step.error()));
+                previous = null;
+                continue;
+            }
+            final long nanos = step.streamed() ? step.readNanos() : step.solveNanos();
+            String exponent = "";
+            if (previous != null && step.size() > previous.size()) {
+                final long previousNanos = step.streamed() ? previous.readNanos() : previous.solveNanos();
+                if (previousNanos > 0) {
+                    final double growth = Math.log((double) nanos / previousNanos)
+                            / Math.log((double) step.size() / previous.size());
+                    exponent = format("%1$.2f%2$s", growth, growth > NON_LINEAR_EXPONENT ? " !" : "");
+                }
+            }
+            builder.append(format("%1$10s %2$12.3f %3$12s %4$14s %5$12.1f %6$9s%n", formatSize(step.size()),
+                    step.readNanos() / 1e6, step.streamed() ? "-" : format("%1$.3f", step.solveNanos() / 1e6),
+                    step.allocatedBytes() < 0 ? "n/a" : format("%1$.1f", step.allocatedBytes() / 1048576.0),
+                    step.peakHeapBytes() / 1048576.0, exponent));
+            previous = step;
+        }
+    }
+
+    /**
+     * Parses a comma separated list of sizes such as {@code 64KB,1MB,10GB}.
+     *
+     * @param sizes the sizes to parse
+     * @return the sizes in bytes, in ascending order
+     * @throws IllegalArgumentException if a size is malformed or not positive
+     */
+    static long[] parseSizes(final String sizes) {
+        final String[] values = sizes.split(",");
+        final long[] result = new long[values.length];
+        for (int i = 0; i < values.length; i++) {
+            final String value = values[i].trim().toUpperCase(Locale.ROOT);
+            final long unit;
+            final int suffix;
+            if (value.endsWith("GB")) {
+                unit = 1L << 30;
+                suffix = 2;
+            } else if (value.endsWith("MB")) {
+                unit = 1L << 20;
+                suffix = 2;
+            } else if (value.endsWith("KB")) {
+                unit = 1L << 10;
+                suffix = 2;
+            } else {
+                unit = 1;
+                suffix = value.endsWith("B") ? 1 : 0;
+            }
+            try {
+                result[i] = Math.multiplyExact(Long.parseLong(value.substring(0, value.length() - suffix).trim()),
+                        unit);
+            } catch (final NumberFormatException | ArithmeticException e) {
+                throw new IllegalArgumentException(format("Invalid scaling size: %1$s", values[i]), e);
+            }
+            if (result[i] <= 0) {
+                throw new IllegalArgumentException(format("Scaling size must be positive: %1$s", values[i]));
+            }
+        }
+        Arrays.sort(result);
+        return result;
+    }
+
+    /**
+     * Formats a size in bytes with the largest binary unit that fits.
+     *
+     * @param bytes the size in bytes
+     * @return the formatted size, e.g. {@code 16MB}
+     */
+    private static String formatSize(final long bytes) {
+        if (bytes >= 1L << 30 && bytes % (1L << 30) == 0) {
+            return (bytes >> 30) + "GB";
+        } else if (bytes >= 1L << 20 && bytes % (1L << 20) == 0) {
+            return (bytes >> 20) + "MB";
+        } else if (bytes >= 1L << 10 && bytes % (1L << 10) == 0) {
+            return (bytes >> 10) + "KB";
+        } else if (bytes >= 1L << 20) {
+            return format("%1$.1fMB", bytes / 1048576.0);
+        } else if (bytes >= 1L << 10) {
+            return format("%1$.1fKB", bytes / 1024.0);
+        }
+        return bytes + "B";
+    }
+
+    /**
+     * The {@code Step} record holds the measurements of one size of the ladder.
+     *
+     * @param size           the actual input size in bytes
+     * @param streamed       {@code true} if the input was streamed in chunks instead of read and solved
+     * @param readNanos      the time spent reading and indexing the input
+     * @param solveNanos     the time spent solving the part, {@code -1} if it was not solved
+     * @param allocatedBytes the bytes allocated by reading and solving, {@code -1} if unavailable
+     * @param peakHeapBytes  the peak heap usage while reading and solving
+     * @param error          the failure of the step, {@code null} if it succeeded
+     */
+    private record Step(long size, boolean streamed, long readNanos, long solveNanos, long allocatedBytes,
+                        long peakHeapBytes, String error) {
+    }
+}
@@ -0,0 +1,183 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.Objects;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.SolutionWriter;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code SteadyStateRunner} class measures the optimised steady state of the enabled parts instead of their
+ * first, interpreted run. It is selected with {@code run.mode=steady}.
+ *
+ * <p>Every enabled part is solved a number of warmup iterations, which give the JIT compiler time to compile the
+ * hot paths, followed by a number of measured iterations. The input is read once and kept loaded, so only the
+ * solve itself is timed. Parts run one after the other on the calling thread, so they do not compete for cores.
+ * The report lists the minimum, median, 99th percentile and maximum solve time of every part, and every
+ * iteration must produce the same answer as the first one; a part whose answers differ counts as failed.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code steady.warmup}: the default number of warmup iterations (default {@code 10})</li>
+ *   <li>{@code steady.iterations}: the default number of measured iterations (default {@code 50})</li>
+ *   <li>{@code dayN.steady.warmup}: the number of warmup iterations of day N, overriding the default</li>
+ *   <li>{@code dayN.steady.iterations}: the number of measured iterations of day N, overriding the default</li>
+ *   <li>{@code steady.report}: the name of the report written under "solutions/" (default
+ *   {@code steady-state.txt})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * run.mode=steady
+ * day1.steady.warmup=200
+ * day1.steady.iterations=1000
+ * }
+ * </pre>
+ */
+@Component
+public class SteadyStateRunner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(SteadyStateRunner.class);
+
+    /** Provider of the enabled day beans. */
+    private final ObjectProvider<DayTemplate> days;
+
+    /** The environment holding the per-day iteration counts. */
+    private final Environment environment;
+
+    /** The default number of warmup iterations. */
+    private final int warmup;
+
+    /** The default number of measured iterations. */
+    private final int iterations;
+
+    /** The name of the report under "solutions/". */
+    private final String report;
+
+    /**
+     * Constructs a SteadyStateRunner.
+     *
+     * @param days        provider of the enabled day beans
+     * @param environment the environment holding the per-day iteration counts
+     * @param warmup      the default number of warmup iterations
+     * @param iterations  the default number of measured iterations
+     * @param report      the name of the report under "solutions/"
+     */
+    public SteadyStateRunner(final ObjectProvider<DayTemplate> days, final Environment environment,
+                             @Value("${steady.warmup:10}") final int warmup,
+                             @Value("${steady.iterations:50}") final int iterations,
+                             @Value("${steady.report:steady-state.txt}") final String report) {
+        this.days = days;
+        this.environment = environment;
+        this.warmup = warmup;
+        this.iterations = iterations;
+        this.report = report;
+    }
+
+    /**
+     * Measures every enabled part of every enabled day and writes the report.
+     *
+     * @return the number of parts that failed or produced inconsistent answers
+     */
+    public int runAll() {
+        final StringBuilder builder = new StringBuilder();
+        builder.append(format("%n%1$-5s %2$-5s %3$7s %4$10s %5$12s %6$12s %7$12s %8$12s %9$s%n", "Day", "Part",
+                "Warmup", "Iterations", "Min ms", "Median ms", "P99 ms", "Max ms", "Answers"));
+        int failures = 0;
+        for (final DayTemplate day : this.days.orderedStream().toList()) {
+            final int dayWarmup = property(day, "warmup", this.warmup);
+            final int dayIterations = Math.max(1, property(day, "iterations", this.iterations));
+            for (final Part part : day.getEnabledParts()) {
+                try {
+                    final long[] nanos = new long[dayIterations];
+                    final boolean consistent = measure(day, part, dayWarmup, nanos);
+                    Arrays.sort(nanos);
+                    builder.append(format("%1$-5d %2$-5s %3$7d %4$10d %5$12.3f %6$12.3f %7$12.3f %8$12.3f %9$s%n",
+                            day.getDayNumber(), part, dayWarmup, dayIterations, nanos[0] / 1e6,
+                            percentile(nanos, 0.5) / 1e6, percentile(nanos, 0.99) / 1e6,
+                            nanos[nanos.length - 1] / 1e6, consistent ? "stable" : "DIFFERENT"));
+                    if (!consistent) {
+                        failures++;
+                    }
+                } catch (final RuntimeException e) {
+                    LOG.error(() -> format("Measuring day%1$d %2$s failed: %3$s", day.getDayNumber(), part, e));
+                    builder.append(format("%1$-5d %2$-5s failed: %3$s%n", day.getDayNumber(), part, e));
+                    failures++;
+                } finally {
+                    day.releaseInput(part);
+                }
+            }
+        }
+        final String result = builder.toString();
+        LOG.info(() -> result);
+        SolutionWriter.writeReportToFile(this.report, result);
+        SolutionWriter.flush();
+        return failures;
+    }
+
+    /**
+     * Runs the warmup and measured iterations of one part.
+     *
+     * @param day    the day to run
+     * @param part   the part to run
+     * @param warmup the number of warmup iterations
+     * @param nanos  receives the solve time of every measured iteration
+     * @return {@code true} if every iteration produced the same answer
+     */
+    private static boolean measure(final DayTemplate day, final Part part, final int warmup, final long[] nanos) {
+        day.loadInput(part);
+        final String expected = day.solvePart(part);
+        boolean consistent = true;
+        for (int i = 0; i < warmup; i++) {
+            consistent &= Objects.equals(expected, day.solvePart(part));
+        }
+        for (int i = 0; i < nanos.length; i++) {
+            final long start = System.nanoTime();
+            final String answer = day.solvePart(part);
+            nanos[i] = System.nanoTime() - start;
+            consistent &= Objects.equals(expected, answer);
+        }
+        if (!consistent) {
+            LOG.warn(() -> format("day%1$d %2$s did not produce the same answer in every iteration",
+                    day.getDayNumber(), part));
+        }
+        return consistent;
+    }
+
+    /**
+     * Reads a per-day iteration count, falling back to the default.
+     *
+     * @param day          the day
+     * @param name         {@code warmup} or {@code iterations}
+     * @param defaultValue the default count
+     * @return the configured count
+     */
+    private int property(final DayTemplate day, final String name, final int defaultValue) {
+        return this.environment.getProperty(format("day%1$d.steady.%2$s", day.getDayNumber(), name),
+                Integer.class, defaultValue);
+    }
+
+    /**
+     * Gets a percentile of sorted values using the nearest-rank method.
+     *
+     * @param sorted   the values in ascending order
+     * @param quantile the quantile between 0 and 1
+     * @return the value at the quantile
+     */
+    private static long percentile(final long[] sorted, final double quantile) {
+        final int rank = (int) Math.ceil(quantile * sorted.length);
+        return sorted[Math.max(0, Math.min(sorted.length - 1, rank - 1))];
+    }
+}
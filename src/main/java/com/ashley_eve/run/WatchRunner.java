@@ -0,0 +1,207 @@
+package com.ashley_eve.run;
+
+import static java.lang.String.format;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.ashley_eve.DayTemplate;
+import com.ashley_eve.Part;
+import com.ashley_eve.file.SolutionWriter;
+import com.ashley_eve.metrics.Phase;
+import com.ashley_eve.metrics.PhaseMetric;
+import com.ashley_eve.metrics.RunMetrics;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+
+/**
+ * The {@code WatchRunner} class keeps the application running after a first full run and re-solves a part
+ * whenever its input file changes. It is selected with {@code run.mode=watch}.
+ *
+ * <p>The Spring context, the loaded classes and the JIT-compiled solvers stay alive between runs, so a re-solve
+ * costs the steady-state solve time instead of a JVM start. The {@code dayN} input directories of the enabled
+ * days are watched with a {@link WatchService}; a change to {@code test.input}, {@code problem1.input} or
+ * {@code problem2.input} re-runs only that day and part, if the part is enabled, reading the changed file
+ * directly and writing the answer through the {@link SolutionWriter}. Changes arriving within the debounce delay
+ * of each other, such as the several events an editor produces when saving, are handled as one.
+ *
+ * <p>Configuration properties:
+ * <ul>
+ *   <li>{@code watch.directory}: the directory holding the {@code dayN} input directories (default
+ *   {@code src/main/resources})</li>
+ *   <li>{@code watch.debounce-ms}: the delay in milliseconds to wait for further changes before re-solving
+ *   (default {@code 100})</li>
+ * </ul>
+ *
+ * <p>Example of property configuration:
+ * <pre>
+ * {@code
+ * run.mode=watch
+ * watch.directory=src/main/resources
+ * }
+ * </pre>
+ */
+@Component
+public class WatchRunner {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(WatchRunner.class);
+
+    /** Scheduler running the first full run. */
+    private final DayScheduler dayScheduler;
+
+    /** Provider of the enabled day beans. */
+    private final ObjectProvider<DayTemplate> days;
+
+    /** The directory holding the input directories. */
+    private final Path directory;
+
+    /** The delay to wait for further changes. */
+    private final long debounceMillis;
+
+    /**
+     * Constructs a WatchRunner.
+     *
+     * @param dayScheduler   the scheduler running the first full run
+     * @param days           provider of the enabled day beans
+     * @param directory      the directory holding the {@code dayN} input directories
+     * @param debounceMillis the delay in milliseconds to wait for further changes
+     */
+    public WatchRunner(final DayScheduler dayScheduler, final ObjectProvider<DayTemplate> days,
+                       @Value("${watch.directory:src/main/resources}") final String directory,
+                       @Value("${watch.debounce-ms:100}") final long debounceMillis) {
+        this.dayScheduler = dayScheduler;
+        this.days = days;
+        this.directory = Path.of(directory);
+        this.debounceMillis = debounceMillis;
+    }
+
+    /**
+     * Runs every enabled part once, then re-solves changed inputs until the thread is interrupted.
+     *
+     * @return the number of tasks of the first run that failed
+     * @throws IOException          if the input directories cannot be watched
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    public int runAll() throws IOException, InterruptedException {
+        final int failures = this.dayScheduler.runAll();
+        final Map<Path, DayTemplate> watched = new HashMap<>();
+        try (WatchService watchService = FileSystems.getDefault().newWatchService()) {
+            for (final DayTemplate day : this.days.orderedStream().toList()) {
+                final Path dayDirectory = this.directory.resolve(format("day%1$d", day.getDayNumber()))
+                        .toAbsolutePath();
+                if (!Files.isDirectory(dayDirectory)) {
+                    LOG.warn(() -> format("Input directory %1$s does not exist, not watching day %2$d",
+                            dayDirectory, day.getDayNumber()));
+                    continue;
+                }
+                dayDirectory.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY);
+                watched.put(dayDirectory, day);
+            }
+            LOG.info(() -> format("Watching %1$d input directories under %2$s for changes", watched.size(),
+                    this.directory.toAbsolutePath()));
+            watch(watchService, watched);
+        } catch (final ClosedWatchServiceException e) {
+            LOG.debug("Watch service closed");
+        }
+        return failures;
+    }
+
+    /**
+     * Waits for changes and re-solves the affected parts.
+     *
+     * @param watchService the watch service the input directories are registered with
+     * @param watched      the day of every watched directory
+     * @throws InterruptedException if the calling thread is interrupted while waiting
+     */
+    private void watch(final WatchService watchService, final Map<Path, DayTemplate> watched)
+            throws InterruptedException {
+        while (!Thread.currentThread().isInterrupted()) {
+            final Map<String, Change> changes = new LinkedHashMap<>();
+            WatchKey key = watchService.take();
+            while (key != null) {
+                final Path dayDirectory = (Path) key.watchable();
+                final DayTemplate day = watched.get(dayDirectory);
+                for (final WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW || day == null) {
+                        continue;
+                    }
+                    final Path file = dayDirectory.resolve((Path) event.context());
+                    final Part part = partOf(file.getFileName().toString());
+                    if (part != null && day.getEnabledParts().contains(part)) {
+                        changes.put(format("day%1$d %2$s", day.getDayNumber(), part), new Change(day, part, file));
+                    }
+                }
+                key.reset();
+                key = watchService.poll(this.debounceMillis, TimeUnit.MILLISECONDS);
+            }
+            for (final Change change : changes.values()) {
+                resolve(change);
+            }
+            SolutionWriter.flush();
+        }
+    }
+
+    /**
+     * Re-solves one changed part from its changed input file.
+     *
+     * @param change the changed part
+     */
+    private static void resolve(final Change change) {
+        final DayTemplate day = change.day();
+        final RunMetrics metrics = new RunMetrics(true);
+        try {
+            day.useInputFile(change.part().getProblemNumber(), change.file());
+            day.runPart(change.part(), metrics);
+            final long solveNanos = metrics.getMetrics().stream()
+                    .filter(metric -> metric.phase() == Phase.SOLVE)
+                    .mapToLong(PhaseMetric::wallNanos)
+                    .sum();
+            LOG.info(() -> format("Re-solved day%1$d %2$s in %3$.3f ms", day.getDayNumber(), change.part(),
+                    solveNanos / 1e6));
+        } catch (final RuntimeException e) {
+            LOG.error(() -> format("Re-solving day%1$d %2$s failed: %3$s", day.getDayNumber(), change.part(), e));
+        }
+    }
+
+    /**
+     * Maps an input file name to the part that reads it.
+     *
+     * @param fileName the name of the changed file
+     * @return the part, or {@code null} if the file is not an input
+     */
+    private static Part partOf(final String fileName) {
+        return switch (fileName) {
+            case "test.input" -> Part.TEST;
+            case "problem1.input" -> Part.ONE;
+            case "problem2.input" -> Part.TWO;
+            default -> null;
+        };
+    }
+
+    /**
+     * The {@code Change} record is one changed input waiting to be re-solved.
+     *
+     * @param day  the day reading the input
+     * @param part the part reading the input
+     * @param file the changed input file
+     */
+    private record Change(DayTemplate day, Part part, Path file) {
+    }
+}
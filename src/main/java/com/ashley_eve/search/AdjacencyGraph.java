@@ -0,0 +1,191 @@
+package com.ashley_eve.search;
+
+import com.ashley_eve.structure.IntList;
+import com.ashley_eve.structure.LongList;
+
+
+/**
+ * The {@code AdjacencyGraph} class is an explicit weighted graph in compressed sparse row form: the edges of
+ * node {@code n} are the entries {@code offsets[n]} to {@code offsets[n + 1] - 1} of two flat arrays holding the
+ * targets and weights. Compared to a {@code Map<Node, List<Edge>>} it needs three arrays in total and
+ * enumerating the edges of a node is a tight loop over consecutive memory.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * AdjacencyGraph.Builder builder = AdjacencyGraph.builder(names.size());
+ * for (byte[] line : getProblem1Input()) {
+ *     builder.addUndirectedEdge(id(line, 0), id(line, 4), 1);
+ * }
+ * SearchResult result = Search.bfs(builder.build(), start);
+ * }</pre>
+ */
+public final class AdjacencyGraph implements Graph {
+
+    /** The start of the edges of every node, plus the total edge count at index {@code size()}. */
+    private final int[] offsets;
+
+    /** The edge targets, grouped by source node. */
+    private final int[] targets;
+
+    /** The edge weights, matching {@link #targets}. */
+    private final long[] weights;
+
+    /**
+     * Constructs an AdjacencyGraph around compressed arrays.
+     *
+     * @param offsets the start of the edges of every node, plus the edge count
+     * @param targets the edge targets
+     * @param weights the edge weights
+     */
+    private AdjacencyGraph(final int[] offsets, final int[] targets, final long[] weights) {
+        this.offsets = offsets;
+        this.targets = targets;
+        this.weights = weights;
+    }
+
+    /**
+     * Creates a builder for a graph with a fixed number of nodes.
+     *
+     * @param size the number of nodes
+     * @return the builder
+     */
+    public static Builder builder(final int size) {
+        return new Builder(size);
+    }
+
+    @Override
+    public int size() {
+        return this.offsets.length - 1;
+    }
+
+    /**
+     * Gets the number of edges.
+     *
+     * @return the edge count
+     */
+    public int edgeCount() {
+        return this.targets.length;
+    }
+
+    /**
+     * Gets the number of outgoing edges of a node.
+     *
+     * @param node the node
+     * @return the out-degree of the node
+     */
+    public int degree(final int node) {
+        return this.offsets[node + 1] - this.offsets[node];
+    }
+
+    @Override
+    public void forEachEdge(final int node, final EdgeConsumer edges) {
+        for (int i = this.offsets[node], end = this.offsets[node + 1]; i < end; i++) {
+            edges.accept(this.targets[i], this.weights[i]);
+        }
+    }
+
+    /**
+     * The {@code Builder} class collects the edges of an {@link AdjacencyGraph} in any order and sorts them by
+     * source node when the graph is built.
+     */
+    public static final class Builder {
+
+        /** The number of nodes. */
+        private final int size;
+
+        /** The source of every edge added so far. */
+        private final IntList sources = new IntList();
+
+        /** The target of every edge added so far. */
+        private final IntList targets = new IntList();
+
+        /** The weight of every edge added so far. */
+        private final LongList weights = new LongList();
+
+        /**
+         * Constructs a Builder.
+         *
+         * @param size the number of nodes
+         */
+        private Builder(final int size) {
+            if (size < 0) {
+                throw new IllegalArgumentException(String.format("Graph size must not be negative: %1$d", size));
+            }
+            this.size = size;
+        }
+
+        /**
+         * Adds a directed edge.
+         *
+         * @param source the node the edge starts at
+         * @param target the node the edge leads to
+         * @param weight the non-negative weight of the edge
+         * @return this builder
+         * @throws IllegalArgumentException if a node is out of range or the weight is negative
+         */
+        public Builder addEdge(final int source, final int target, final long weight) {
+            checkNode(source);
+            checkNode(target);
+            if (weight < 0) {
+                throw new IllegalArgumentException(String.format("Edge %1$d -> %2$d has negative weight %3$d",
+                        source, target, weight));
+            }
+            this.sources.add(source);
+            this.targets.add(target);
+            this.weights.add(weight);
+            return this;
+        }
+
+        /**
+         * Adds an edge in both directions.
+         *
+         * @param first  one end of the edge
+         * @param second the other end of the edge
+         * @param weight the non-negative weight of the edge
+         * @return this builder
+         * @throws IllegalArgumentException if a node is out of range or the weight is negative
+         */
+        public Builder addUndirectedEdge(final int first, final int second, final long weight) {
+            return addEdge(first, second, weight).addEdge(second, first, weight);
+        }
+
+        /**
+         * Builds the graph. Edges of the same node keep the order in which they were added.
+         *
+         * @return the graph
+         */
+        public AdjacencyGraph build() {
+            final int edgeCount = this.sources.size();
+            final int[] offsets = new int[this.size + 1];
+            for (int i = 0; i < edgeCount; i++) {
+                offsets[this.sources.get(i) + 1]++;
+            }
+            for (int node = 0; node < this.size; node++) {
+                offsets[node + 1] += offsets[node];
+            }
+            final int[] next = new int[this.size];
+            System.arraycopy(offsets, 0, next, 0, this.size);
+            final int[] edgeTargets = new int[edgeCount];
+            final long[] edgeWeights = new long[edgeCount];
+            for (int i = 0; i < edgeCount; i++) {
+                final int slot = next[this.sources.get(i)]++;
+                edgeTargets[slot] = this.targets.get(i);
+                edgeWeights[slot] = this.weights.get(i);
+            }
+            return new AdjacencyGraph(offsets, edgeTargets, edgeWeights);
+        }
+
+        /**
+         * Checks that a node is within the graph.
+         *
+         * @param node the node to check
+         * @throws IllegalArgumentException if the node is out of range
+         */
+        private void checkNode(final int node) {
+            if (node < 0 || node >= this.size) {
+                throw new IllegalArgumentException(String.format("Node %1$d out of range [0, %2$d)", node,
+                        this.size));
+            }
+        }
+    }
+}
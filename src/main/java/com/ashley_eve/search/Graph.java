@@ -0,0 +1,103 @@
+package com.ashley_eve.search;
+
+import java.util.function.IntPredicate;
+
+import com.ashley_eve.structure.Grid;
+
+
+/**
+ * The {@code Graph} interface is the view of a puzzle that the {@link Search} engine explores. Nodes are the
+ * {@code int} values {@code 0} to {@code size() - 1}, so a state such as {@code (cell, direction)} is encoded
+ * into one {@code int} (e.g. {@code cell * 4 + direction}) and the search keeps its distances, parents and
+ * visited set in flat arrays indexed by it instead of hash maps of boxed states.
+ *
+ * <p>Edges are reported to an {@link EdgeConsumer} rather than returned as a collection, so enumerating the
+ * neighbours of a node allocates nothing. {@link #grid4(Grid, byte)} and {@link #grid8(Grid, byte)} view a grid
+ * directly, {@link AdjacencyGraph} stores an explicit graph in compressed arrays, and puzzle-specific state
+ * spaces implement the interface themselves.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * Graph states = new Graph() {
+ *     public int size() {
+ *         return grid.size() * 4;
+ *     }
+ *
+ *     public void forEachEdge(int state, Graph.EdgeConsumer edges) {
+ *         int cell = state >> 2;
+ *         int direction = state & 3;
+ *         edges.accept(cell << 2 | (direction + 1) & 3, 1000);
+ *         ...
+ *     }
+ * };
+ * }</pre>
+ */
+public interface Graph {
+
+    /**
+     * Gets the number of nodes.
+     *
+     * @return the number of nodes; every node is in {@code [0, size())}
+     */
+    int size();
+
+    /**
+     * Reports every outgoing edge of a node.
+     *
+     * @param node  the node whose edges are reported
+     * @param edges receives the target and weight of every edge
+     */
+    void forEachEdge(int node, EdgeConsumer edges);
+
+    /**
+     * Views a grid as a graph whose nodes are the flat cell indices and whose unit-weight edges join orthogonal
+     * neighbours that are not walls.
+     *
+     * @param grid the grid
+     * @param wall the cell value that cannot be entered
+     * @return the grid graph
+     */
+    static Graph grid4(final Grid grid, final byte wall) {
+        return new GridGraph(grid, false, index -> grid.get(index) != wall);
+    }
+
+    /**
+     * Views a grid as a graph whose nodes are the flat cell indices and whose unit-weight edges join all eight
+     * neighbours that are not walls.
+     *
+     * @param grid the grid
+     * @param wall the cell value that cannot be entered
+     * @return the grid graph
+     */
+    static Graph grid8(final Grid grid, final byte wall) {
+        return new GridGraph(grid, true, index -> grid.get(index) != wall);
+    }
+
+    /**
+     * Views a grid as a graph whose nodes are the flat cell indices and whose unit-weight edges join neighbours
+     * accepted by a predicate.
+     *
+     * @param grid      the grid
+     * @param diagonals {@code true} to include the four diagonal neighbours
+     * @param open      tests whether the cell at a flat index can be entered
+     * @return the grid graph
+     */
+    static Graph grid(final Grid grid, final boolean diagonals, final IntPredicate open) {
+        return new GridGraph(grid, diagonals, open);
+    }
+
+    /**
+     * The {@code EdgeConsumer} interface receives the edges of a node from {@link Graph#forEachEdge}.
+     */
+    @FunctionalInterface
+    interface EdgeConsumer {
+
+        /**
+         * Accepts one edge.
+         *
+         * @param target the node the edge leads to
+         * @param weight the non-negative weight of the edge
+         */
+        void accept(int target, long weight);
+    }
+}
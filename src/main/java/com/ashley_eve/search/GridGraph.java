@@ -0,0 +1,64 @@
+package com.ashley_eve.search;
+
+import java.util.function.IntPredicate;
+
+import com.ashley_eve.structure.Grid;
+
+
+/**
+ * The {@code GridGraph} class views a {@link Grid} as a {@link Graph} of its flat cell indices with unit-weight
+ * edges between open neighbours. It computes the neighbours from the row and column of a cell on every call
+ * and holds no per-node state.
+ */
+final class GridGraph implements Graph {
+
+    /** Row offsets of the neighbours: up, right, down, left, then the diagonals clockwise from up-right. */
+    private static final int[] ROWS = {-1, 0, 1, 0, -1, 1, 1, -1};
+
+    /** Column offsets of the neighbours, matching {@link #ROWS}. */
+    private static final int[] COLUMNS = {0, 1, 0, -1, 1, 1, -1, -1};
+
+    /** The grid. */
+    private final Grid grid;
+
+    /** The number of neighbour offsets that are used: four or eight. */
+    private final int directions;
+
+    /** Tests whether the cell at a flat index can be entered. */
+    private final IntPredicate open;
+
+    /**
+     * Constructs a GridGraph.
+     *
+     * @param grid      the grid
+     * @param diagonals {@code true} to include the four diagonal neighbours
+     * @param open      tests whether the cell at a flat index can be entered
+     */
+    GridGraph(final Grid grid, final boolean diagonals, final IntPredicate open) {
+        this.grid = grid;
+        this.directions = diagonals ? 8 : 4;
+        this.open = open;
+    }
+
+    @Override
+    public int size() {
+        return this.grid.size();
+    }
+
+    @Override
+    public void forEachEdge(final int node, final EdgeConsumer edges) {
+        final int width = this.grid.width();
+        final int row = node / width;
+        final int column = node % width;
+        for (int i = 0; i < this.directions; i++) {
+            final int nextRow = row + ROWS[i];
+            final int nextColumn = column + COLUMNS[i];
+            if (this.grid.inBounds(nextRow, nextColumn)) {
+                final int next = nextRow * width + nextColumn;
+                if (this.open.test(next)) {
+                    edges.accept(next, 1);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,83 @@
+package com.ashley_eve.search;
+
+import com.ashley_eve.structure.Grid;
+
+
+/**
+ * The {@code Heuristic} interface estimates the remaining distance from a node to the nearest goal for
+ * {@link Search#aStar}. The estimate must never exceed the true distance, or A* may return a longer path than
+ * the shortest one; an estimate that also never drops by more than an edge weight along an edge (a consistent
+ * heuristic) lets A* expand every node at most once.
+ */
+@FunctionalInterface
+public interface Heuristic {
+
+    /**
+     * Estimates the remaining distance from a node to the nearest goal.
+     *
+     * @param node the node
+     * @return a lower bound of the remaining distance
+     */
+    long estimate(int node);
+
+    /**
+     * Gets the heuristic that estimates zero everywhere, which turns A* into Dijkstra's algorithm.
+     *
+     * @return the zero heuristic
+     */
+    static Heuristic none() {
+        return node -> 0;
+    }
+
+    /**
+     * Gets the Manhattan distance to the nearest target cell, admissible for grids with orthogonal moves of
+     * weight at least one.
+     *
+     * @param grid    the grid whose flat indices are the nodes
+     * @param targets the flat indices of the target cells
+     * @return the Manhattan heuristic
+     */
+    static Heuristic manhattan(final Grid grid, final int... targets) {
+        final int[] rows = new int[targets.length];
+        final int[] columns = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            rows[i] = grid.row(targets[i]);
+            columns[i] = grid.column(targets[i]);
+        }
+        return node -> {
+            final int row = grid.row(node);
+            final int column = grid.column(node);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                best = Math.min(best, Math.abs(row - rows[i]) + Math.abs(column - columns[i]));
+            }
+            return best == Long.MAX_VALUE ? 0 : best;
+        };
+    }
+
+    /**
+     * Gets the Chebyshev distance to the nearest target cell, admissible for grids with orthogonal and diagonal
+     * moves of weight at least one.
+     *
+     * @param grid    the grid whose flat indices are the nodes
+     * @param targets the flat indices of the target cells
+     * @return the Chebyshev heuristic
+     */
+    static Heuristic chebyshev(final Grid grid, final int... targets) {
+        final int[] rows = new int[targets.length];
+        final int[] columns = new int[targets.length];
+        for (int i = 0; i < targets.length; i++) {
+            rows[i] = grid.row(targets[i]);
+            columns[i] = grid.column(targets[i]);
+        }
+        return node -> {
+            final int row = grid.row(node);
+            final int column = grid.column(node);
+            long best = Long.MAX_VALUE;
+            for (int i = 0; i < rows.length; i++) {
+                best = Math.min(best, Math.max(Math.abs(row - rows[i]), Math.abs(column - columns[i])));
+            }
+            return best == Long.MAX_VALUE ? 0 : best;
+        };
+    }
+}
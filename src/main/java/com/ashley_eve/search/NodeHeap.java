@@ -0,0 +1,121 @@
+package com.ashley_eve.search;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@code NodeHeap} class is a binary min-heap of {@code (priority, node)} pairs kept in two parallel
+ * primitive arrays, the priority queue of {@link Search#dijkstra} and {@link Search#aStar}. It has no
+ * decrease-key operation: a node whose distance improves is pushed again and the search skips the stale entry
+ * when it is polled, which keeps the heap free of a position index.
+ */
+final class NodeHeap {
+
+    /** The priorities in heap order. */
+    private long[] priorities;
+
+    /** The nodes, matching {@link #priorities}. */
+    private int[] nodes;
+
+    /** The number of entries in the heap. */
+    private int size;
+
+    /** The node of the last polled entry. */
+    private int polledNode;
+
+    /** The priority of the last polled entry. */
+    private long polledPriority;
+
+    /**
+     * Constructs an empty NodeHeap.
+     *
+     * @param capacity the initial capacity
+     */
+    NodeHeap(final int capacity) {
+        final int initial = Math.max(16, capacity);
+        this.priorities = new long[initial];
+        this.nodes = new int[initial];
+    }
+
+    /**
+     * Checks whether the heap holds no entries.
+     *
+     * @return {@code true} if the heap is empty
+     */
+    boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Adds an entry.
+     *
+     * @param node     the node
+     * @param priority the priority; smaller values are polled first
+     */
+    void push(final int node, final long priority) {
+        if (this.size == this.nodes.length) {
+            this.priorities = Arrays.copyOf(this.priorities, this.size * 2);
+            this.nodes = Arrays.copyOf(this.nodes, this.size * 2);
+        }
+        int child = this.size++;
+        while (child > 0) {
+            final int parent = (child - 1) >>> 1;
+            if (this.priorities[parent] <= priority) {
+                break;
+            }
+            this.priorities[child] = this.priorities[parent];
+            this.nodes[child] = this.nodes[parent];
+            child = parent;
+        }
+        this.priorities[child] = priority;
+        this.nodes[child] = node;
+    }
+
+    /**
+     * Removes the entry with the smallest priority; read it with {@link #polledNode()} and
+     * {@link #polledPriority()}. The heap must not be empty.
+     */
+    void poll() {
+        this.polledNode = this.nodes[0];
+        this.polledPriority = this.priorities[0];
+        final int last = --this.size;
+        final long priority = this.priorities[last];
+        final int node = this.nodes[last];
+        int parent = 0;
+        while (true) {
+            int child = 2 * parent + 1;
+            if (child >= last) {
+                break;
+            }
+            if (child + 1 < last && this.priorities[child + 1] < this.priorities[child]) {
+                child++;
+            }
+            if (this.priorities[child] >= priority) {
+                break;
+            }
+            this.priorities[parent] = this.priorities[child];
+            this.nodes[parent] = this.nodes[child];
+            parent = child;
+        }
+        this.priorities[parent] = priority;
+        this.nodes[parent] = node;
+    }
+
+    /**
+     * Gets the node of the entry removed by the last {@link #poll()}.
+     *
+     * @return the polled node
+     */
+    int polledNode() {
+        return this.polledNode;
+    }
+
+    /**
+     * Gets the priority of the entry removed by the last {@link #poll()}.
+     *
+     * @return the polled priority
+     */
+    long polledPriority() {
+        return this.polledPriority;
+    }
+}
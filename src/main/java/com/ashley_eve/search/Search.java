@@ -0,0 +1,280 @@
+package com.ashley_eve.search;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.function.IntPredicate;
+
+
+/**
+ * The {@code Search} class runs shortest-path searches over a {@link Graph} whose nodes are plain {@code int}
+ * values: breadth-first search for unit weights, Dijkstra's algorithm for non-negative weights and A* with a
+ * {@link Heuristic}. All of them keep their state in flat primitive arrays sized to the graph (a bitset for
+ * the visited set, a {@code long[]} of distances, an {@code int[]} of predecessors and a primitive queue or
+ * heap), so a search allocates a handful of arrays up front and nothing per node, instead of the boxed states,
+ * hash sets and {@code PriorityQueue} entries of a hand-rolled search.
+ *
+ * <p>Every search accepts several sources and finds the distance from the nearest of them, e.g. the
+ * distance of every cell to the closest exit. An optional goal predicate stops the search at the first goal
+ * whose distance is final; without one the search explores everything reachable.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * Grid grid = Grid.of(getProblem1Input());
+ * int start = grid.find((byte) 'S');
+ * int end = grid.find((byte) 'E');
+ * SearchResult result = Search.aStar(Graph.grid4(grid, (byte) '#'), Heuristic.manhattan(grid, end),
+ *         node -> node == end, start);
+ * long steps = result.goalDistance();
+ * }</pre>
+ */
+public final class Search {
+
+    /**
+     * Private empty constructor to prevent instantiation.
+     */
+    private Search() {
+    }
+
+    /**
+     * Runs a breadth-first search that explores every node reachable from the sources, counting every edge
+     * as one step regardless of its weight.
+     *
+     * @param graph   the graph to search
+     * @param sources the nodes the search starts from
+     * @return the search result
+     */
+    public static SearchResult bfs(final Graph graph, final int... sources) {
+        return bfs(graph, null, sources);
+    }
+
+    /**
+     * Runs a breadth-first search from the sources until it reaches a goal, counting every edge as one step
+     * regardless of its weight.
+     *
+     * @param graph   the graph to search
+     * @param goal    tests whether a node is a goal, or {@code null} to explore every reachable node
+     * @param sources the nodes the search starts from
+     * @return the search result
+     */
+    public static SearchResult bfs(final Graph graph, final IntPredicate goal, final int... sources) {
+        final BreadthFirst search = new BreadthFirst(graph.size());
+        for (final int source : sources) {
+            search.enqueue(source, -1, 0);
+        }
+        int expanded = 0;
+        while (search.head < search.tail) {
+            final int node = search.queue[search.head++];
+            if (goal != null && goal.test(node)) {
+                return new SearchResult(search.distances, search.parents, node, expanded);
+            }
+            search.current = node;
+            graph.forEachEdge(node, search);
+            expanded++;
+        }
+        return new SearchResult(search.distances, search.parents, -1, expanded);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm that explores every node reachable from the sources.
+     *
+     * @param graph   the graph to search; edge weights must not be negative
+     * @param sources the nodes the search starts from
+     * @return the search result
+     * @throws IllegalArgumentException if the search meets a negative edge weight
+     */
+    public static SearchResult dijkstra(final Graph graph, final int... sources) {
+        return aStar(graph, Heuristic.none(), null, sources);
+    }
+
+    /**
+     * Runs Dijkstra's algorithm from the sources until it reaches a goal.
+     *
+     * @param graph   the graph to search; edge weights must not be negative
+     * @param goal    tests whether a node is a goal, or {@code null} to explore every reachable node
+     * @param sources the nodes the search starts from
+     * @return the search result
+     * @throws IllegalArgumentException if the search meets a negative edge weight
+     */
+    public static SearchResult dijkstra(final Graph graph, final IntPredicate goal, final int... sources) {
+        return aStar(graph, Heuristic.none(), goal, sources);
+    }
+
+    /**
+     * Runs an A* search from the sources until it reaches a goal. With an admissible heuristic the goal
+     * distance is the shortest one; a node whose distance improves after it was expanded is expanded again,
+     * so heuristics that are admissible but not consistent remain correct.
+     *
+     * @param graph     the graph to search; edge weights must not be negative
+     * @param heuristic estimates the remaining distance of a node to the nearest goal
+     * @param goal      tests whether a node is a goal, or {@code null} to explore every reachable node
+     * @param sources   the nodes the search starts from
+     * @return the search result
+     * @throws IllegalArgumentException if the search meets a negative edge weight
+     */
+    public static SearchResult aStar(final Graph graph, final Heuristic heuristic, final IntPredicate goal,
+                                     final int... sources) {
+        final BestFirst search = new BestFirst(graph.size(), heuristic);
+        for (final int source : sources) {
+            if (search.distances[source] != 0) {
+                search.distances[source] = 0;
+                search.heap.push(source, heuristic.estimate(source));
+            }
+        }
+        int expanded = 0;
+        final NodeHeap heap = search.heap;
+        while (!heap.isEmpty()) {
+            heap.poll();
+            final int node = heap.polledNode();
+            final long distance = search.distances[node];
+            if (heap.polledPriority() > distance + heuristic.estimate(node)) {
+                continue;
+            }
+            if (goal != null && goal.test(node)) {
+                return new SearchResult(search.distances, search.parents, node, expanded);
+            }
+            search.current = node;
+            search.currentDistance = distance;
+            graph.forEachEdge(node, search);
+            expanded++;
+        }
+        return new SearchResult(search.distances, search.parents, -1, expanded);
+    }
+
+    /**
+     * Creates a distance array with every node unreached.
+     *
+     * @param size the number of nodes
+     * @return the distances
+     */
+    private static long[] unreached(final int size) {
+        final long[] distances = new long[size];
+        Arrays.fill(distances, Long.MAX_VALUE);
+        return distances;
+    }
+
+    /**
+     * Creates a predecessor array with no predecessors.
+     *
+     * @param size the number of nodes
+     * @return the predecessors
+     */
+    private static int[] noParents(final int size) {
+        final int[] parents = new int[size];
+        Arrays.fill(parents, -1);
+        return parents;
+    }
+
+    /**
+     * The {@code BreadthFirst} class holds the state of a breadth-first search and receives the edges of the
+     * node being expanded. Every node enters the queue at most once, so the queue is a plain array of the
+     * graph size.
+     */
+    private static final class BreadthFirst implements Graph.EdgeConsumer {
+
+        /** The nodes that have been queued. */
+        private final BitSet visited;
+
+        /** The distance of every node. */
+        private final long[] distances;
+
+        /** The predecessor of every node. */
+        private final int[] parents;
+
+        /** The queued nodes in the order they were reached. */
+        private final int[] queue;
+
+        /** The position of the next node to expand. */
+        private int head;
+
+        /** The position after the last queued node. */
+        private int tail;
+
+        /** The node being expanded. */
+        private int current;
+
+        /**
+         * Constructs a BreadthFirst state for a graph.
+         *
+         * @param size the number of nodes
+         */
+        private BreadthFirst(final int size) {
+            this.visited = new BitSet(size);
+            this.distances = unreached(size);
+            this.parents = noParents(size);
+            this.queue = new int[size];
+        }
+
+        @Override
+        public void accept(final int target, final long weight) {
+            enqueue(target, this.current, this.distances[this.current] + 1);
+        }
+
+        /**
+         * Queues a node the first time it is reached.
+         *
+         * @param node     the node
+         * @param parent   the node it was reached from, or {@code -1} for a source
+         * @param distance the distance of the node
+         */
+        private void enqueue(final int node, final int parent, final long distance) {
+            if (!this.visited.get(node)) {
+                this.visited.set(node);
+                this.distances[node] = distance;
+                this.parents[node] = parent;
+                this.queue[this.tail++] = node;
+            }
+        }
+    }
+
+    /**
+     * The {@code BestFirst} class holds the state of a Dijkstra or A* search and relaxes the edges of the node
+     * being expanded.
+     */
+    private static final class BestFirst implements Graph.EdgeConsumer {
+
+        /** The best known distance of every node. */
+        private final long[] distances;
+
+        /** The predecessor of every node. */
+        private final int[] parents;
+
+        /** The open nodes ordered by distance plus estimate. */
+        private final NodeHeap heap;
+
+        /** The estimate of the remaining distance. */
+        private final Heuristic heuristic;
+
+        /** The node being expanded. */
+        private int current;
+
+        /** The distance of the node being expanded. */
+        private long currentDistance;
+
+        /**
+         * Constructs a BestFirst state for a graph.
+         *
+         * @param size      the number of nodes
+         * @param heuristic the estimate of the remaining distance
+         */
+        private BestFirst(final int size, final Heuristic heuristic) {
+            this.distances = unreached(size);
+            this.parents = noParents(size);
+            this.heap = new NodeHeap(Math.min(size, 1 << 12));
+            this.heuristic = heuristic;
+        }
+
+        @Override
+        public void accept(final int target, final long weight) {
+            if (weight < 0) {
+                throw new IllegalArgumentException(String.format("Edge %1$d -> %2$d has negative weight %3$d",
+                        this.current, target, weight));
+            }
+            final long distance = this.currentDistance + weight;
+            if (distance < this.distances[target]) {
+                this.distances[target] = distance;
+                this.parents[target] = this.current;
+                this.heap.push(target, distance + this.heuristic.estimate(target));
+            }
+        }
+    }
+}
@@ -0,0 +1,149 @@
+package com.ashley_eve.search;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@code SearchResult} class holds the outcome of a {@link Search}: the distance and predecessor of every
+ * reached node in flat arrays indexed by node, the goal the search stopped at, and the number of nodes it
+ * expanded. Paths are rebuilt on demand by following the predecessors back to a source.
+ */
+public final class SearchResult {
+
+    /** The distance reported for nodes that were not reached. */
+    public static final long UNREACHABLE = -1;
+
+    /** The distance of every node, {@link Long#MAX_VALUE} for nodes that were not reached. */
+    private final long[] distances;
+
+    /** The predecessor of every node on its shortest path, {@code -1} for sources and unreached nodes. */
+    private final int[] parents;
+
+    /** The goal the search stopped at, {@code -1} if it stopped without reaching one. */
+    private final int goal;
+
+    /** The number of nodes whose edges were enumerated. */
+    private final int expanded;
+
+    /**
+     * Constructs a SearchResult.
+     *
+     * @param distances the distance of every node, {@link Long#MAX_VALUE} for unreached nodes
+     * @param parents   the predecessor of every node, {@code -1} for sources and unreached nodes
+     * @param goal      the goal the search stopped at, or {@code -1}
+     * @param expanded  the number of nodes whose edges were enumerated
+     */
+    SearchResult(final long[] distances, final int[] parents, final int goal, final int expanded) {
+        this.distances = distances;
+        this.parents = parents;
+        this.goal = goal;
+        this.expanded = expanded;
+    }
+
+    /**
+     * Gets the goal the search stopped at.
+     *
+     * @return the goal node, or {@code -1} if no goal was reached or none was given
+     */
+    public int goal() {
+        return this.goal;
+    }
+
+    /**
+     * Checks whether the search reached a goal.
+     *
+     * @return {@code true} if a goal was reached
+     */
+    public boolean foundGoal() {
+        return this.goal >= 0;
+    }
+
+    /**
+     * Gets the distance of the goal the search stopped at.
+     *
+     * @return the goal distance, or {@link #UNREACHABLE} if no goal was reached
+     */
+    public long goalDistance() {
+        return this.goal >= 0 ? this.distances[this.goal] : UNREACHABLE;
+    }
+
+    /**
+     * Checks whether a node was reached. When the search stopped at a goal, nodes at the same or a larger
+     * distance may not have been reached yet.
+     *
+     * @param node the node
+     * @return {@code true} if the node has a distance
+     */
+    public boolean reached(final int node) {
+        return this.distances[node] != Long.MAX_VALUE;
+    }
+
+    /**
+     * Gets the shortest distance from the nearest source to a node.
+     *
+     * @param node the node
+     * @return the distance, or {@link #UNREACHABLE} if the node was not reached
+     */
+    public long distance(final int node) {
+        final long distance = this.distances[node];
+        return distance == Long.MAX_VALUE ? UNREACHABLE : distance;
+    }
+
+    /**
+     * Gets the predecessor of a node on its shortest path.
+     *
+     * @param node the node
+     * @return the predecessor, or {@code -1} for sources and unreached nodes
+     */
+    public int parent(final int node) {
+        return this.parents[node];
+    }
+
+    /**
+     * Rebuilds the shortest path from its source to a node.
+     *
+     * @param node the last node of the path
+     * @return the nodes of the path from the source to the node, empty if the node was not reached
+     */
+    public int[] path(final int node) {
+        if (!reached(node)) {
+            return new int[0];
+        }
+        int length = 1;
+        for (int at = this.parents[node]; at >= 0; at = this.parents[at]) {
+            length++;
+        }
+        final int[] path = new int[length];
+        for (int at = node, i = length - 1; at >= 0; at = this.parents[at], i--) {
+            path[i] = at;
+        }
+        return path;
+    }
+
+    /**
+     * Gets the number of reached nodes.
+     *
+     * @return the count of nodes that have a distance
+     */
+    public int reachedCount() {
+        return (int) Arrays.stream(this.distances).filter(distance -> distance != Long.MAX_VALUE).count();
+    }
+
+    /**
+     * Gets the number of nodes whose edges the search enumerated, a measure of the work it did.
+     *
+     * @return the number of expanded nodes
+     */
+    public int expanded() {
+        return this.expanded;
+    }
+
+    /**
+     * Gets the number of nodes of the searched graph.
+     *
+     * @return the graph size
+     */
+    public int size() {
+        return this.distances.length;
+    }
+}
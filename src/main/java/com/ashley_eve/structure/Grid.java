@@ -0,0 +1,541 @@
+package com.ashley_eve.structure;
+
+import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.IntConsumer;
+
+import com.ashley_eve.file.MappedInput;
+
+
+/**
+ * The {@code Grid} class is a two-dimensional grid of bytes backed by one flat {@code byte[]} in row-major
+ * order. A cell is addressed either by {@code (row, column)} or by its flat index {@code row * width + column},
+ * which is what the neighbour iteration and search methods hand out so that hot loops stay on primitives.
+ *
+ * <p>Every accessor comes in a bounds-checked form, which throws {@link IndexOutOfBoundsException}, and an
+ * unchecked form for inner loops that already guarantee valid coordinates.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * Grid grid = Grid.of(getProblem1Input());
+ * for (int start : grid.findAll((byte) 'X')) {
+ *     grid.forEachNeighbour8(start, next -> {
+ *         if (grid.get(next) == 'M') {
+ *             ...
+ *         }
+ *     });
+ * }
+ * }</pre>
+ */
+public final class Grid {
+
+    /** Row offsets of the four orthogonal neighbours: up, right, down, left. */
+    private static final int[] ROW_4 = {-1, 0, 1, 0};
+
+    /** Column offsets of the four orthogonal neighbours: up, right, down, left. */
+    private static final int[] COLUMN_4 = {0, 1, 0, -1};
+
+    /** Row offsets of all eight neighbours, clockwise from up. */
+    private static final int[] ROW_8 = {-1, -1, 0, 1, 1, 1, 0, -1};
+
+    /** Column offsets of all eight neighbours, clockwise from up. */
+    private static final int[] COLUMN_8 = {0, 1, 1, 1, 0, -1, -1, -1};
+
+    /** The cells in row-major order. */
+    private final byte[] cells;
+
+    /** The number of columns. */
+    private final int width;
+
+    /** The number of rows. */
+    private final int height;
+
+    /**
+     * Constructs a Grid with every cell set to the given value.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param fill   the initial value of every cell
+     */
+    public Grid(final int width, final int height, final byte fill) {
+        this(width, height, new byte[Math.multiplyExact(width, height)]);
+        Arrays.fill(this.cells, fill);
+    }
+
+    /**
+     * Constructs a Grid around existing row-major cells.
+     *
+     * @param width  the number of columns
+     * @param height the number of rows
+     * @param cells  the cells in row-major order
+     */
+    private Grid(final int width, final int height, final byte[] cells) {
+        this.width = width;
+        this.height = height;
+        this.cells = cells;
+    }
+
+    /**
+     * Builds a grid from the lines of an input, one row per line.
+     *
+     * @param input the input holding the rows
+     * @return the grid
+     * @throws IllegalArgumentException if the lines do not all have the same length
+     */
+    public static Grid of(final MappedInput input) {
+        final int height = input.lineCount();
+        final int width = height == 0 ? 0 : input.lineLength(0);
+        final byte[] cells = new byte[Math.multiplyExact(width, height)];
+        final ByteBuffer data = input.buffer();
+        for (int row = 0; row < height; row++) {
+            checkRowLength(row, input.lineLength(row), width);
+            data.get(input.lineStart(row), cells, row * width, width);
+        }
+        return new Grid(width, height, cells);
+    }
+
+    /**
+     * Builds a grid from byte array lines, one row per line.
+     *
+     * @param lines the rows of the grid
+     * @return the grid
+     * @throws IllegalArgumentException if the lines do not all have the same length
+     */
+    public static Grid of(final Collection<byte[]> lines) {
+        final int height = lines.size();
+        final int width = height == 0 ? 0 : lines.iterator().next().length;
+        final byte[] cells = new byte[Math.multiplyExact(width, height)];
+        int row = 0;
+        for (final byte[] line : lines) {
+            checkRowLength(row, line.length, width);
+            System.arraycopy(line, 0, cells, row * width, width);
+            row++;
+        }
+        return new Grid(width, height, cells);
+    }
+
+    /**
+     * Gets the number of columns.
+     *
+     * @return the grid width
+     */
+    public int width() {
+        return this.width;
+    }
+
+    /**
+     * Gets the number of rows.
+     *
+     * @return the grid height
+     */
+    public int height() {
+        return this.height;
+    }
+
+    /**
+     * Gets the number of cells.
+     *
+     * @return the grid size
+     */
+    public int size() {
+        return this.cells.length;
+    }
+
+    /**
+     * Gets the backing row-major array, for hot loops that index it directly.
+     * Changes to the array are visible in the grid.
+     *
+     * @return the backing array
+     */
+    public byte[] cells() {
+        return this.cells;
+    }
+
+    /**
+     * Checks whether the given coordinates lie inside the grid.
+     *
+     * @param row    the row
+     * @param column the column
+     * @return {@code true} if the cell exists
+     */
+    public boolean inBounds(final int row, final int column) {
+        return row >= 0 && row < this.height && column >= 0 && column < this.width;
+    }
+
+    /**
+     * Gets the flat index of the given cell.
+     *
+     * @param row    the row
+     * @param column the column
+     * @return the index into the row-major cells
+     */
+    public int index(final int row, final int column) {
+        return row * this.width + column;
+    }
+
+    /**
+     * Gets the row of a flat index.
+     *
+     * @param index the flat index
+     * @return the row
+     */
+    public int row(final int index) {
+        return index / this.width;
+    }
+
+    /**
+     * Gets the column of a flat index.
+     *
+     * @param index the flat index
+     * @return the column
+     */
+    public int column(final int index) {
+        return index % this.width;
+    }
+
+    /**
+     * Gets the value of the given cell.
+     *
+     * @param row    the row
+     * @param column the column
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if the cell is outside the grid
+     */
+    public byte get(final int row, final int column) {
+        return this.cells[checkedIndex(row, column)];
+    }
+
+    /**
+     * Gets the value of the given cell, or a default for cells outside the grid.
+     *
+     * @param row          the row
+     * @param column       the column
+     * @param defaultValue the value for cells outside the grid
+     * @return the cell value or the default
+     */
+    public byte getOrDefault(final int row, final int column, final byte defaultValue) {
+        return inBounds(row, column) ? this.cells[row * this.width + column] : defaultValue;
+    }
+
+    /**
+     * Gets the value of the given cell without a bounds check on the coordinates.
+     *
+     * @param row    the row
+     * @param column the column
+     * @return the cell value
+     */
+    public byte getUnchecked(final int row, final int column) {
+        return this.cells[row * this.width + column];
+    }
+
+    /**
+     * Gets the value of the cell at a flat index.
+     *
+     * @param index the flat index
+     * @return the cell value
+     * @throws IndexOutOfBoundsException if the index is outside the grid
+     */
+    public byte get(final int index) {
+        return this.cells[index];
+    }
+
+    /**
+     * Sets the value of the given cell.
+     *
+     * @param row    the row
+     * @param column the column
+     * @param value  the new value
+     * @throws IndexOutOfBoundsException if the cell is outside the grid
+     */
+    public void set(final int row, final int column, final byte value) {
+        this.cells[checkedIndex(row, column)] = value;
+    }
+
+    /**
+     * Sets the value of the given cell without a bounds check on the coordinates.
+     *
+     * @param row    the row
+     * @param column the column
+     * @param value  the new value
+     */
+    public void setUnchecked(final int row, final int column, final byte value) {
+        this.cells[row * this.width + column] = value;
+    }
+
+    /**
+     * Sets the value of the cell at a flat index.
+     *
+     * @param index the flat index
+     * @param value the new value
+     * @throws IndexOutOfBoundsException if the index is outside the grid
+     */
+    public void set(final int index, final byte value) {
+        this.cells[index] = value;
+    }
+
+    /**
+     * Calls the consumer with the flat index of every orthogonal neighbour inside the grid,
+     * in the order up, right, down, left.
+     *
+     * @param index    the flat index of the cell
+     * @param consumer receives the neighbour indices
+     */
+    public void forEachNeighbour4(final int index, final IntConsumer consumer) {
+        forEachNeighbour(index, ROW_4, COLUMN_4, consumer);
+    }
+
+    /**
+     * Calls the consumer with the flat index of every neighbour inside the grid, including diagonals,
+     * clockwise from up.
+     *
+     * @param index    the flat index of the cell
+     * @param consumer receives the neighbour indices
+     */
+    public void forEachNeighbour8(final int index, final IntConsumer consumer) {
+        forEachNeighbour(index, ROW_8, COLUMN_8, consumer);
+    }
+
+    /**
+     * Writes the flat indices of the orthogonal neighbours inside the grid into the buffer.
+     *
+     * @param index the flat index of the cell
+     * @param out   the buffer receiving the neighbours, with room for at least four values
+     * @return the number of neighbours written
+     */
+    public int neighbours4(final int index, final int[] out) {
+        return neighbours(index, ROW_4, COLUMN_4, out);
+    }
+
+    /**
+     * Writes the flat indices of all neighbours inside the grid, including diagonals, into the buffer.
+     *
+     * @param index the flat index of the cell
+     * @param out   the buffer receiving the neighbours, with room for at least eight values
+     * @return the number of neighbours written
+     */
+    public int neighbours8(final int index, final int[] out) {
+        return neighbours(index, ROW_8, COLUMN_8, out);
+    }
+
+    /**
+     * Finds the first occurrence of a value in a row.
+     *
+     * @param row   the row to scan
+     * @param value the value to look for
+     * @return the column of the first occurrence, or {@code -1} if the row does not contain it
+     */
+    public int indexInRow(final int row, final byte value) {
+        final int start = checkedIndex(row, 0);
+        for (int column = 0; column < this.width; column++) {
+            if (this.cells[start + column] == value) {
+                return column;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds the first occurrence of a value in a column.
+     *
+     * @param column the column to scan
+     * @param value  the value to look for
+     * @return the row of the first occurrence, or {@code -1} if the column does not contain it
+     */
+    public int indexInColumn(final int column, final byte value) {
+        checkedIndex(0, column);
+        for (int row = 0, index = column; row < this.height; row++, index += this.width) {
+            if (this.cells[index] == value) {
+                return row;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Counts the occurrences of a value in a row.
+     *
+     * @param row   the row to scan
+     * @param value the value to count
+     * @return the number of occurrences
+     */
+    public int countInRow(final int row, final byte value) {
+        final int start = checkedIndex(row, 0);
+        int count = 0;
+        for (int index = start; index < start + this.width; index++) {
+            if (this.cells[index] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Counts the occurrences of a value in a column.
+     *
+     * @param column the column to scan
+     * @param value  the value to count
+     * @return the number of occurrences
+     */
+    public int countInColumn(final int column, final byte value) {
+        checkedIndex(0, column);
+        int count = 0;
+        for (int index = column; index < this.cells.length; index += this.width) {
+            if (this.cells[index] == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Finds the first occurrence of a value in the grid.
+     *
+     * @param value the value to look for
+     * @return the flat index of the first occurrence, or {@code -1} if the grid does not contain it
+     */
+    public int find(final byte value) {
+        for (int index = 0; index < this.cells.length; index++) {
+            if (this.cells[index] == value) {
+                return index;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Finds every occurrence of a value in the grid.
+     *
+     * @param value the value to look for
+     * @return the flat indices of all occurrences in row-major order
+     */
+    public int[] findAll(final byte value) {
+        final int[] found = new int[count(value)];
+        int count = 0;
+        for (int index = 0; count < found.length; index++) {
+            if (this.cells[index] == value) {
+                found[count++] = index;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Counts the occurrences of a value in the grid.
+     *
+     * @param value the value to count
+     * @return the number of occurrences
+     */
+    public int count(final byte value) {
+        int count = 0;
+        for (final byte cell : this.cells) {
+            if (cell == value) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Creates an independent copy of this grid.
+     *
+     * @return the copy
+     */
+    public Grid copy() {
+        return new Grid(this.width, this.height, this.cells.clone());
+    }
+
+    /**
+     * Renders the grid as text, one line per row.
+     *
+     * @return the grid as a String
+     */
+    @Override
+    public String toString() {
+        final StringBuilder builder = new StringBuilder(this.cells.length + this.height);
+        for (int row = 0; row < this.height; row++) {
+            if (row > 0) {
+                builder.append('\n');
+            }
+            for (int column = 0; column < this.width; column++) {
+                builder.append((char) this.cells[row * this.width + column]);
+            }
+        }
+        return builder.toString();
+    }
+
+    /**
+     * Calls the consumer for every neighbour reached by the given offsets that lies inside the grid.
+     *
+     * @param index    the flat index of the cell
+     * @param rows     the row offsets
+     * @param columns  the column offsets
+     * @param consumer receives the neighbour indices
+     */
+    private void forEachNeighbour(final int index, final int[] rows, final int[] columns,
+                                  final IntConsumer consumer) {
+        final int row = index / this.width;
+        final int column = index % this.width;
+        for (int i = 0; i < rows.length; i++) {
+            final int nextRow = row + rows[i];
+            final int nextColumn = column + columns[i];
+            if (inBounds(nextRow, nextColumn)) {
+                consumer.accept(nextRow * this.width + nextColumn);
+            }
+        }
+    }
+
+    /**
+     * Writes every neighbour reached by the given offsets that lies inside the grid into the buffer.
+     *
+     * @param index   the flat index of the cell
+     * @param rows    the row offsets
+     * @param columns the column offsets
+     * @param out     the buffer receiving the neighbours
+     * @return the number of neighbours written
+     */
+    private int neighbours(final int index, final int[] rows, final int[] columns, final int[] out) {
+        final int row = index / this.width;
+        final int column = index % this.width;
+        int count = 0;
+        for (int i = 0; i < rows.length; i++) {
+            final int nextRow = row + rows[i];
+            final int nextColumn = column + columns[i];
+            if (inBounds(nextRow, nextColumn)) {
+                out[count++] = nextRow * this.width + nextColumn;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Converts coordinates into a flat index, checking that they lie inside the grid.
+     *
+     * @param row    the row
+     * @param column the column
+     * @return the flat index
+     * @throws IndexOutOfBoundsException if the cell is outside the grid
+     */
+    private int checkedIndex(final int row, final int column) {
+        if (!inBounds(row, column)) {
+            throw new IndexOutOfBoundsException(String.format("Cell (%1$d, %2$d) outside %3$dx%4$d grid", row, column,
+                    this.height, this.width));
+        }
+        return row * this.width + column;
+    }
+
+    /**
+     * Checks that a row has the width of the grid.
+     *
+     * @param row    the row number
+     * @param length the length of the row
+     * @param width  the expected width
+     * @throws IllegalArgumentException if the row length differs
+     */
+    private static void checkRowLength(final int row, final int length, final int width) {
+        if (length != width) {
+            throw new IllegalArgumentException(String.format("Row %1$d has %2$d columns, expected %3$d", row, length,
+                    width));
+        }
+    }
+}
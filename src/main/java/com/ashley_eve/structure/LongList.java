@@ -0,0 +1,134 @@
+package com.ashley_eve.structure;
+
+import java.util.Arrays;
+
+
+/**
+ * The {@code LongList} class is a growable list of primitive {@code long} values, used in hot loops instead of a
+ * {@code List<Long>} so that adding a value never boxes it. The backing array only grows, so a list that is
+ * {@link #clear() cleared} and refilled, e.g. one handed out by a {@link ScratchArena}, stops allocating once it
+ * has reached its largest size.
+ */
+public final class LongList {
+
+    /** The values; only the first {@link #size} entries are valid. */
+    private long[] values;
+
+    /** The number of values in the list. */
+    private int size;
+
+    /**
+     * Constructs an empty LongList.
+     */
+    public LongList() {
+        this(16);
+    }
+
+    /**
+     * Constructs an empty LongList with room for the given number of values.
+     *
+     * @param capacity the initial capacity
+     */
+    public LongList(final int capacity) {
+        this.values = new long[Math.max(1, capacity)];
+    }
+
+    /**
+     * Appends a value.
+     *
+     * @param value the value to append
+     */
+    public void add(final long value) {
+        if (this.size == this.values.length) {
+            this.values = Arrays.copyOf(this.values, this.size * 2);
+        }
+        this.values[this.size++] = value;
+    }
+
+    /**
+     * Gets the value at an index.
+     *
+     * @param index the index of the value
+     * @return the value
+     */
+    public long get(final int index) {
+        return this.values[checkIndex(index)];
+    }
+
+    /**
+     * Replaces the value at an index.
+     *
+     * @param index the index of the value
+     * @param value the new value
+     */
+    public void set(final int index, final long value) {
+        this.values[checkIndex(index)] = value;
+    }
+
+    /**
+     * Removes and returns the last value, so the list can be used as a stack.
+     *
+     * @return the removed value
+     */
+    public long removeLast() {
+        if (this.size == 0) {
+            throw new IndexOutOfBoundsException("List is empty");
+        }
+        return this.values[--this.size];
+    }
+
+    /**
+     * Gets the number of values.
+     *
+     * @return the size of the list
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Checks whether the list holds no values.
+     *
+     * @return {@code true} if the list is empty
+     */
+    public boolean isEmpty() {
+        return this.size == 0;
+    }
+
+    /**
+     * Removes every value, keeping the backing array.
+     */
+    public void clear() {
+        this.size = 0;
+    }
+
+    /**
+     * Sorts the values in ascending order.
+     */
+    public void sort() {
+        Arrays.sort(this.values, 0, this.size);
+    }
+
+    /**
+     * Copies the values into a new array.
+     *
+     * @return an array of exactly {@link #size()} values
+     */
+    public long[] toArray() {
+        return Arrays.copyOf(this.values, this.size);
+    }
+
+    /**
+     * Checks that an index is within the list.
+     *
+     * @param index the index to check
+     * @return the index
+     */
+    private int checkIndex(final int index) {
+        if (index < 0 || index >= this.size) {
+            throw new IndexOutOfBoundsException(String.format("Index %1$d out of range [0, %2$d)", index,
+                    this.size));
+        }
+        return index;
+    }
+}
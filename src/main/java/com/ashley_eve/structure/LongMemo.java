@@ -0,0 +1,414 @@
+package com.ashley_eve.structure;
+
+import static java.lang.String.format;
+
+import java.util.Arrays;
+import java.util.function.LongUnaryOperator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+
+
+/**
+ * The {@code LongMemo} class is a memoization cache from {@code long} keys to {@code long} values for recursive
+ * counting and dynamic programming solvers. It replaces a {@code HashMap<String, Long>} or
+ * {@code HashMap<List<Integer>, Long>}: the table is open-addressed over primitive arrays, so a lookup allocates
+ * nothing, and the arguments of a recursive call are packed into one key with {@link #pack(int, int)} and its
+ * overloads instead of being wrapped in a key object.
+ *
+ * <p>A memo is either unbounded, growing like a hash map, or bounded to a maximum number of entries. A bounded
+ * memo never resizes; once full it evicts an entry that has not been read or written since the clock hand last
+ * passed it (the CLOCK approximation of least recently used), so a deep recursion over a huge state space keeps
+ * the entries it is currently working with and cannot exhaust the heap.
+ *
+ * <p>The memo counts its hits, misses and evictions; {@link #logStatistics(String)} reports them, and memos
+ * created through {@link com.ashley_eve.DayTemplate#memo(String, int)} are reported automatically after each
+ * part. A memo is confined to one thread.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * private long count(LongMemo memo, int stone, int blinks) {
+ *     long key = LongMemo.pack(stone, blinks);
+ *     long known = memo.get(key, -1);
+ *     if (known >= 0) {
+ *         return known;
+ *     }
+ *     long count = ...;
+ *     memo.put(key, count);
+ *     return count;
+ * }
+ * }</pre>
+ */
+public final class LongMemo {
+
+    /** Static class logger. */
+    private static final Logger LOG = LogManager.getLogger(LongMemo.class);
+
+    /** The initial capacity of an unbounded memo. */
+    private static final int INITIAL_CAPACITY = 1 << 10;
+
+    /** The state of a slot that holds an entry. */
+    private static final byte FULL = 1;
+
+    /** The state flag of an entry that has been used since the clock hand last passed it. */
+    private static final byte REFERENCED = 2;
+
+    /** The name reported in the statistics. */
+    private final String name;
+
+    /** The maximum number of entries, or {@code 0} if the memo is unbounded. */
+    private final int maxSize;
+
+    /** The keys by slot. */
+    private long[] keys;
+
+    /** The values by slot. */
+    private long[] values;
+
+    /** The state of every slot: empty, or {@link #FULL} with an optional {@link #REFERENCED} flag. */
+    private byte[] states;
+
+    /** The number of entries. */
+    private int size;
+
+    /** The slot the clock hand points at. */
+    private int hand;
+
+    /** The number of lookups that found their key. */
+    private long hits;
+
+    /** The number of lookups that did not find their key. */
+    private long misses;
+
+    /** The number of entries evicted to make room for new ones. */
+    private long evictions;
+
+    /**
+     * Constructs an unbounded LongMemo.
+     *
+     * @param name the name reported in the statistics
+     */
+    public LongMemo(final String name) {
+        this(name, 0);
+    }
+
+    /**
+     * Constructs a LongMemo that holds at most the given number of entries.
+     *
+     * @param name    the name reported in the statistics
+     * @param maxSize the maximum number of entries, or {@code 0} for an unbounded memo
+     */
+    public LongMemo(final String name, final int maxSize) {
+        if (maxSize < 0 || maxSize > 1 << 29) {
+            throw new IllegalArgumentException(format("Memo size out of range [0, 2^29]: %1$d", maxSize));
+        }
+        this.name = name;
+        this.maxSize = maxSize;
+        allocate(maxSize > 0 ? Integer.highestOneBit(Math.max(1, maxSize) * 2 - 1) * 2 : INITIAL_CAPACITY);
+    }
+
+    /**
+     * Packs two values into a key, 32 bits each.
+     *
+     * @param first  the first value
+     * @param second the second value
+     * @return the key
+     */
+    public static long pack(final int first, final int second) {
+        return (long) first << 32 | second & 0xFFFF_FFFFL;
+    }
+
+    /**
+     * Packs three values into a key, 21 bits each.
+     *
+     * @param first  the first value, in {@code [0, 2^21)}
+     * @param second the second value, in {@code [0, 2^21)}
+     * @param third  the third value, in {@code [0, 2^21)}
+     * @return the key
+     * @throws IllegalArgumentException if a value does not fit in 21 bits
+     */
+    public static long pack(final int first, final int second, final int third) {
+        return (long) field(first, 21) << 42 | (long) field(second, 21) << 21 | field(third, 21);
+    }
+
+    /**
+     * Packs four values into a key, 16 bits each.
+     *
+     * @param first  the first value, in {@code [0, 2^16)}
+     * @param second the second value, in {@code [0, 2^16)}
+     * @param third  the third value, in {@code [0, 2^16)}
+     * @param fourth the fourth value, in {@code [0, 2^16)}
+     * @return the key
+     * @throws IllegalArgumentException if a value does not fit in 16 bits
+     */
+    public static long pack(final int first, final int second, final int third, final int fourth) {
+        return (long) field(first, 16) << 48 | (long) field(second, 16) << 32 | (long) field(third, 16) << 16
+                | field(fourth, 16);
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key    the key
+     * @param absent the value returned if the memo does not hold the key
+     * @return the memoized value, or {@code absent}
+     */
+    public long get(final long key, final long absent) {
+        final int slot = find(key);
+        if (slot < 0) {
+            this.misses++;
+            return absent;
+        }
+        this.hits++;
+        this.states[slot] = FULL | REFERENCED;
+        return this.values[slot];
+    }
+
+    /**
+     * Checks whether the memo holds a key, without counting a hit or miss.
+     *
+     * @param key the key
+     * @return {@code true} if the key is memoized
+     */
+    public boolean containsKey(final long key) {
+        return find(key) >= 0;
+    }
+
+    /**
+     * Stores the value of a key, evicting another entry if a bounded memo is full.
+     *
+     * @param key   the key
+     * @param value the value
+     */
+    public void put(final long key, final long value) {
+        int slot = find(key);
+        if (slot < 0) {
+            if (this.maxSize > 0 && this.size >= this.maxSize) {
+                evict();
+                slot = find(key);
+            } else if (this.maxSize == 0 && this.size >= this.keys.length >>> 1) {
+                resize(this.keys.length * 2);
+                slot = find(key);
+            }
+            slot = ~slot;
+            this.keys[slot] = key;
+            this.size++;
+        }
+        this.values[slot] = value;
+        this.states[slot] = FULL | REFERENCED;
+    }
+
+    /**
+     * Gets the value of a key, computing and storing it on a miss. The function may itself use the memo, e.g. in
+     * a recursion, because the value is stored only after it has been computed.
+     *
+     * @param key      the key
+     * @param function computes the value of the key
+     * @return the memoized or computed value
+     */
+    public long computeIfAbsent(final long key, final LongUnaryOperator function) {
+        final int slot = find(key);
+        if (slot >= 0) {
+            this.hits++;
+            this.states[slot] = FULL | REFERENCED;
+            return this.values[slot];
+        }
+        this.misses++;
+        final long value = function.applyAsLong(key);
+        put(key, value);
+        return value;
+    }
+
+    /**
+     * Gets the number of entries.
+     *
+     * @return the memo size
+     */
+    public int size() {
+        return this.size;
+    }
+
+    /**
+     * Gets the number of lookups that found their key.
+     *
+     * @return the hit count
+     */
+    public long hits() {
+        return this.hits;
+    }
+
+    /**
+     * Gets the number of lookups that did not find their key.
+     *
+     * @return the miss count
+     */
+    public long misses() {
+        return this.misses;
+    }
+
+    /**
+     * Gets the number of entries evicted to make room for new ones.
+     *
+     * @return the eviction count
+     */
+    public long evictions() {
+        return this.evictions;
+    }
+
+    /**
+     * Removes every entry and resets the statistics, keeping the table.
+     */
+    public void clear() {
+        Arrays.fill(this.states, (byte) 0);
+        this.size = 0;
+        this.hand = 0;
+        this.hits = 0;
+        this.misses = 0;
+        this.evictions = 0;
+    }
+
+    /**
+     * Logs the size, hit, miss and eviction counts of the memo.
+     *
+     * @param owner the solve the memo belongs to, e.g. {@code day11 ONE}
+     */
+    public void logStatistics(final String owner) {
+        LOG.info(() -> format("%1$s memo %2$s: %3$s", owner, this.name, statistics()));
+    }
+
+    /**
+     * Describes the size, hit, miss and eviction counts of the memo.
+     *
+     * @return the statistics as one line
+     */
+    public String statistics() {
+        final long lookups = this.hits + this.misses;
+        return format("%1$d entries%2$s, %3$d hits, %4$d misses (%5$.1f%% hit rate), %6$d evictions", this.size,
+                this.maxSize > 0 ? format(" of %1$d", this.maxSize) : "", this.hits, this.misses,
+                lookups == 0 ? 0.0 : 100.0 * this.hits / lookups, this.evictions);
+    }
+
+    /**
+     * Finds the slot of a key.
+     *
+     * @param key the key
+     * @return the slot holding the key, or the complement {@code ~slot} of the empty slot where it would go
+     */
+    private int find(final long key) {
+        final int mask = this.keys.length - 1;
+        int slot = hash(key) & mask;
+        while (this.states[slot] != 0) {
+            if (this.keys[slot] == key) {
+                return slot;
+            }
+            slot = slot + 1 & mask;
+        }
+        return ~slot;
+    }
+
+    /**
+     * Evicts one entry: advances the clock hand past referenced entries, clearing their flag, and removes the
+     * first entry that has not been used since the hand last passed it.
+     */
+    private void evict() {
+        final int mask = this.keys.length - 1;
+        while (true) {
+            final byte state = this.states[this.hand];
+            if (state == FULL) {
+                remove(this.hand);
+                this.evictions++;
+                return;
+            }
+            if (state != 0) {
+                this.states[this.hand] = FULL;
+            }
+            this.hand = this.hand + 1 & mask;
+        }
+    }
+
+    /**
+     * Removes the entry in a slot, shifting the following entries of its probe sequence back so that every
+     * remaining key stays reachable without tombstones.
+     *
+     * @param slot the slot to empty
+     */
+    private void remove(final int slot) {
+        final int mask = this.keys.length - 1;
+        int gap = slot;
+        int next = slot + 1 & mask;
+        while (this.states[next] != 0) {
+            final int home = hash(this.keys[next]) & mask;
+            if ((next - home & mask) >= (next - gap & mask)) {
+                this.keys[gap] = this.keys[next];
+                this.values[gap] = this.values[next];
+                this.states[gap] = this.states[next];
+                gap = next;
+            }
+            next = next + 1 & mask;
+        }
+        this.states[gap] = 0;
+        this.size--;
+    }
+
+    /**
+     * Rehashes every entry into a table of a new capacity.
+     *
+     * @param capacity the new capacity, a power of two
+     */
+    private void resize(final int capacity) {
+        final long[] oldKeys = this.keys;
+        final long[] oldValues = this.values;
+        final byte[] oldStates = this.states;
+        allocate(capacity);
+        final int mask = capacity - 1;
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldStates[i] != 0) {
+                int slot = hash(oldKeys[i]) & mask;
+                while (this.states[slot] != 0) {
+                    slot = slot + 1 & mask;
+                }
+                this.keys[slot] = oldKeys[i];
+                this.values[slot] = oldValues[i];
+                this.states[slot] = oldStates[i];
+            }
+        }
+    }
+
+    /**
+     * Allocates an empty table.
+     *
+     * @param capacity the capacity, a power of two
+     */
+    private void allocate(final int capacity) {
+        this.keys = new long[capacity];
+        this.values = new long[capacity];
+        this.states = new byte[capacity];
+        this.hand = 0;
+    }
+
+    /**
+     * Spreads the bits of a key so that packed keys with small fields use the whole table.
+     *
+     * @param key the key
+     * @return the hash of the key
+     */
+    private static int hash(final long key) {
+        final long mixed = key * 0x9E37_79B9_7F4A_7C15L;
+        return (int) (mixed ^ mixed >>> 32);
+    }
+
+    /**
+     * Checks that a value fits in a packed field.
+     *
+     * @param value the value
+     * @param bits  the width of the field
+     * @return the value
+     * @throws IllegalArgumentException if the value is negative or too large
+     */
+    private static int field(final int value, final int bits) {
+        if (value < 0 || value >= 1 << bits) {
+            throw new IllegalArgumentException(format("Value %1$d does not fit in %2$d bits", value, bits));
+        }
+        return value;
+    }
+}
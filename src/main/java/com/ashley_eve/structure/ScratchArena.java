@@ -0,0 +1,253 @@
+package com.ashley_eve.structure;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+
+/**
+ * The {@code ScratchArena} class hands out reusable scratch memory for one solve: {@code int[]}, {@code long[]}
+ * and {@code byte[]} buffers and growable {@link IntList} and {@link LongList} lists. Everything handed out is
+ * taken back in bulk by {@link #reset()}, after which the same arrays and lists are handed out again, so a solve
+ * that draws all of its temporary memory from an arena stops allocating once the arena has warmed up.
+ *
+ * <p>Buffers are pooled in power-of-two size classes and are always at least as long as requested; the
+ * requested prefix is zeroed. The arena is confined to one thread at a time. Arenas are shared between solves
+ * through {@link #acquire()} and {@link #release(ScratchArena)}, which also works for virtual threads that only
+ * live for a single task. Nothing handed out by an arena may be kept after it is reset, e.g. in an answer or in
+ * a model shared between parts.
+ *
+ * <p>Usage example:
+ * <pre>{@code
+ * ScratchArena arena = scratch();
+ * int[] counts = arena.ints(100_000);
+ * IntList stack = arena.intList();
+ * }</pre>
+ */
+public final class ScratchArena {
+
+    /** The smallest buffer handed out. */
+    private static final int MIN_BUFFER_LENGTH = 64;
+
+    /** The number of size classes, covering every length up to {@code Integer.MAX_VALUE}. */
+    private static final int SIZE_CLASSES = Integer.SIZE;
+
+    /** The arenas that are not in use. */
+    private static final Queue<ScratchArena> POOL = new ConcurrentLinkedQueue<>();
+
+    /** Free {@code int[]} buffers by size class. */
+    private final Pool<int[]> ints = new Pool<>();
+
+    /** Free {@code long[]} buffers by size class. */
+    private final Pool<long[]> longs = new Pool<>();
+
+    /** Free {@code byte[]} buffers by size class. */
+    private final Pool<byte[]> bytes = new Pool<>();
+
+    /** Every int list created by this arena. */
+    private final List<IntList> intLists = new ArrayList<>();
+
+    /** Every long list created by this arena. */
+    private final List<LongList> longLists = new ArrayList<>();
+
+    /** The number of int lists handed out since the last reset. */
+    private int intListsInUse;
+
+    /** The number of long lists handed out since the last reset. */
+    private int longListsInUse;
+
+    /**
+     * Takes an arena from the shared pool, or creates one if all are in use.
+     *
+     * @return an arena with nothing handed out
+     */
+    public static ScratchArena acquire() {
+        final ScratchArena arena = POOL.poll();
+        return arena == null ? new ScratchArena() : arena;
+    }
+
+    /**
+     * Resets an arena and returns it to the shared pool.
+     *
+     * @param arena the arena to return
+     */
+    public static void release(final ScratchArena arena) {
+        arena.reset();
+        POOL.add(arena);
+    }
+
+    /**
+     * Gets a zeroed {@code int[]} of at least the given length.
+     *
+     * @param length the number of values needed
+     * @return a buffer whose first {@code length} values are zero
+     */
+    public int[] ints(final int length) {
+        final int sizeClass = sizeClass(length);
+        int[] buffer = this.ints.take(sizeClass);
+        if (buffer == null) {
+            buffer = new int[classLength(sizeClass)];
+        } else {
+            Arrays.fill(buffer, 0, length, 0);
+        }
+        this.ints.handOut(sizeClass, buffer);
+        return buffer;
+    }
+
+    /**
+     * Gets a zeroed {@code long[]} of at least the given length.
+     *
+     * @param length the number of values needed
+     * @return a buffer whose first {@code length} values are zero
+     */
+    public long[] longs(final int length) {
+        final int sizeClass = sizeClass(length);
+        long[] buffer = this.longs.take(sizeClass);
+        if (buffer == null) {
+            buffer = new long[classLength(sizeClass)];
+        } else {
+            Arrays.fill(buffer, 0, length, 0L);
+        }
+        this.longs.handOut(sizeClass, buffer);
+        return buffer;
+    }
+
+    /**
+     * Gets a zeroed {@code byte[]} of at least the given length.
+     *
+     * @param length the number of bytes needed
+     * @return a buffer whose first {@code length} bytes are zero
+     */
+    public byte[] bytes(final int length) {
+        final int sizeClass = sizeClass(length);
+        byte[] buffer = this.bytes.take(sizeClass);
+        if (buffer == null) {
+            buffer = new byte[classLength(sizeClass)];
+        } else {
+            Arrays.fill(buffer, 0, length, (byte) 0);
+        }
+        this.bytes.handOut(sizeClass, buffer);
+        return buffer;
+    }
+
+    /**
+     * Gets an empty int list.
+     *
+     * @return a cleared list, reused after the next reset
+     */
+    public IntList intList() {
+        if (this.intListsInUse == this.intLists.size()) {
+            this.intLists.add(new IntList());
+        }
+        final IntList list = this.intLists.get(this.intListsInUse++);
+        list.clear();
+        return list;
+    }
+
+    /**
+     * Gets an empty long list.
+     *
+     * @return a cleared list, reused after the next reset
+     */
+    public LongList longList() {
+        if (this.longListsInUse == this.longLists.size()) {
+            this.longLists.add(new LongList());
+        }
+        final LongList list = this.longLists.get(this.longListsInUse++);
+        list.clear();
+        return list;
+    }
+
+    /**
+     * Takes back every buffer and list handed out since the last reset.
+     */
+    public void reset() {
+        this.ints.reclaim();
+        this.longs.reclaim();
+        this.bytes.reclaim();
+        this.intListsInUse = 0;
+        this.longListsInUse = 0;
+    }
+
+    /**
+     * Gets the size class of a length: the exponent of the smallest power of two that holds it.
+     *
+     * @param length the requested length
+     * @return the size class
+     */
+    private static int sizeClass(final int length) {
+        if (length < 0) {
+            throw new IllegalArgumentException(String.format("Negative buffer length: %1$d", length));
+        }
+        final int rounded = Math.max(MIN_BUFFER_LENGTH, length);
+        return Integer.SIZE - Integer.numberOfLeadingZeros(rounded - 1);
+    }
+
+    /**
+     * Gets the length of the buffers of a size class.
+     *
+     * @param sizeClass the size class
+     * @return the buffer length
+     */
+    private static int classLength(final int sizeClass) {
+        return sizeClass >= Integer.SIZE - 1 ? Integer.MAX_VALUE - 8 : 1 << sizeClass;
+    }
+
+    /**
+     * The {@code Pool} class keeps the free and handed-out buffers of one element type.
+     *
+     * @param <T> the array type
+     */
+    private static final class Pool<T> {
+
+        /** The free buffers of every size class, created on first use. */
+        @SuppressWarnings({"unchecked", "rawtypes"})
+        private final ArrayDeque<T>[] free = new ArrayDeque[SIZE_CLASSES];
+
+        /** The buffers handed out since the last reclaim. */
+        private final List<T> inUse = new ArrayList<>();
+
+        /** The size class of every buffer in {@link #inUse}. */
+        private final IntList inUseClasses = new IntList();
+
+        /**
+         * Takes a free buffer of a size class.
+         *
+         * @param sizeClass the size class
+         * @return the buffer, or {@code null} if none is free
+         */
+        private T take(final int sizeClass) {
+            final ArrayDeque<T> buffers = this.free[sizeClass];
+            return buffers == null ? null : buffers.pollLast();
+        }
+
+        /**
+         * Records a buffer as handed out.
+         *
+         * @param sizeClass the size class of the buffer
+         * @param buffer    the buffer
+         */
+        private void handOut(final int sizeClass, final T buffer) {
+            this.inUse.add(buffer);
+            this.inUseClasses.add(sizeClass);
+        }
+
+        /**
+         * Returns every handed-out buffer to the free buffers.
+         */
+        private void reclaim() {
+            for (int i = 0; i < this.inUse.size(); i++) {
+                final int sizeClass = this.inUseClasses.get(i);
+                if (this.free[sizeClass] == null) {
+                    this.free[sizeClass] = new ArrayDeque<>();
+                }
+                this.free[sizeClass].addLast(this.inUse.get(i));
+            }
+            this.inUse.clear();
+            this.inUseClasses.clear();
+        }
+    }
+}
@@ -0,0 +1,171 @@
+package com.ashley_eve.file;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import com.ashley_eve.metrics.AllocationGuard;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link ByteParser}: signs, separators, range limits and the agreement of the array and buffer forms.
+ */
+class ByteParserTest {
+
+    /**
+     * A minus sign belongs to a number only when a digit follows it directly.
+     */
+    @Test
+    void parsesSignsOnlyDirectlyBeforeDigits() {
+        assertArrayEquals(new int[] {-3, 12, 7, -2, -5}, ints("x=-3, y=12 a-b 7-2 --5 -"));
+        assertArrayEquals(new int[] {4}, ints("- 4 -"));
+        assertArrayEquals(new int[] {0, 0}, ints("-0 0"));
+    }
+
+    /**
+     * Every byte that is neither a digit nor a sign before a digit separates numbers.
+     */
+    @Test
+    void treatsEveryOtherByteAsSeparator() {
+        assertArrayEquals(new int[] {7, 6, 4, 2, 1}, ints("7,6,4,2,1"));
+        assertArrayEquals(new int[] {1, 2, 3}, ints("\t1\r\n2;;3\n"));
+        assertArrayEquals(new int[] {123, 45}, ints("mul(123,45)"));
+        assertArrayEquals(new int[0], ints(""));
+        assertArrayEquals(new int[0], ints("no numbers here"));
+    }
+
+    /**
+     * The extreme values of both types parse exactly.
+     */
+    @Test
+    void parsesRangeLimits() {
+        assertEquals(Integer.MAX_VALUE, ByteParser.parseInt(bytes("2147483647"), 0, 10));
+        assertEquals(Integer.MIN_VALUE, ByteParser.parseInt(bytes("-2147483648"), 0, 11));
+        assertEquals(Long.MAX_VALUE, ByteParser.parseLong(bytes("9223372036854775807"), 0, 19));
+        assertEquals(Long.MIN_VALUE, ByteParser.parseLong(bytes("-9223372036854775808"), 0, 20));
+        assertEquals(42, ByteParser.parseInt(bytes("000042"), 0, 6));
+    }
+
+    /**
+     * A number just outside the range of the target type throws instead of wrapping around.
+     */
+    @Test
+    void throwsOnOverflow() {
+        assertThrows(NumberFormatException.class, () -> ByteParser.parseInt(bytes("2147483648"), 0, 10));
+        assertThrows(NumberFormatException.class, () -> ByteParser.parseInt(bytes("-2147483649"), 0, 11));
+        assertThrows(NumberFormatException.class, () -> ByteParser.parseLong(bytes("9223372036854775808"), 0, 19));
+        assertThrows(NumberFormatException.class, () -> ByteParser.parseLongs(bytes("1 99999999999999999999"),
+                new long[2]));
+        assertEquals(2147483648L, ByteParser.parseLong(bytes("2147483648"), 0, 10));
+    }
+
+    /**
+     * A single parse skips leading separators, stops at the range end and yields {@code 0} without a number.
+     */
+    @Test
+    void parsesSingleNumberWithinRange() {
+        final byte[] line = bytes("a: 123 456");
+        assertEquals(123, ByteParser.parseInt(line, 0, line.length));
+        assertEquals(12, ByteParser.parseInt(line, 0, 5));
+        assertEquals(456, ByteParser.parseLong(line, 6, line.length));
+        assertEquals(0, ByteParser.parseInt(line, 0, 2));
+    }
+
+    /**
+     * Parsing a range writes at the output offset and leaves the rest of the buffer untouched.
+     */
+    @Test
+    void parsesRangeAtOutputOffset() {
+        final byte[] data = bytes("9 10 -11 12");
+        final int[] out = {-1, -1, -1, -1};
+        assertEquals(2, ByteParser.parseInts(data, 2, 8, out, 1));
+        assertArrayEquals(new int[] {-1, 10, -11, -1}, out);
+    }
+
+    /**
+     * The buffer forms agree with the array forms.
+     */
+    @Test
+    void parsesBuffersLikeArrays() {
+        final byte[] data = bytes("p=-4,17 v=3,-9000000000");
+        final long[] fromArray = new long[4];
+        final long[] fromBuffer = new long[4];
+        assertEquals(4, ByteParser.parseLongs(data, fromArray));
+        assertEquals(4, ByteParser.parseLongs(ByteBuffer.wrap(data), 0, data.length, fromBuffer, 0));
+        assertArrayEquals(fromArray, fromBuffer);
+        assertArrayEquals(new long[] {-4, 17, 3, -9000000000L}, fromBuffer);
+        assertThrows(NumberFormatException.class, () -> ByteParser.parseInts(ByteBuffer.wrap(data), 0, data.length,
+                new int[4], 0));
+    }
+
+    /**
+     * A column is read from every line, and lines without the column yield {@code 0}.
+     */
+    @Test
+    void extractsColumns() {
+        final MappedInput input = MappedInput.wrap(bytes("3   4\n4   3\n2\n-1   -5\n"));
+        assertArrayEquals(new int[] {3, 4, 2, -1}, ByteParser.column(input, 0));
+        assertArrayEquals(new int[] {4, 3, 0, -5}, ByteParser.column(input, 1));
+        assertArrayEquals(new long[] {4, 3, 0, -5}, ByteParser.longColumn(input, 1));
+    }
+
+    /**
+     * Counting finds the same numbers as parsing.
+     */
+    @Test
+    void countsNumbers() {
+        assertEquals(5, ByteParser.countNumbers(bytes("x=-3, y=12 a-b 7-2 --5 -")));
+        assertEquals(0, ByteParser.countNumbers(bytes("- -")));
+    }
+
+    /**
+     * Once warmed up, parsing into reused buffers allocates nothing, and extracting a column allocates only the
+     * returned array and one line of fields, not a per-line object.
+     */
+    @Test
+    void parsesWithoutAllocating() {
+        final byte[] line = bytes("p=-4,17 v=3,-90 12345 -2147483648");
+        final int[] ints = new int[8];
+        final long[] longs = new long[8];
+        final ByteBuffer buffer = ByteBuffer.wrap(line);
+        AllocationGuard.assertNoAllocation(() -> {
+            ByteParser.parseInts(line, ints);
+            ByteParser.parseLongs(line, longs);
+            ByteParser.parseInts(buffer, 0, line.length, ints, 0);
+            ByteParser.parseLongs(buffer, 0, line.length, longs, 0);
+            ByteParser.parseLong(line, 0, line.length);
+        }, 10_000, 0);
+
+        final int lines = 1000;
+        final MappedInput input = MappedInput.wrap(bytes("3   4\n".repeat(lines)));
+        final long columnBytes = 16 + 4L * lines;
+        AllocationGuard.assertNoAllocation(() -> ByteParser.column(input, 1), 1000, columnBytes + 64);
+        AllocationGuard.assertNoAllocation(() -> ByteParser.longColumn(input, 1), 1000, 2 * columnBytes + 64);
+    }
+
+    /**
+     * Parses every number of a line.
+     *
+     * @param line the line
+     * @return the numbers
+     */
+    private static int[] ints(final String line) {
+        final int[] out = new int[line.length()];
+        return Arrays.copyOf(out, ByteParser.parseInts(bytes(line), out));
+    }
+
+    /**
+     * Encodes a line.
+     *
+     * @param line the line
+     * @return the ASCII bytes
+     */
+    private static byte[] bytes(final String line) {
+        return line.getBytes(StandardCharsets.US_ASCII);
+    }
+}
@@ -0,0 +1,79 @@
+package com.ashley_eve.search;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.PriorityQueue;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link NodeHeap}: entries are polled in priority order, with the node that was pushed with each
+ * priority.
+ */
+class NodeHeapTest {
+
+    /**
+     * Entries pushed in random order, with duplicates and beyond the initial capacity, come out sorted.
+     */
+    @Test
+    void pollsInPriorityOrder() {
+        final NodeHeap heap = new NodeHeap(0);
+        final Random random = new Random(7);
+        for (int node = 0; node < 1000; node++) {
+            heap.push(node, random.nextInt(100) - 50);
+        }
+        long previous = Long.MIN_VALUE;
+        int count = 0;
+        while (!heap.isEmpty()) {
+            heap.poll();
+            assertTrue(heap.polledPriority() >= previous, "priorities never decrease");
+            previous = heap.polledPriority();
+            count++;
+        }
+        assertEquals(1000, count);
+    }
+
+    /**
+     * Each polled node carries the priority it was pushed with, also for extreme priorities.
+     */
+    @Test
+    void keepsNodesWithTheirPriorities() {
+        final NodeHeap heap = new NodeHeap(4);
+        heap.push(1, Long.MAX_VALUE);
+        heap.push(2, Long.MIN_VALUE);
+        heap.push(3, 0);
+        heap.poll();
+        assertEquals(2, heap.polledNode());
+        assertEquals(Long.MIN_VALUE, heap.polledPriority());
+        heap.poll();
+        assertEquals(3, heap.polledNode());
+        heap.poll();
+        assertEquals(1, heap.polledNode());
+        assertEquals(Long.MAX_VALUE, heap.polledPriority());
+        assertTrue(heap.isEmpty());
+    }
+
+    /**
+     * Pushes interleaved with polls, as in a search, agree with a reference priority queue.
+     */
+    @Test
+    void matchesReferenceQueueWhenInterleaved() {
+        final NodeHeap heap = new NodeHeap(16);
+        final PriorityQueue<long[]> reference = new PriorityQueue<>((a, b) -> Long.compare(a[0], b[0]));
+        final Random random = new Random(11);
+        for (int step = 0; step < 10_000; step++) {
+            if (reference.isEmpty() || random.nextInt(3) > 0) {
+                final long priority = random.nextInt(1000);
+                heap.push(step, priority);
+                reference.add(new long[] {priority, step});
+            } else {
+                heap.poll();
+                assertEquals(reference.poll()[0], heap.polledPriority());
+            }
+            assertEquals(reference.isEmpty(), heap.isEmpty());
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.ashley_eve.search;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.nio.charset.StandardCharsets;
+
+import com.ashley_eve.file.MappedInput;
+import com.ashley_eve.structure.Grid;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link Search}: shortest distances and paths of the breadth-first, Dijkstra and A* searches.
+ */
+class SearchTest {
+
+    /** A maze whose shortest route from the top left to the bottom right corner takes 16 steps. */
+    private static final String MAZE = """
+            ..#....
+            .##.##.
+            ....#..
+            ##.##.#
+            ...#...
+            """;
+
+    /**
+     * A heuristic that is admissible but not consistent makes A* expand a node before its shortest distance is
+     * known; the node is expanded again once the distance improves, so the goal distance is still the shortest.
+     */
+    @Test
+    void aStarReopensNodesForInconsistentHeuristic() {
+        final int start = 0;
+        final int a = 1;
+        final int b = 2;
+        final int c = 3;
+        final int goal = 4;
+        final AdjacencyGraph graph = AdjacencyGraph.builder(5)
+                .addEdge(start, a, 1)
+                .addEdge(start, b, 1)
+                .addEdge(a, c, 1)
+                .addEdge(b, c, 2)
+                .addEdge(c, goal, 3)
+                .build();
+        final long[] estimates = {0, 4, 1, 0, 0};
+        final SearchResult result = Search.aStar(graph, node -> estimates[node], node -> node == goal, start);
+        assertEquals(goal, result.goal());
+        assertEquals(5, result.goalDistance());
+        assertArrayEquals(new int[] {start, a, c, goal}, result.path(goal));
+        assertEquals(5, Search.dijkstra(graph, start).distance(goal));
+    }
+
+    /**
+     * On a unit-weight grid, breadth-first search, Dijkstra and A* with the Manhattan heuristic agree, and A*
+     * expands no more nodes than Dijkstra.
+     */
+    @Test
+    void searchesAgreeOnGrid() {
+        final Grid grid = Grid.of(MappedInput.wrap(MAZE.getBytes(StandardCharsets.US_ASCII)));
+        final Graph graph = Graph.grid4(grid, (byte) '#');
+        final int start = grid.index(0, 0);
+        final int end = grid.index(grid.height() - 1, grid.width() - 1);
+        final SearchResult bfs = Search.bfs(graph, node -> node == end, start);
+        final SearchResult dijkstra = Search.dijkstra(graph, node -> node == end, start);
+        final SearchResult aStar = Search.aStar(graph, Heuristic.manhattan(grid, end), node -> node == end, start);
+        assertEquals(16, bfs.goalDistance());
+        assertEquals(16, dijkstra.goalDistance());
+        assertEquals(16, aStar.goalDistance());
+        assertEquals(17, aStar.path(end).length);
+        assertTrue(aStar.expanded() <= dijkstra.expanded());
+    }
+
+    /**
+     * Without a goal every reachable node gets its distance from the nearest source, and walled-off nodes stay
+     * unreached.
+     */
+    @Test
+    void exploresFromSeveralSources() {
+        final AdjacencyGraph graph = AdjacencyGraph.builder(5)
+                .addUndirectedEdge(0, 1, 5)
+                .addUndirectedEdge(1, 2, 1)
+                .addUndirectedEdge(2, 3, 5)
+                .build();
+        final SearchResult result = Search.dijkstra(graph, 0, 3);
+        assertFalse(result.foundGoal());
+        assertEquals(0, result.distance(3));
+        assertEquals(5, result.distance(1));
+        assertEquals(5, result.distance(2));
+        assertFalse(result.reached(4));
+        assertEquals(SearchResult.UNREACHABLE, result.distance(4));
+        assertEquals(0, result.path(4).length);
+        assertEquals(4, result.reachedCount());
+    }
+
+    /**
+     * Negative edge weights are rejected, by the builder of an explicit graph and by Dijkstra and A* for a graph
+     * that reports one, instead of returning a wrong distance.
+     */
+    @Test
+    void rejectsNegativeWeights() {
+        assertThrows(IllegalArgumentException.class, () -> AdjacencyGraph.builder(2).addEdge(0, 1, -1));
+        final Graph graph = new Graph() {
+            @Override
+            public int size() {
+                return 2;
+            }
+
+            @Override
+            public void forEachEdge(final int node, final EdgeConsumer edges) {
+                if (node == 0) {
+                    edges.accept(1, -1);
+                }
+            }
+        };
+        assertThrows(IllegalArgumentException.class, () -> Search.dijkstra(graph, 0));
+        assertThrows(IllegalArgumentException.class, () -> Search.aStar(graph, Heuristic.none(), node -> false, 0));
+    }
+}
@@ -0,0 +1,91 @@
+package com.ashley_eve.structure;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link IntList} and {@link LongList}, which share their behaviour for their element types.
+ */
+class IntListTest {
+
+    /**
+     * Appending past the initial capacity grows the list and keeps every value.
+     */
+    @Test
+    void growsBeyondInitialCapacity() {
+        final IntList list = new IntList(0);
+        for (int i = 0; i < 1000; i++) {
+            list.add(i * 3);
+        }
+        assertEquals(1000, list.size());
+        assertEquals(0, list.get(0));
+        assertEquals(2997, list.get(999));
+    }
+
+    /**
+     * The list works as a stack and reports emptiness.
+     */
+    @Test
+    void removesLastValues() {
+        final IntList list = new IntList();
+        assertTrue(list.isEmpty());
+        list.add(1);
+        list.add(2);
+        assertEquals(2, list.removeLast());
+        assertEquals(1, list.removeLast());
+        assertTrue(list.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, list::removeLast);
+    }
+
+    /**
+     * Indexes are checked against the size, not the capacity of the backing array.
+     */
+    @Test
+    void checksIndexesAgainstSize() {
+        final IntList list = new IntList(16);
+        list.add(7);
+        list.set(0, 8);
+        assertEquals(8, list.get(0));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(1));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.set(-1, 0));
+        list.clear();
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(0));
+    }
+
+    /**
+     * Sorting and copying only see the values of the list, not stale values beyond its size.
+     */
+    @Test
+    void sortsAndCopiesOnlyTheValues() {
+        final IntList list = new IntList();
+        for (final int value : new int[] {5, -1, 9, 3}) {
+            list.add(value);
+        }
+        list.removeLast();
+        list.sort();
+        assertArrayEquals(new int[] {-1, 5, 9}, list.toArray());
+    }
+
+    /**
+     * The long list behaves the same for values beyond the {@code int} range.
+     */
+    @Test
+    void longListHoldsLongValues() {
+        final LongList list = new LongList(1);
+        list.add(Long.MAX_VALUE);
+        list.add(Long.MIN_VALUE);
+        list.add(1L << 40);
+        assertEquals(Long.MIN_VALUE, list.get(1));
+        list.sort();
+        assertArrayEquals(new long[] {Long.MIN_VALUE, 1L << 40, Long.MAX_VALUE}, list.toArray());
+        assertEquals(Long.MAX_VALUE, list.removeLast());
+        assertFalse(list.isEmpty());
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(2));
+    }
+}
@@ -0,0 +1,170 @@
+package com.ashley_eve.structure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link LongMemo}: lookups of an unbounded memo, CLOCK eviction of a bounded one and the removal of
+ * evicted entries from colliding probe sequences.
+ */
+class LongMemoTest {
+
+    /**
+     * An unbounded memo grows past its initial capacity and keeps every entry and its latest value.
+     */
+    @Test
+    void unboundedMemoKeepsEveryEntry() {
+        final LongMemo memo = new LongMemo("test");
+        for (int i = 0; i < 5000; i++) {
+            memo.put(LongMemo.pack(i, -i), i);
+        }
+        memo.put(LongMemo.pack(7, -7), 70);
+        assertEquals(5000, memo.size());
+        assertEquals(70, memo.get(LongMemo.pack(7, -7), -1));
+        assertEquals(4999, memo.get(LongMemo.pack(4999, -4999), -1));
+        assertEquals(-1, memo.get(LongMemo.pack(5000, -5000), -1));
+        assertEquals(2, memo.hits());
+        assertEquals(1, memo.misses());
+        assertEquals(0, memo.evictions());
+    }
+
+    /**
+     * A bounded memo never holds more than its maximum size, and every entry that is gone was counted as evicted.
+     */
+    @Test
+    void boundedMemoEvictsAtMaxSize() {
+        final LongMemo memo = new LongMemo("test", 100);
+        for (int i = 0; i < 1000; i++) {
+            memo.put(i, i);
+            assertTrue(memo.size() <= 100, "size stays within the bound");
+            assertTrue(memo.containsKey(i), "the entry just stored is held");
+        }
+        assertEquals(100, memo.size());
+        assertEquals(900, memo.evictions());
+    }
+
+    /**
+     * An entry read after the clock hand cleared its flag survives the next eviction, while the one entry that
+     * was not used since is evicted.
+     */
+    @Test
+    void evictsEntryNotUsedSinceHandPassed() {
+        final LongMemo memo = new LongMemo("test", 4);
+        for (int key = 1; key <= 5; key++) {
+            memo.put(key, key * 10);
+        }
+        assertEquals(1, memo.evictions());
+        long evicted = -1;
+        long victim = -1;
+        for (int key = 1; key <= 4; key++) {
+            if (!memo.containsKey(key)) {
+                evicted = key;
+            } else if (victim < 0) {
+                victim = key;
+            } else {
+                memo.get(key, -1);
+            }
+        }
+        memo.put(6, 60);
+        assertFalse(memo.containsKey(victim));
+        for (int key = 1; key <= 6; key++) {
+            if (key != victim && key != evicted) {
+                assertEquals(key * 10L, memo.get(key, -1));
+            }
+        }
+        assertEquals(4, memo.size());
+    }
+
+    /**
+     * After many evictions from a small, densely filled table, whose entries collide and wrap around its end,
+     * every held key is still found with its value, so removal shifts the following probes back correctly.
+     */
+    @Test
+    void keepsCollidingEntriesReachableAfterRemoval() {
+        final LongMemo memo = new LongMemo("test", 4);
+        final Map<Long, Long> stored = new HashMap<>();
+        final Random random = new Random(3);
+        for (int step = 0; step < 20_000; step++) {
+            final long key = random.nextInt(64);
+            if (random.nextBoolean()) {
+                memo.put(key, step);
+                stored.put(key, (long) step);
+            } else {
+                memo.get(key, -1);
+            }
+            int held = 0;
+            for (final Map.Entry<Long, Long> entry : stored.entrySet()) {
+                if (memo.containsKey(entry.getKey())) {
+                    held++;
+                    assertEquals(entry.getValue().longValue(), memo.get(entry.getKey(), -1));
+                }
+            }
+            assertEquals(memo.size(), held);
+        }
+        assertTrue(memo.evictions() > 0);
+    }
+
+    /**
+     * A recursive computation may use the memo while its own value is being computed.
+     */
+    @Test
+    void computeIfAbsentSupportsRecursion() {
+        final LongMemo memo = new LongMemo("fibonacci", 8);
+        assertEquals(12_586_269_025L, fibonacci(memo, 50));
+        assertTrue(memo.size() <= 8);
+        assertTrue(memo.hits() > 0);
+    }
+
+    /**
+     * Clearing a memo removes its entries and resets its statistics.
+     */
+    @Test
+    void clearRemovesEntriesAndStatistics() {
+        final LongMemo memo = new LongMemo("test", 2);
+        memo.put(1, 1);
+        memo.put(2, 2);
+        memo.put(3, 3);
+        memo.get(3, -1);
+        memo.clear();
+        assertEquals(0, memo.size());
+        assertEquals(0, memo.hits());
+        assertEquals(0, memo.evictions());
+        assertFalse(memo.containsKey(3));
+        memo.put(4, 4);
+        assertEquals(4, memo.get(4, -1));
+    }
+
+    /**
+     * Packed keys of distinct arguments differ, and arguments that do not fit their field are rejected.
+     */
+    @Test
+    void packsArgumentsIntoDistinctKeys() {
+        assertFalse(LongMemo.pack(1, 2) == LongMemo.pack(2, 1));
+        assertFalse(LongMemo.pack(-1, 0) == LongMemo.pack(0, -1));
+        assertFalse(LongMemo.pack(1, 0, 0) == LongMemo.pack(0, 1, 0));
+        assertFalse(LongMemo.pack(0, 0, 0, 1) == LongMemo.pack(0, 0, 1, 0));
+        assertThrows(IllegalArgumentException.class, () -> LongMemo.pack(1 << 21, 0, 0));
+        assertThrows(IllegalArgumentException.class, () -> LongMemo.pack(0, 0, 0, -1));
+        assertThrows(IllegalArgumentException.class, () -> new LongMemo("test", -1));
+    }
+
+    /**
+     * Computes a Fibonacci number recursively through a memo.
+     *
+     * @param memo the memo of computed numbers
+     * @param n    the index of the number
+     * @return the Fibonacci number
+     */
+    private static long fibonacci(final LongMemo memo, final int n) {
+        return n < 2 ? n : memo.computeIfAbsent(n, key -> fibonacci(memo, n - 1) + fibonacci(memo, n - 2));
+    }
+}
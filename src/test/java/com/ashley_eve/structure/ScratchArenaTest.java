@@ -0,0 +1,126 @@
+package com.ashley_eve.structure;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.ashley_eve.metrics.AllocationGuard;
+import org.junit.jupiter.api.Test;
+
+
+/**
+ * Tests of {@link ScratchArena}: reuse after a reset, zeroing, size classes and the absence of allocations once
+ * the arena has warmed up.
+ */
+class ScratchArenaTest {
+
+    /**
+     * Buffers hold at least the requested length and are never handed out twice before a reset.
+     */
+    @Test
+    void handsOutDistinctBuffersUntilReset() {
+        final ScratchArena arena = new ScratchArena();
+        final int[] first = arena.ints(100);
+        final int[] second = arena.ints(100);
+        assertTrue(first.length >= 100);
+        assertNotSame(first, second);
+        arena.reset();
+        final int[] reused = arena.ints(128);
+        assertTrue(reused == first || reused == second, "a buffer of the same size class is reused");
+    }
+
+    /**
+     * A reused buffer is zeroed over the requested length.
+     */
+    @Test
+    void zeroesReusedBuffers() {
+        final ScratchArena arena = new ScratchArena();
+        final long[] longs = arena.longs(10);
+        final byte[] bytes = arena.bytes(10);
+        for (int i = 0; i < 10; i++) {
+            longs[i] = -1;
+            bytes[i] = -1;
+        }
+        arena.reset();
+        final long[] reusedLongs = arena.longs(10);
+        final byte[] reusedBytes = arena.bytes(10);
+        assertSame(longs, reusedLongs);
+        assertSame(bytes, reusedBytes);
+        for (int i = 0; i < 10; i++) {
+            assertEquals(0, reusedLongs[i]);
+            assertEquals(0, reusedBytes[i]);
+        }
+    }
+
+    /**
+     * Requests of different size classes get different buffers, and a negative length is rejected.
+     */
+    @Test
+    void separatesSizeClasses() {
+        final ScratchArena arena = new ScratchArena();
+        final int[] small = arena.ints(64);
+        arena.reset();
+        final int[] large = arena.ints(65);
+        assertNotSame(small, large);
+        assertTrue(large.length >= 65);
+        assertThrows(IllegalArgumentException.class, () -> arena.ints(-1));
+    }
+
+    /**
+     * Lists are handed out empty and reused after a reset.
+     */
+    @Test
+    void reusesClearedLists() {
+        final ScratchArena arena = new ScratchArena();
+        final IntList ints = arena.intList();
+        final LongList longs = arena.longList();
+        ints.add(1);
+        longs.add(2);
+        assertNotSame(ints, arena.intList());
+        arena.reset();
+        final IntList reusedInts = arena.intList();
+        final LongList reusedLongs = arena.longList();
+        assertSame(ints, reusedInts);
+        assertSame(longs, reusedLongs);
+        assertTrue(reusedInts.isEmpty());
+        assertTrue(reusedLongs.isEmpty());
+    }
+
+    /**
+     * An arena from the pool has nothing handed out, even if it was released while in use.
+     */
+    @Test
+    void releasedArenasComeBackReset() {
+        final ScratchArena arena = ScratchArena.acquire();
+        arena.intList().add(1);
+        ScratchArena.release(arena);
+        final ScratchArena acquired = ScratchArena.acquire();
+        try {
+            assertTrue(acquired.intList().isEmpty());
+        } finally {
+            ScratchArena.release(acquired);
+        }
+    }
+
+    /**
+     * Once warmed up, a solve that draws its buffers and lists from the arena allocates nothing.
+     */
+    @Test
+    void allocatesNothingOnceWarmedUp() {
+        final ScratchArena arena = new ScratchArena();
+        AllocationGuard.assertNoAllocation(() -> {
+            final int[] counts = arena.ints(1000);
+            final IntList stack = arena.intList();
+            for (int i = 0; i < 100; i++) {
+                stack.add(i);
+                counts[i]++;
+            }
+            arena.longs(50);
+            arena.bytes(4096);
+            arena.longList().add(counts[0]);
+            arena.reset();
+        }, 1000, 0);
+    }
+}